@@ -0,0 +1,56 @@
+package MiniFireForce;
+
+import java.util.Random;
+
+/**
+ * Builds seeded simulations of a given size for the benchmarks. The simulation runs on a
+ * {@link DiscreteEventScheduler} that is never advanced, so none of its timers fire and the
+ * benchmarks drive each step by hand.
+ */
+final class BenchmarkWorld {
+    private BenchmarkWorld() {
+    }
+
+    /**
+     * Creates a simulation with the given numbers of fires, stations and trucks.
+     * Trucks are shared out as evenly as possible between the stations; under the grid
+     * model fewer fires may start if too many locations have no fuel.
+     *
+     * @param model        the spread model
+     * @param fireCount    the number of fires to start
+     * @param stationCount the number of stations to open
+     * @param truckCount   the total number of trucks across all stations
+     * @return the simulation
+     */
+    static GenSituationClass create(GenSituationClass.SpreadModel model, int fireCount, int stationCount,
+                                    int truckCount) {
+        SimulationConfig config = new SimulationConfig();
+        config.setSpreadModel(model);
+        GenSituationClass sim = new GenSituationClass(new DiscreteEventScheduler(), config, 42);
+        Random r = new Random(42);
+        for (int i = 0; i < stationCount; i++) {
+            int trucks = truckCount / stationCount + (i < truckCount % stationCount ? 1 : 0);
+            sim.addStation(r.nextInt(2000) - 1000, r.nextInt(2000) - 1000, trucks);
+        }
+        for (int attempts = 0; sim.getActiveFires().size() < fireCount && attempts < fireCount * 10; attempts++) {
+            sim.igniteFire(r.nextInt(2000) - 1000, r.nextInt(2000) - 1000, r.nextInt(10) + 1);
+        }
+        return sim;
+    }
+
+    /**
+     * Creates a simulation as {@link #create} does, then runs one dispatch round so that
+     * trucks are on the road, and publishes a snapshot of the result.
+     *
+     * @param fireCount    the number of fires to start
+     * @param stationCount the number of stations to open
+     * @param truckCount   the total number of trucks across all stations
+     * @return the simulation
+     */
+    static GenSituationClass dispatched(int fireCount, int stationCount, int truckCount) {
+        GenSituationClass sim = create(GenSituationClass.SpreadModel.SCATTER, fireCount, stationCount, truckCount);
+        sim.deployRound();
+        sim.publishSnapshot();
+        return sim;
+    }
+}
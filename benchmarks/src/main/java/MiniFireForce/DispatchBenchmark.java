@@ -0,0 +1,64 @@
+package MiniFireForce;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures dispatching in a full simulation: nearest-station lookups for every active fire,
+ * and a complete dispatch round as run by the auto-deploy timer. A round takes trucks from
+ * their stations, so each invocation of {@link #deployRound} starts from a freshly built world.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DispatchBenchmark {
+    @Param({"100", "1000"})
+    public int fireCount;
+
+    @Param({"100", "1000"})
+    public int stationCount;
+
+    @Param({"500", "5000"})
+    public int truckCount;
+
+    private GenSituationClass sim;
+    private Fire[] fires;
+
+    /** A world rebuilt before every invocation, for benchmarks that change it. */
+    @State(Scope.Thread)
+    public static class FreshWorld {
+        GenSituationClass sim;
+
+        @Setup(Level.Invocation)
+        public void setup(DispatchBenchmark b) {
+            sim = BenchmarkWorld.create(GenSituationClass.SpreadModel.SCATTER, b.fireCount, b.stationCount,
+                    b.truckCount);
+        }
+    }
+
+    @Setup
+    public void setup() {
+        sim = BenchmarkWorld.create(GenSituationClass.SpreadModel.SCATTER, fireCount, stationCount, truckCount);
+        fires = sim.getActiveFires().values().toArray(new Fire[0]);
+    }
+
+    /** A nearest-available-station lookup for every active fire. */
+    @Benchmark
+    public void findNearestStation(Blackhole bh) {
+        for (Fire f : fires) {
+            bh.consume(sim.findNearestStation(f));
+        }
+    }
+
+    /** One auto-deploy round: plan the assignment, take the trucks and send every crew. */
+    @Benchmark
+    public long deployRound(FreshWorld world) {
+        world.sim.deployRound();
+        return world.sim.getDispatchStats().getTrucksDispatched();
+    }
+}
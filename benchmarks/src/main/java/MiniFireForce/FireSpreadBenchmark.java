@@ -0,0 +1,64 @@
+package MiniFireForce;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how one fire-grid tick scales with the number of fork-join worker threads.
+ * Each iteration starts from a fresh four-million-cell grid whose fires have already
+ * spread for a while, so the frontier holds well over a hundred thousand cells.
+ * Thread counts above the machine's core count only add scheduling overhead.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FireSpreadBenchmark {
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    @Param({"200"})
+    public int fireCount;
+
+    @Param({"200"})
+    public int warmTicks;
+
+    private ForkJoinPool pool;
+    private FireGrid grid;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void startPool() {
+        pool = new ForkJoinPool(threads);
+    }
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        random = new Random(42);
+        grid = new FireGrid(7);
+        grid.setPool(pool);
+        for (int i = 1; i <= fireCount; i++) {
+            grid.ignite(i, random.nextInt(2000) - 1000, random.nextInt(2000) - 1000, 3);
+        }
+        for (int t = 0; t < warmTicks; t++) {
+            grid.tick(random);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopPool() {
+        pool.shutdown();
+    }
+
+    /** One spread tick over the whole frontier. */
+    @Benchmark
+    public int tick() {
+        grid.tick(random);
+        return grid.frontierSize();
+    }
+}
@@ -0,0 +1,66 @@
+package MiniFireForce;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures map frames at different magnifications over large worlds. A steady frame reuses
+ * the cached layers; a panned frame moves the view first, so the station and fire layers
+ * are redrawn from a viewport query, as icons or heat cells depending on how many entities
+ * are visible.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Benchmark)
+public class MapViewBenchmark {
+    @Param({"1000", "100000"})
+    public int fireCount;
+
+    @Param({"100", "10000"})
+    public int stationCount;
+
+    @Param({"500"})
+    public int truckCount;
+
+    @Param({"1", "16"})
+    public double zoom;
+
+    private MapPanel mapPanel;
+    private BufferedImage image;
+    private int frames;
+
+    @Setup
+    public void setup() {
+        GenSituationClass sim = BenchmarkWorld.dispatched(fireCount, stationCount, truckCount);
+        mapPanel = new MapPanel(sim);
+        mapPanel.setSize(800, 800);
+        mapPanel.setView(0, 0, zoom);
+        image = new BufferedImage(800, 800, BufferedImage.TYPE_INT_RGB);
+        paintFrame();
+    }
+
+    /** A frame with the view unchanged since the last one. */
+    @Benchmark
+    public BufferedImage paintFrame() {
+        Graphics2D g = image.createGraphics();
+        try {
+            mapPanel.paintComponent(g);
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+
+    /** A frame after panning by a few world units. */
+    @Benchmark
+    public BufferedImage panFrame() {
+        mapPanel.setView((frames++ & 1) * 5, 0, zoom);
+        return paintFrame();
+    }
+}
@@ -0,0 +1,64 @@
+package MiniFireForce;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares nearest-available-station lookups between the linear scan and the grid index.
+ * Roughly a quarter of the stations have no trucks left, so both indexes must skip them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NearestStationBenchmark {
+    @Param({"100", "1000", "10000"})
+    public int stationCount;
+
+    @Param({"1000"})
+    public int fireCount;
+
+    @Param({"linear", "grid"})
+    public String index;
+
+    private StationIndex stationIndex;
+    private float[] fireX;
+    private float[] fireY;
+
+    @Setup
+    public void setup() {
+        Random r = new Random(42);
+        stationIndex = "grid".equals(index) ? new GridStationIndex() : new LinearStationIndex();
+        for (int i = 0; i < stationCount; i++) {
+            int trucks = r.nextInt(4) == 0 ? 0 : r.nextInt(5) + 1;
+            stationIndex.insert(new FireStation(r.nextInt(2000) - 1000, r.nextInt(2000) - 1000, trucks));
+        }
+        fireX = new float[fireCount];
+        fireY = new float[fireCount];
+        for (int i = 0; i < fireCount; i++) {
+            fireX[i] = r.nextInt(2000) - 1000;
+            fireY[i] = r.nextInt(2000) - 1000;
+        }
+    }
+
+    /** One dispatch round: a nearest-station lookup for every active fire. */
+    @Benchmark
+    public void nearestPerFire(Blackhole bh) {
+        for (int i = 0; i < fireCount; i++) {
+            bh.consume(stationIndex.nearest(fireX[i], fireY[i], FireStation::canDeploy));
+        }
+    }
+
+    /** k-nearest lookups as used when a dispatch has to be split across stations. */
+    @Benchmark
+    public void threeNearestPerFire(Blackhole bh) {
+        for (int i = 0; i < fireCount; i++) {
+            bh.consume(stationIndex.kNearestAvailable(fireX[i], fireY[i], 3));
+        }
+    }
+}
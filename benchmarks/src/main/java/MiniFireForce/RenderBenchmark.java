@@ -0,0 +1,77 @@
+package MiniFireForce;
+
+import org.openjdk.jmh.annotations.*;
+
+import javax.swing.JTable;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the GUI's per-frame and per-refresh work without a display: painting the map
+ * panel into an offscreen image, and updating the station and fire tables. Table refreshes
+ * alternate between two snapshots ten simulated seconds apart, so every refresh has fires
+ * and stations to add, remove and update. The table models are attached to tables, as in
+ * the GUI, so their change events are paid for.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Benchmark)
+public class RenderBenchmark {
+    @Param({"100", "1000"})
+    public int fireCount;
+
+    @Param({"100", "1000"})
+    public int stationCount;
+
+    @Param({"500", "5000"})
+    public int truckCount;
+
+    private GenSituationClass sim;
+    private MapPanel mapPanel;
+    private BufferedImage image;
+    private StationTableModel stationModel;
+    private FireTableModel fireModel;
+    private WorldSnapshot[] snapshots;
+    private int refreshes;
+
+    @Setup
+    public void setup() {
+        sim = BenchmarkWorld.dispatched(fireCount, stationCount, truckCount);
+        mapPanel = new MapPanel(sim);
+        mapPanel.setSize(800, 800);
+        image = new BufferedImage(800, 800, BufferedImage.TYPE_INT_RGB);
+        WorldSnapshot first = sim.getSnapshot();
+        ((DiscreteEventScheduler) sim.getScheduler()).runFor(10, TimeUnit.SECONDS);
+        sim.publishSnapshot();
+        snapshots = new WorldSnapshot[]{first, sim.getSnapshot()};
+        stationModel = new StationTableModel();
+        fireModel = new FireTableModel();
+        new JTable(stationModel);
+        new JTable(fireModel);
+    }
+
+    /** One animation frame of the map. */
+    @Benchmark
+    public BufferedImage paintMap() {
+        Graphics2D g = image.createGraphics();
+        try {
+            mapPanel.paintComponent(g);
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+
+    /** One refresh of both tables. */
+    @Benchmark
+    public int refreshTables() {
+        WorldSnapshot snap = snapshots[refreshes++ & 1];
+        stationModel.update(snap);
+        fireModel.update(snap);
+        return stationModel.getRowCount() + fireModel.getRowCount();
+    }
+}
@@ -0,0 +1,104 @@
+package MiniFireForce;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures travel-time queries over a road network: station-to-fire times from the
+ * station trees, ranking stations by travel time, and A* between two points that
+ * misses the route cache.
+ * The network is a jittered street grid with a fast arterial every tenth street and one
+ * street in twenty missing.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RoutingBenchmark {
+    @Param({"51", "201"})
+    public int gridSide;
+
+    @Param({"200"})
+    public int stationCount;
+
+    @Param({"1000"})
+    public int fireCount;
+
+    private RoadRouter router;
+    private StationIndex stationIndex;
+    private List<FireStation> stations;
+    private float[] fireX;
+    private float[] fireY;
+    private int next;
+
+    @Setup
+    public void setup() {
+        Random r = new Random(42);
+        RoadNetwork.Builder b = new RoadNetwork.Builder();
+        float step = 2000f / (gridSide - 1);
+        int[][] node = new int[gridSide][gridSide];
+        for (int i = 0; i < gridSide; i++) {
+            for (int j = 0; j < gridSide; j++) {
+                node[i][j] = b.addNode(-1000 + (i + (r.nextFloat() - 0.5f) * 0.3f) * step,
+                        -1000 + (j + (r.nextFloat() - 0.5f) * 0.3f) * step);
+            }
+        }
+        for (int i = 0; i < gridSide; i++) {
+            for (int j = 0; j < gridSide; j++) {
+                if (r.nextInt(20) == 0) continue;
+                if (i + 1 < gridSide) b.addRoad(node[i][j], node[i + 1][j], j % 10 == 0 ? 3f : 1f);
+                if (j + 1 < gridSide) b.addRoad(node[i][j], node[i][j + 1], i % 10 == 0 ? 3f : 1f);
+            }
+        }
+        router = new RoadRouter(b.build(), 50);
+        stationIndex = new GridStationIndex();
+        stations = new ArrayList<>();
+        for (int i = 0; i < stationCount; i++) {
+            FireStation st = new FireStation(i + 1, r.nextInt(2000) - 1000, r.nextInt(2000) - 1000, r.nextInt(5) + 1);
+            stations.add(st);
+            stationIndex.insert(st);
+            router.addStation(st);
+        }
+        fireX = new float[fireCount];
+        fireY = new float[fireCount];
+        for (int i = 0; i < fireCount; i++) {
+            fireX[i] = r.nextInt(2000) - 1000;
+            fireY[i] = r.nextInt(2000) - 1000;
+        }
+    }
+
+    /** One travel time per fire from a station tree, as dispatch costs are computed. */
+    @Benchmark
+    public void travelTimePerFire(Blackhole bh) {
+        for (int i = 0; i < fireCount; i++) {
+            bh.consume(router.travelSeconds(stations.get(i % stationCount), fireX[i], fireY[i]));
+        }
+    }
+
+    /** The three stations with trucks that reach each fire soonest. */
+    @Benchmark
+    public void threeFastestPerFire(Blackhole bh) {
+        for (int i = 0; i < fireCount; i++) {
+            bh.consume(router.fastest(stationIndex, fireX[i], fireY[i], 3, FireStation::canDeploy));
+        }
+    }
+
+    /**
+     * A point-to-point query answered by A* with landmark bounds. Pairs cycle through every combination of
+     * fires, far more than the route cache holds, so nearly every query misses it.
+     */
+    @Benchmark
+    public double pointToPoint() {
+        int k = next++;
+        int i = k % fireCount;
+        int j = (k / fireCount + i + 1) % fireCount;
+        return router.travelSeconds(fireX[i], fireY[i], fireX[j], fireY[j]);
+    }
+}
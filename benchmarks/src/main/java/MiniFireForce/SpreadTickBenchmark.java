@@ -0,0 +1,61 @@
+package MiniFireForce;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures one spread tick of a full simulation under each spread model, as run by the
+ * fire timer: the grid tick itself plus syncing fire severities, merges and burnouts, or
+ * the scatter model's severity rolls and nearby spawns. Fires started by a scatter tick
+ * are removed again before the next invocation, so the fire count stays fixed; grid worlds
+ * are rebuilt every iteration.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SpreadTickBenchmark {
+    @Param({"SCATTER", "GRID"})
+    public GenSituationClass.SpreadModel spreadModel;
+
+    @Param({"100", "1000"})
+    public int fireCount;
+
+    @Param({"100"})
+    public int stationCount;
+
+    @Param({"500"})
+    public int truckCount;
+
+    private GenSituationClass sim;
+    private Set<Integer> initialFires;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        sim = BenchmarkWorld.create(spreadModel, fireCount, stationCount, truckCount);
+        initialFires = new HashSet<>(sim.getActiveFires().keySet());
+    }
+
+    @Setup(Level.Invocation)
+    public void dropSpawnedFires() {
+        if (spreadModel == GenSituationClass.SpreadModel.SCATTER) {
+            sim.getActiveFires().keySet().retainAll(initialFires);
+        }
+    }
+
+    /** One tick of the fire timer under the selected model. */
+    @Benchmark
+    public int tick() {
+        if (spreadModel == GenSituationClass.SpreadModel.GRID) {
+            sim.spreadGrid();
+        } else {
+            sim.spreadScatter();
+        }
+        return sim.getActiveFires().size();
+    }
+}
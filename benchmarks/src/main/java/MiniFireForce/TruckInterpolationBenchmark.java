@@ -0,0 +1,72 @@
+package MiniFireForce;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures computing the position of every truck on the road, once per animation frame:
+ * through {@link MovingTruck#getCurrentX()} and {@link MovingTruck#getCurrentY()} on the
+ * truck list, through the snapshot's per-truck interpolation at a single timestamp, and
+ * through its bulk interpolation into reused buffers. The trucks
+ * come from one dispatch round, so at most {@code truckCount} are on the road.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TruckInterpolationBenchmark {
+    @Param({"1000", "10000"})
+    public int fireCount;
+
+    @Param({"100"})
+    public int stationCount;
+
+    @Param({"500", "5000", "50000"})
+    public int truckCount;
+
+    private List<MovingTruck> trucks;
+    private WorldSnapshot snapshot;
+    private float[] xs;
+    private float[] ys;
+
+    @Setup
+    public void setup() {
+        GenSituationClass sim = BenchmarkWorld.dispatched(fireCount, stationCount, truckCount);
+        trucks = sim.getMovingTrucks();
+        snapshot = sim.getSnapshot();
+        xs = new float[snapshot.truckCount()];
+        ys = new float[snapshot.truckCount()];
+    }
+
+    /** Positions from the moving-truck list, each reading the wall clock. */
+    @Benchmark
+    public void movingTrucks(Blackhole bh) {
+        for (MovingTruck t : trucks) {
+            bh.consume(t.getCurrentX());
+            bh.consume(t.getCurrentY());
+        }
+    }
+
+    /** Positions from the snapshot's truck arrays at one frame time. */
+    @Benchmark
+    public void snapshotTrucks(Blackhole bh) {
+        long now = snapshot.getTimeMillis();
+        for (int i = 0; i < snapshot.truckCount(); i++) {
+            bh.consume(snapshot.truckX(i, now));
+            bh.consume(snapshot.truckY(i, now));
+        }
+    }
+
+    /** Positions of the whole frame at once, into reused buffers. */
+    @Benchmark
+    public void snapshotBulk(Blackhole bh) {
+        bh.consume(snapshot.truckPositions(snapshot.getTimeMillis(), xs, ys));
+        bh.consume(xs);
+        bh.consume(ys);
+    }
+}
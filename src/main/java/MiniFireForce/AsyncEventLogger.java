@@ -0,0 +1,236 @@
+package MiniFireForce;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * An {@link EventLogger} that hands messages to a consumer in batches on a background thread.
+ * Simulation threads only copy the message into a preallocated slot of a bounded ring
+ * buffer, so structured events are queued without allocating; a single drain thread
+ * waits for messages, collects everything queued during one flush interval, formats it
+ * and passes it to the sink as one list. When the buffer is full, messages are either
+ * dropped or the caller blocks until there is room, depending on the {@link OverflowPolicy}.
+ */
+public class AsyncEventLogger implements EventLogger, AutoCloseable {
+
+    /**
+     * What to do with a message when the ring buffer is full.
+     */
+    public enum OverflowPolicy {
+        /** Discard the new message and count it as dropped. */
+        DROP,
+        /** Wait until the drain thread makes room. */
+        BLOCK
+    }
+
+    private final SimulationEvent[] ring;
+    private final SimulationEvent[] drained;
+    private final OverflowPolicy policy;
+    private final Consumer<List<String>> sink;
+    private final long flushIntervalMillis;
+    private final int maxBatch;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final AtomicLong queued = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread drainThread;
+    private int head;
+    private int count;
+    private volatile boolean closed;
+
+    /**
+     * Creates a logger with a 4096-message buffer that flushes every 100 ms and drops
+     * messages when full.
+     *
+     * @param sink receives each batch of messages on the drain thread
+     */
+    public AsyncEventLogger(Consumer<List<String>> sink) {
+        this(4096, OverflowPolicy.DROP, 100, sink);
+    }
+
+    /**
+     * Creates a logger and starts its drain thread.
+     *
+     * @param capacity            the maximum number of messages waiting to be drained
+     * @param policy              what to do when the buffer is full
+     * @param flushIntervalMillis how long the drain thread waits between batches
+     * @param sink                receives each batch of messages on the drain thread
+     */
+    public AsyncEventLogger(int capacity, OverflowPolicy policy, long flushIntervalMillis,
+                            Consumer<List<String>> sink) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.ring = new SimulationEvent[capacity];
+        this.drained = new SimulationEvent[capacity];
+        for (int i = 0; i < capacity; i++) {
+            ring[i] = new SimulationEvent();
+            drained[i] = new SimulationEvent();
+        }
+        this.policy = policy;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.maxBatch = capacity;
+        this.sink = sink;
+        this.drainThread = new Thread(this::drainLoop, "event-logger");
+        drainThread.setDaemon(true);
+        drainThread.start();
+    }
+
+    /**
+     * Queues a message for the sink. Never blocks under {@link OverflowPolicy#DROP}.
+     *
+     * @param message the message to log
+     */
+    @Override
+    public void log(String message) {
+        enqueue(null, message);
+    }
+
+    /**
+     * Copies an event into the buffer; it is formatted later on the drain thread.
+     * Never blocks under {@link OverflowPolicy#DROP}.
+     *
+     * @param event the event to log
+     */
+    @Override
+    public void event(SimulationEvent event) {
+        enqueue(event, null);
+    }
+
+    /**
+     * Copies either an event or a text message into the next free slot.
+     */
+    private void enqueue(SimulationEvent event, String message) {
+        if (closed) {
+            dropped.incrementAndGet();
+            return;
+        }
+        lock.lock();
+        try {
+            while (count == ring.length) {
+                if (policy == OverflowPolicy.DROP || closed) {
+                    dropped.incrementAndGet();
+                    return;
+                }
+                notFull.awaitUninterruptibly();
+            }
+            SimulationEvent slot = ring[(head + count) % ring.length];
+            if (event != null) {
+                slot.copyFrom(event);
+            } else {
+                slot.message(0, message);
+            }
+            count++;
+            queued.incrementAndGet();
+            if (count == 1) notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the total number of messages accepted into the buffer
+     */
+    public long getQueuedCount() {
+        return queued.get();
+    }
+
+    /**
+     * @return the total number of messages discarded because the buffer was full or closed
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * @return the number of messages currently waiting to be drained
+     */
+    public int getPendingCount() {
+        lock.lock();
+        try {
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops accepting messages, delivers whatever is still buffered and stops the drain thread.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        lock.lock();
+        try {
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            drainThread.join(TimeUnit.SECONDS.toMillis(1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Waits for messages and delivers them in batches until the logger is closed.
+     */
+    private void drainLoop() {
+        while (true) {
+            int n = takeBatch();
+            if (n < 0) return;
+            List<String> batch = new ArrayList<>(n);
+            StringBuilder sb = new StringBuilder(64);
+            for (int i = 0; i < n; i++) {
+                sb.setLength(0);
+                batch.add(drained[i].appendTo(sb).toString());
+            }
+            try {
+                sink.accept(batch);
+            } catch (RuntimeException e) {
+                // A failing sink must not stop the pipeline
+            }
+            if (closed) continue;
+            try {
+                Thread.sleep(flushIntervalMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Blocks until at least one message is queued and copies up to one batch into
+     * the drain thread's own slots, so formatting happens outside the lock.
+     *
+     * @return the number of messages taken, or -1 once the logger is closed and empty
+     */
+    private int takeBatch() {
+        lock.lock();
+        try {
+            while (count == 0) {
+                if (closed) return -1;
+                notEmpty.awaitUninterruptibly();
+            }
+            int n = Math.min(count, maxBatch);
+            for (int i = 0; i < n; i++) {
+                drained[i].copyFrom(ring[head]);
+                ring[head].message(0, null);
+                head = (head + 1) % ring.length;
+            }
+            count -= n;
+            notFull.signalAll();
+            return n;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package MiniFireForce;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Headless command-line runner for Monte Carlo sweeps over simulation parameters.
+ * <p>
+ * Each configuration is run as a number of seeded replicas on a {@link DiscreteEventScheduler},
+ * spread over a pool of worker threads, and summarized as one CSV row of aggregate statistics.
+ * Replica {@code r} of every configuration uses seed {@code seed + r}, so results are the same
+ * for any thread count. Usage:
+ * <pre>
+ * java MiniFireForce.BatchRunner [--hours H] [--replicas N] [--seed S] [--threads T]
+ *                                [--max-fires F] [--sweep FILE] [--roads FILE] [--out FILE]
+ *                                [key=value ...]
+ * </pre>
+ * The {@code key=value} arguments set {@link SimulationConfig} parameters for every run. A sweep
+ * file holds one configuration per line as space-separated {@code key=value} pairs applied on
+ * top of those; blank lines and lines starting with {@code #} are skipped. Without a sweep file
+ * the base configuration is run alone. A replica whose active fires exceed the
+ * {@code --max-fires} limit is stopped early and counted as overloaded. With {@code --roads},
+ * trucks drive on the {@link RoadNetwork} read from that file, which every replica shares.
+ */
+public class BatchRunner {
+    private double hours = 24;
+    private int replicas = 10;
+    private long seed = 1;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int maxFires = 50_000;
+    private Path sweepFile;
+    private Path roadsFile;
+    private Path outFile;
+    private final SimulationConfig base = new SimulationConfig();
+
+    /** Grid ticks run inline: the replicas already keep every core busy. */
+    private static final ForkJoinPool INLINE_POOL = new ForkJoinPool(1);
+
+    /**
+     * Outcome of one replica.
+     */
+    static final class Result {
+        final double clearedPerHour;
+        final double meanResponseSeconds;
+        final long trucksDispatched;
+        final double wastedTripRatio;
+        final double truckUtilization;
+        final double expectedTravelSeconds;
+        final double coverage;
+        final int activeFires;
+        final long events;
+        final boolean overloaded;
+
+        Result(double clearedPerHour, double meanResponseSeconds, long trucksDispatched, double wastedTripRatio,
+               double truckUtilization, double expectedTravelSeconds, double coverage, int activeFires, long events,
+               boolean overloaded) {
+            this.clearedPerHour = clearedPerHour;
+            this.meanResponseSeconds = meanResponseSeconds;
+            this.trucksDispatched = trucksDispatched;
+            this.wastedTripRatio = wastedTripRatio;
+            this.truckUtilization = truckUtilization;
+            this.expectedTravelSeconds = expectedTravelSeconds;
+            this.coverage = coverage;
+            this.activeFires = activeFires;
+            this.events = events;
+            this.overloaded = overloaded;
+        }
+    }
+
+    /**
+     * Running mean, standard deviation, minimum and maximum (Welford's algorithm).
+     */
+    static final class Aggregate {
+        private long n;
+        private double mean;
+        private double m2;
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+
+        void add(double v) {
+            n++;
+            double d = v - mean;
+            mean += d / n;
+            m2 += d * (v - mean);
+            min = Math.min(min, v);
+            max = Math.max(max, v);
+        }
+
+        double mean() { return n == 0 ? Double.NaN : mean; }
+
+        double stddev() { return n < 2 ? 0 : Math.sqrt(m2 / (n - 1)); }
+
+        double min() { return n == 0 ? Double.NaN : min; }
+
+        double max() { return n == 0 ? Double.NaN : max; }
+    }
+
+    /**
+     * Runs one replica of a configuration to completion.
+     *
+     * @param config   the simulation parameters
+     * @param seed     the replica seed
+     * @param hours    the simulated duration
+     * @param maxFires the active-fire count at which the replica is abandoned
+     * @param roads    the roads trucks drive on, or {@code null} for straight lines
+     * @return the replica's statistics
+     */
+    static Result runReplica(SimulationConfig config, long seed, double hours, int maxFires, RoadNetwork roads) {
+        DiscreteEventScheduler scheduler = new DiscreteEventScheduler();
+        GenSituationClass sim = new GenSituationClass(scheduler, config, seed);
+        if (roads != null) sim.setRoadNetwork(roads);
+        if (config.getSpreadModel() == GenSituationClass.SpreadModel.GRID) {
+            sim.getFireGrid().setPool(INLINE_POOL);
+        }
+        long end = scheduler.currentTimeMillis() + (long) (hours * 3_600_000L);
+        boolean overloaded = false;
+        // Advance a simulated minute at a time so that runaway replicas can be stopped
+        while (scheduler.currentTimeMillis() < end) {
+            scheduler.runUntil(Math.min(end, scheduler.currentTimeMillis() + 60_000L));
+            if (sim.getActiveFires().size() > maxFires) {
+                overloaded = true;
+                break;
+            }
+        }
+        DispatchStats stats = sim.getDispatchStats();
+        long now = scheduler.currentTimeMillis();
+        Result r = new Result(stats.getThroughputPerHour(now), stats.getMeanResponseSeconds(),
+                stats.getTrucksDispatched(), stats.getWastedTripRatio(), stats.getTruckUtilization(now),
+                stats.getMeanExpectedTravelSeconds(), stats.getMeanCoverage(), sim.getActiveFires().size(), scheduler.processedEvents(), overloaded);
+        sim.shutdown();
+        return r;
+    }
+
+    /**
+     * Parses the command line.
+     *
+     * @param args the command-line arguments
+     * @throws IllegalArgumentException if an argument is invalid
+     */
+    void parse(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String a = args[i];
+            if (a.startsWith("--")) {
+                if (i + 1 >= args.length) throw new IllegalArgumentException("Missing value for " + a);
+                String v = args[++i];
+                switch (a) {
+                    case "--hours": hours = Double.parseDouble(v); break;
+                    case "--replicas": replicas = Integer.parseInt(v); break;
+                    case "--seed": seed = Long.parseLong(v); break;
+                    case "--threads": threads = Integer.parseInt(v); break;
+                    case "--max-fires": maxFires = Integer.parseInt(v); break;
+                    case "--sweep": sweepFile = Paths.get(v); break;
+                    case "--roads": roadsFile = Paths.get(v); break;
+                    case "--out": outFile = Paths.get(v); break;
+                    default: throw new IllegalArgumentException("Unknown option: " + a);
+                }
+            } else {
+                applyPair(base, a);
+            }
+        }
+        if (hours <= 0 || replicas <= 0 || threads <= 0 || maxFires <= 0) {
+            throw new IllegalArgumentException("--hours, --replicas, --threads and --max-fires must be positive");
+        }
+    }
+
+    private static void applyPair(SimulationConfig config, String pair) {
+        int eq = pair.indexOf('=');
+        if (eq <= 0) throw new IllegalArgumentException("Expected key=value but got: " + pair);
+        config.set(pair.substring(0, eq), pair.substring(eq + 1));
+    }
+
+    /**
+     * Reads the configurations to run: one per sweep-file line, or the base configuration alone.
+     *
+     * @return the labels and configurations, in order
+     * @throws IOException if the sweep file cannot be read
+     */
+    List<Object[]> configurations() throws IOException {
+        List<Object[]> configs = new ArrayList<>();
+        if (sweepFile == null) {
+            configs.add(new Object[]{"base", base});
+            return configs;
+        }
+        for (String line : Files.readAllLines(sweepFile, StandardCharsets.UTF_8)) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            SimulationConfig c = base.copy();
+            for (String pair : line.split("\\s+")) {
+                applyPair(c, pair);
+            }
+            configs.add(new Object[]{line, c});
+        }
+        return configs;
+    }
+
+    /**
+     * Runs every replica of every configuration and writes one CSV row per configuration.
+     *
+     * @param out where to write the CSV
+     * @throws IOException if the sweep file or the road network cannot be read
+     * @throws InterruptedException if interrupted while waiting for replicas
+     */
+    void run(PrintStream out) throws IOException, InterruptedException {
+        List<Object[]> configs = configurations();
+        RoadNetwork roads = roadsFile != null ? RoadNetwork.load(roadsFile) : null;
+        out.println("config,replicas,overloaded,cleared_per_hour_mean,cleared_per_hour_sd,"
+                + "response_s_mean,response_s_sd,response_s_max,trucks_sent_mean,wasted_trip_ratio_mean,"
+                + "truck_utilization_mean,expected_travel_s_mean,coverage_mean,active_fires_end_mean,"
+                + "events_mean,wall_ms");
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            // Submit everything up front so that workers never idle between configurations
+            List<List<Future<Result>>> futures = new ArrayList<>();
+            for (Object[] entry : configs) {
+                SimulationConfig c = (SimulationConfig) entry[1];
+                List<Future<Result>> runs = new ArrayList<>(replicas);
+                for (int r = 0; r < replicas; r++) {
+                    long replicaSeed = seed + r;
+                    runs.add(pool.submit(() -> runReplica(c, replicaSeed, hours, maxFires, roads)));
+                }
+                futures.add(runs);
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < configs.size(); i++) {
+                Aggregate cleared = new Aggregate();
+                Aggregate response = new Aggregate();
+                Aggregate sent = new Aggregate();
+                Aggregate wasted = new Aggregate();
+                Aggregate utilization = new Aggregate();
+                Aggregate travel = new Aggregate();
+                Aggregate covered = new Aggregate();
+                Aggregate fires = new Aggregate();
+                Aggregate events = new Aggregate();
+                int overloaded = 0;
+                for (Future<Result> f : futures.get(i)) {
+                    Result r = get(f);
+                    if (r.overloaded) overloaded++;
+                    cleared.add(r.clearedPerHour);
+                    if (!Double.isNaN(r.meanResponseSeconds)) response.add(r.meanResponseSeconds);
+                    sent.add(r.trucksDispatched);
+                    wasted.add(r.wastedTripRatio);
+                    utilization.add(r.truckUtilization);
+                    travel.add(r.expectedTravelSeconds);
+                    covered.add(r.coverage);
+                    fires.add(r.activeFires);
+                    events.add(r.events);
+                }
+                out.println(String.format(Locale.ROOT, "\"%s\",%d,%d,%.2f,%.2f,%.2f,%.2f,%.2f,%.1f,%.4f,%.4f,%.2f,%.4f,%.1f,%.0f,%d",
+                        configs.get(i)[0], replicas, overloaded, cleared.mean(), cleared.stddev(),
+                        response.mean(), response.stddev(), response.max(), sent.mean(), wasted.mean(),
+                        utilization.mean(), travel.mean(), covered.mean(), fires.mean(),
+                        events.mean(), (System.nanoTime() - start) / 1_000_000));
+                out.flush();
+            }
+        } finally {
+            pool.shutdownNow();
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    private static Result get(Future<Result> f) throws InterruptedException {
+        try {
+            return f.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Replica failed", e.getCause());
+        }
+    }
+
+    /**
+     * Main method that runs a batch from the command line.
+     *
+     * @param args command-line arguments, see the class documentation
+     */
+    public static void main(String[] args) {
+        BatchRunner runner = new BatchRunner();
+        try {
+            runner.parse(args);
+            if (runner.outFile != null) {
+                try (PrintStream out = new PrintStream(Files.newOutputStream(runner.outFile), false, "UTF-8")) {
+                    runner.run(out);
+                }
+            } else {
+                runner.run(System.out);
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.err.println("Usage: java MiniFireForce.BatchRunner [--hours H] [--replicas N] [--seed S] "
+                    + "[--threads T] [--max-fires F] [--sweep FILE] [--roads FILE] [--out FILE] [key=value ...]");
+            System.exit(2);
+        } catch (IOException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.exit(1);
+        }
+    }
+}
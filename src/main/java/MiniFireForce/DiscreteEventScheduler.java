@@ -0,0 +1,152 @@
+package MiniFireForce;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link SimulationScheduler} that runs tasks on a virtual clock.
+ * Scheduled tasks are kept in a priority queue ordered by due time and are run
+ * one after another on the calling thread, jumping the clock straight to each
+ * event. Tasks due at the same instant run in the order they were scheduled,
+ * so a run is fully reproducible for a given seed.
+ */
+public class DiscreteEventScheduler implements SimulationScheduler {
+    private final PriorityQueue<Event> queue = new PriorityQueue<>();
+    private long now;
+    private long sequence;
+    private long processed;
+    private boolean shutdown;
+
+    /**
+     * Creates a scheduler whose virtual clock starts at epoch millisecond zero.
+     */
+    public DiscreteEventScheduler() {
+        this(0L);
+    }
+
+    /**
+     * Creates a scheduler whose virtual clock starts at the given time.
+     *
+     * @param startTimeMillis the initial virtual time in epoch milliseconds
+     */
+    public DiscreteEventScheduler(long startTimeMillis) {
+        this.now = startTimeMillis;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return now;
+    }
+
+    @Override
+    public void schedule(Runnable task, long delay, TimeUnit unit) {
+        enqueue(task, now + Math.max(0, unit.toMillis(delay)), 0);
+    }
+
+    @Override
+    public void scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit) {
+        long periodMs = unit.toMillis(period);
+        if (periodMs <= 0) {
+            throw new IllegalArgumentException("Period must be at least one millisecond");
+        }
+        enqueue(task, now + Math.max(0, unit.toMillis(initialDelay)), periodMs);
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+        queue.clear();
+    }
+
+    /**
+     * Runs every event due up to and including the given time, then sets the clock to it.
+     *
+     * @param endTimeMillis the virtual time to advance to
+     */
+    public void runUntil(long endTimeMillis) {
+        while (!queue.isEmpty() && queue.peek().time <= endTimeMillis) {
+            step();
+        }
+        if (!shutdown && endTimeMillis > now) {
+            now = endTimeMillis;
+        }
+    }
+
+    /**
+     * Advances the virtual clock by the given duration, running every event due in between.
+     *
+     * @param duration the amount of virtual time to simulate
+     * @param unit     the unit of {@code duration}
+     */
+    public void runFor(long duration, TimeUnit unit) {
+        runUntil(now + unit.toMillis(duration));
+    }
+
+    /**
+     * Runs the next pending event, advancing the clock to its due time.
+     *
+     * @return {@code true} if an event was run, {@code false} if the queue is empty
+     */
+    public boolean step() {
+        Event e = queue.poll();
+        if (e == null) return false;
+        now = e.time;
+        processed++;
+        e.task.run();
+        if (e.period > 0 && !shutdown) {
+            enqueue(e.task, e.time + e.period, e.period);
+        }
+        return true;
+    }
+
+    /**
+     * @return the due time of the next pending event, or {@link Long#MAX_VALUE} if there is none
+     */
+    public long nextEventTime() {
+        Event e = queue.peek();
+        return e == null ? Long.MAX_VALUE : e.time;
+    }
+
+    /** @return the number of events waiting to run */
+    public int pendingEvents() {
+        return queue.size();
+    }
+
+    @Override
+    public int pendingTasks() {
+        return pendingEvents();
+    }
+
+    /** @return the total number of events run so far */
+    public long processedEvents() {
+        return processed;
+    }
+
+    private void enqueue(Runnable task, long time, long period) {
+        if (shutdown) return;
+        queue.add(new Event(time, sequence++, period, task));
+    }
+
+    /**
+     * A scheduled task, ordered by due time and then by scheduling order.
+     */
+    private static final class Event implements Comparable<Event> {
+        final long time;
+        final long seq;
+        final long period;
+        final Runnable task;
+
+        Event(long time, long seq, long period, Runnable task) {
+            this.time = time;
+            this.seq = seq;
+            this.period = period;
+            this.task = task;
+        }
+
+        @Override
+        public int compareTo(Event o) {
+            int c = Long.compare(time, o.time);
+            return c != 0 ? c : Long.compare(seq, o.seq);
+        }
+    }
+}
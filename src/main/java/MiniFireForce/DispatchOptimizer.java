@@ -0,0 +1,329 @@
+package MiniFireForce;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * Assigns available fire trucks to pending fires as one batch per dispatch round.
+ * Each fire may demand several trucks, which can come from different stations.
+ * <p>
+ * The cost of sending a truck from a station to a fire is its travel time in seconds,
+ * from the {@link TravelModel}, minus a bonus proportional to the fire's severity, so that when trucks are scarce the
+ * most severe fires are served first. Small batches are solved exactly with the Hungarian
+ * algorithm; large batches use a severity-ordered greedy pass over the station index
+ * followed by a local swap repair. Both stop when the time budget runs out, so dispatch
+ * latency stays bounded regardless of how many fires are burning.
+ */
+public class DispatchOptimizer {
+    private volatile TravelModel travelModel;
+    private double severityWeight = 60.0;
+    private int exactLimit = 64;
+    private long timeBudgetNanos = 50_000_000L;
+
+    /**
+     * Creates an optimizer for trucks travelling at the given speed.
+     *
+     * @param truckSpeed the speed of fire trucks in units per second
+     */
+    public DispatchOptimizer(double truckSpeed) {
+        this.travelModel = TravelModel.straightLine(truckSpeed);
+    }
+
+    /**
+     * Sets how travel times are estimated, such as over a road network.
+     *
+     * @param model the travel model
+     */
+    public void setTravelModel(TravelModel model) {
+        this.travelModel = model;
+    }
+
+    /**
+     * Sets how many seconds of travel one level of severity is worth.
+     *
+     * @param secondsPerSeverity the travel-time bonus per severity level
+     */
+    public void setSeverityWeight(double secondsPerSeverity) {
+        this.severityWeight = secondsPerSeverity;
+    }
+
+    /**
+     * Sets the largest batch (the smaller of fires and trucks) solved exactly.
+     *
+     * @param limit the maximum batch size for the Hungarian algorithm
+     */
+    public void setExactLimit(int limit) {
+        this.exactLimit = limit;
+    }
+
+    /**
+     * Sets the wall-clock time budget for one dispatch round.
+     * When the budget runs out the round returns the assignments found so far;
+     * a budget of zero means unlimited. With a limited budget, results of very large
+     * rounds depend on machine speed.
+     *
+     * @param millis the time budget in milliseconds
+     */
+    public void setTimeBudgetMillis(long millis) {
+        this.timeBudgetNanos = millis * 1_000_000L;
+    }
+
+    /**
+     * A decision to send one truck from a station to a fire.
+     */
+    public static final class Assignment {
+        private final Fire fire;
+        private final FireStation station;
+        // The fire's position, read once for the repair pass
+        private final float fireX;
+        private final float fireY;
+
+        Assignment(Fire fire, FireStation station) {
+            this(fire, fire.getX(), fire.getY(), station);
+        }
+
+        private Assignment(Fire fire, float fireX, float fireY, FireStation station) {
+            this.fire = fire;
+            this.fireX = fireX;
+            this.fireY = fireY;
+            this.station = station;
+        }
+
+        /**
+         * @param other the station to send the truck from instead
+         * @return the same fire served from another station
+         */
+        private Assignment withStation(FireStation other) {
+            return new Assignment(fire, fireX, fireY, other);
+        }
+
+        /** @return the fire to respond to */
+        public Fire getFire() { return fire; }
+
+        /** @return the station sending the truck */
+        public FireStation getStation() { return station; }
+    }
+
+    /**
+     * Computes single-truck assignments for one dispatch round.
+     *
+     * @param fires    the fires waiting for a truck
+     * @param stations all fire stations
+     * @param index    a spatial index over the same stations
+     * @return the assignments, at most one per fire
+     */
+    public List<Assignment> assign(Collection<Fire> fires, Collection<FireStation> stations, StationIndex index) {
+        return assign(fires, stations, index, f -> 1);
+    }
+
+    /**
+     * Computes truck assignments for one dispatch round. Trucks are not deployed;
+     * the caller is expected to deploy one truck per returned assignment.
+     *
+     * @param fires    the fires waiting for trucks
+     * @param stations all fire stations
+     * @param index    a spatial index over the same stations
+     * @param demand   the number of trucks each fire needs
+     * @return the assignments, one per truck, at most {@code demand} per fire
+     */
+    public List<Assignment> assign(Collection<Fire> fires, Collection<FireStation> stations, StationIndex index,
+                                   ToIntFunction<Fire> demand) {
+        long deadline = timeBudgetNanos > 0 ? System.nanoTime() + timeBudgetNanos : Long.MAX_VALUE;
+
+        List<Fire> sorted = new ArrayList<>(fires);
+        sorted.sort(Comparator.comparingInt(Fire::getSeverity).reversed().thenComparingInt(Fire::getID));
+        // One entry per truck needed, so a fire needing three trucks appears three times
+        List<Fire> pending = new ArrayList<>(sorted.size());
+        for (Fire f : sorted) {
+            for (int d = demand.applyAsInt(f); d > 0; d--) {
+                pending.add(f);
+            }
+        }
+
+        List<FireStation> units = new ArrayList<>();
+        for (FireStation st : stations) {
+            for (int t = st.getTrucks(); t > 0; t--) {
+                units.add(st);
+            }
+        }
+        if (pending.isEmpty() || units.isEmpty()) return new ArrayList<>();
+
+        if (Math.min(pending.size(), units.size()) <= exactLimit
+                && (long) pending.size() * units.size() <= (long) exactLimit * exactLimit * 16) {
+            List<Assignment> exact = hungarian(pending, units, deadline);
+            if (exact != null) return exact;
+        }
+        List<Assignment> greedy = greedy(pending, stations, index, deadline);
+        repair(greedy, deadline);
+        return greedy;
+    }
+
+    /**
+     * Cost of sending a truck from a station to a fire; lower is better.
+     */
+    private double cost(FireStation st, float fireX, float fireY, int severity) {
+        return travelModel.travelSeconds(st, fireX, fireY) - severityWeight * severity;
+    }
+
+    /**
+     * Solves the assignment exactly with the Hungarian algorithm, using the smaller
+     * side as rows. Returns {@code null} if the time budget runs out.
+     */
+    private List<Assignment> hungarian(List<Fire> fires, List<FireStation> units, long deadline) {
+        boolean firesAreRows = fires.size() <= units.size();
+        int n = firesAreRows ? fires.size() : units.size();
+        int m = firesAreRows ? units.size() : fires.size();
+        // Each fire appears once per truck it needs, so read its fields once per entry here
+        float[] fx = new float[fires.size()];
+        float[] fy = new float[fires.size()];
+        int[] sev = new int[fires.size()];
+        for (int k = 0; k < fires.size(); k++) {
+            Fire f = fires.get(k);
+            fx[k] = f.getX();
+            fy[k] = f.getY();
+            sev[k] = f.getSeverity();
+        }
+        double[][] a = new double[n + 1][m + 1];
+        for (int i = 1; i <= n; i++) {
+            for (int j = 1; j <= m; j++) {
+                int k = firesAreRows ? i - 1 : j - 1;
+                FireStation st = units.get(firesAreRows ? j - 1 : i - 1);
+                a[i][j] = cost(st, fx[k], fy[k], sev[k]);
+            }
+        }
+
+        double[] u = new double[n + 1];
+        double[] v = new double[m + 1];
+        int[] p = new int[m + 1];
+        int[] way = new int[m + 1];
+        double[] minv = new double[m + 1];
+        boolean[] used = new boolean[m + 1];
+        for (int i = 1; i <= n; i++) {
+            if (System.nanoTime() > deadline) return null;
+            p[0] = i;
+            int j0 = 0;
+            Arrays.fill(minv, Double.POSITIVE_INFINITY);
+            Arrays.fill(used, false);
+            do {
+                used[j0] = true;
+                int i0 = p[j0];
+                int j1 = 0;
+                double delta = Double.POSITIVE_INFINITY;
+                for (int j = 1; j <= m; j++) {
+                    if (used[j]) continue;
+                    double cur = a[i0][j] - u[i0] - v[j];
+                    if (cur < minv[j]) {
+                        minv[j] = cur;
+                        way[j] = j0;
+                    }
+                    if (minv[j] < delta) {
+                        delta = minv[j];
+                        j1 = j;
+                    }
+                }
+                for (int j = 0; j <= m; j++) {
+                    if (used[j]) {
+                        u[p[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        minv[j] -= delta;
+                    }
+                }
+                j0 = j1;
+            } while (p[j0] != 0);
+            do {
+                int j1 = way[j0];
+                p[j0] = p[j1];
+                j0 = j1;
+            } while (j0 != 0);
+        }
+
+        List<Assignment> result = new ArrayList<>(n);
+        for (int j = 1; j <= m; j++) {
+            if (p[j] == 0) continue;
+            Fire f = firesAreRows ? fires.get(p[j] - 1) : fires.get(j - 1);
+            FireStation st = firesAreRows ? units.get(j - 1) : units.get(p[j] - 1);
+            result.add(new Assignment(f, st));
+        }
+        return result;
+    }
+
+    /**
+     * Serves truck demands in order of fire severity, each from the station with an
+     * unassigned truck in this round that reaches the fire soonest.
+     */
+    private List<Assignment> greedy(List<Fire> fires, Collection<FireStation> stations,
+                                    StationIndex index, long deadline) {
+        Map<Integer, int[]> remaining = new HashMap<>();
+        int totalTrucks = 0;
+        for (FireStation st : stations) {
+            int trucks = st.getTrucks();
+            if (trucks > 0) {
+                remaining.put(st.getID(), new int[]{trucks});
+                totalTrucks += trucks;
+            }
+        }
+
+        TravelModel model = travelModel;
+        List<Assignment> result = new ArrayList<>();
+        for (int i = 0; i < fires.size(); i++) {
+            if (totalTrucks == 0) break;
+            // Always hand out a first batch so that a round never stalls completely
+            if (i >= 64 && (i & 63) == 0 && System.nanoTime() > deadline) break;
+            Fire f = fires.get(i);
+            List<FireStation> fastest = model.fastest(index, f.getX(), f.getY(), 1, s -> {
+                int[] left = remaining.get(s.getID());
+                return left != null && left[0] > 0;
+            });
+            if (fastest.isEmpty()) break;
+            FireStation st = fastest.get(0);
+            remaining.get(st.getID())[0]--;
+            totalTrucks--;
+            result.add(new Assignment(f, st));
+        }
+        return result;
+    }
+
+    /**
+     * Improves a greedy assignment by swapping stations between nearby fires whenever
+     * that shortens total travel time. Neighbours are taken from a window over the
+     * assignments sorted by fire position.
+     */
+    private void repair(List<Assignment> assignments, long deadline) {
+        final int window = 16;
+        assignments.sort(Comparator.comparingDouble((Assignment as) -> as.fireX)
+                .thenComparingDouble(as -> as.fireY));
+        boolean improved = true;
+        while (improved && System.nanoTime() <= deadline) {
+            improved = false;
+            for (int i = 0; i < assignments.size(); i++) {
+                if ((i & 63) == 0 && System.nanoTime() > deadline) return;
+                Assignment a = assignments.get(i);
+                for (int j = i + 1; j < Math.min(assignments.size(), i + window); j++) {
+                    Assignment b = assignments.get(j);
+                    FireStation sa = a.station;
+                    FireStation sb = b.station;
+                    if (sa == sb) continue;
+                    double current = travel(sa, a) + travel(sb, b);
+                    double swapped = travel(sb, a) + travel(sa, b);
+                    if (swapped + 1e-9 < current) {
+                        a = a.withStation(sb);
+                        assignments.set(i, a);
+                        assignments.set(j, b.withStation(sa));
+                        improved = true;
+                    }
+                }
+            }
+        }
+    }
+
+    private double travel(FireStation st, Assignment as) {
+        return travelModel.travelSeconds(st, as.fireX, as.fireY);
+    }
+}
@@ -0,0 +1,191 @@
+package MiniFireForce;
+
+import java.util.Arrays;
+
+/**
+ * The fires still waiting for trucks, as an indexed binary max-heap of fire IDs.
+ * <p>
+ * A fire's priority is its severity plus one level for every {@code agingMillis} it has
+ * waited, so that a low-severity fire is not starved by a stream of worse ones. Waiting
+ * time grows at the same rate for every fire, so the order only depends on the fixed key
+ * {@code severity * agingMillis - enqueueTime}; the heap never needs re-sorting as time
+ * passes. Ties go to the lower fire ID.
+ * <p>
+ * An ID-to-position index lets a fire be re-keyed in place when its severity changes, or
+ * removed when it goes out, in logarithmic time. All methods are synchronized.
+ */
+final class DispatchQueue {
+    private final long agingMillis;
+    private int[] ids;
+    private long[] enqueued;
+    private long[] keys;
+    private int size;
+    private final IntIntMap positionById;
+
+    /**
+     * Creates an empty queue.
+     *
+     * @param agingMillis how long a fire must wait to gain one severity level of priority
+     * @throws IllegalArgumentException if {@code agingMillis} is not positive
+     */
+    DispatchQueue(long agingMillis) {
+        if (agingMillis <= 0) throw new IllegalArgumentException("agingMillis must be positive");
+        this.agingMillis = agingMillis;
+        ids = new int[16];
+        enqueued = new long[16];
+        keys = new long[16];
+        positionById = new IntIntMap(16);
+    }
+
+    // ===== Queue operations =====
+
+    /** @return the number of waiting fires */
+    synchronized int size() {
+        return size;
+    }
+
+    /** @return {@code true} if no fire is waiting */
+    synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param fireId a fire ID
+     * @return {@code true} if the fire is waiting
+     */
+    synchronized boolean contains(int fireId) {
+        return positionById.get(fireId) != IntIntMap.MISSING;
+    }
+
+    /**
+     * Adds a fire, or re-keys it for a new severity if it is already waiting. A fire that
+     * is already waiting keeps its original enqueue time.
+     *
+     * @param fireId     the fire's ID
+     * @param severity   its current severity
+     * @param timeMillis the current simulation time
+     * @return {@code true} if the fire was added, {@code false} if it was re-keyed
+     */
+    synchronized boolean offer(int fireId, int severity, long timeMillis) {
+        int pos = positionById.get(fireId);
+        if (pos != IntIntMap.MISSING) {
+            rekey(pos, severity);
+            return false;
+        }
+        if (size == ids.length) {
+            int capacity = size * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            enqueued = Arrays.copyOf(enqueued, capacity);
+            keys = Arrays.copyOf(keys, capacity);
+        }
+        pos = size++;
+        ids[pos] = fireId;
+        enqueued[pos] = timeMillis;
+        keys[pos] = key(severity, timeMillis);
+        positionById.put(fireId, pos);
+        siftUp(pos);
+        return true;
+    }
+
+    /**
+     * Re-keys a waiting fire after its severity changed. Does nothing if it is not waiting.
+     *
+     * @param fireId   the fire's ID
+     * @param severity its new severity
+     */
+    synchronized void updateSeverity(int fireId, int severity) {
+        int pos = positionById.get(fireId);
+        if (pos != IntIntMap.MISSING) rekey(pos, severity);
+    }
+
+    /**
+     * @return the ID of the most urgent waiting fire, or {@link FireStore#NO_FIRE} if none is
+     */
+    synchronized int peek() {
+        return size == 0 ? FireStore.NO_FIRE : ids[0];
+    }
+
+    /**
+     * Removes a fire, wherever it is in the queue.
+     *
+     * @param fireId the fire's ID
+     * @return {@code true} if the fire was waiting
+     */
+    synchronized boolean remove(int fireId) {
+        int pos = positionById.remove(fireId);
+        if (pos == IntIntMap.MISSING) return false;
+        int last = --size;
+        if (pos != last) {
+            move(last, pos);
+            if (!siftUp(pos)) siftDown(pos);
+        }
+        return true;
+    }
+
+    // ===== Heap maintenance =====
+
+    private long key(int severity, long timeMillis) {
+        return severity * agingMillis - timeMillis;
+    }
+
+    private void rekey(int pos, int severity) {
+        long old = keys[pos];
+        keys[pos] = key(severity, enqueued[pos]);
+        if (keys[pos] > old) {
+            siftUp(pos);
+        } else if (keys[pos] < old) {
+            siftDown(pos);
+        }
+    }
+
+    /** @return {@code true} if the entry at {@code a} should be served before the one at {@code b} */
+    private boolean before(int a, int b) {
+        return keys[a] > keys[b] || (keys[a] == keys[b] && ids[a] < ids[b]);
+    }
+
+    /**
+     * Moves an entry up to its place.
+     *
+     * @return {@code true} if it moved
+     */
+    private boolean siftUp(int pos) {
+        int start = pos;
+        while (pos > 0) {
+            int parent = (pos - 1) >>> 1;
+            if (!before(pos, parent)) break;
+            swap(pos, parent);
+            pos = parent;
+        }
+        return pos != start;
+    }
+
+    private void siftDown(int pos) {
+        while (true) {
+            int child = 2 * pos + 1;
+            if (child >= size) return;
+            if (child + 1 < size && before(child + 1, child)) child++;
+            if (!before(child, pos)) return;
+            swap(pos, child);
+            pos = child;
+        }
+    }
+
+    private void swap(int a, int b) {
+        int id = ids[a];
+        long time = enqueued[a];
+        long key = keys[a];
+        move(b, a);
+        ids[b] = id;
+        enqueued[b] = time;
+        keys[b] = key;
+        positionById.put(id, b);
+    }
+
+    /** Copies the entry at {@code from} over the one at {@code to}. */
+    private void move(int from, int to) {
+        ids[to] = ids[from];
+        enqueued[to] = enqueued[from];
+        keys[to] = keys[from];
+        positionById.put(ids[to], to);
+    }
+}
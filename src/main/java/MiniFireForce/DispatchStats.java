@@ -0,0 +1,209 @@
+package MiniFireForce;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Running totals used to compare dispatch policies: how many fires are cleared
+ * per simulated hour, how long fires wait for the first truck to arrive, how many
+ * truck trips are wasted, how busy the fleet is and how well the stations cover
+ * the places fires start.
+ * All methods are thread-safe.
+ */
+public class DispatchStats {
+    private final long startTimeMillis;
+    private final AtomicLong firesCleared = new AtomicLong();
+    private final AtomicLong trucksDispatched = new AtomicLong();
+    private final AtomicLong responses = new AtomicLong();
+    private final AtomicLong totalResponseMillis = new AtomicLong();
+    private final AtomicLong wastedTrips = new AtomicLong();
+    private final AtomicLong reassignments = new AtomicLong();
+    // Fleet and busy truck-time are kept as sums of start and end times, measured from the
+    // simulation start, so that the totals at any moment follow without tracking each truck
+    private final AtomicLong fleetTrucks = new AtomicLong();
+    private final AtomicLong fleetOpenedSum = new AtomicLong();
+    private final AtomicLong trucksOut = new AtomicLong();
+    private final AtomicLong trucksOutSum = new AtomicLong();
+    private final AtomicLong trucksBack = new AtomicLong();
+    private final AtomicLong trucksBackSum = new AtomicLong();
+    // Coverage samples, as sums of milliseconds and of parts per million
+    private final AtomicLong coverageSamples = new AtomicLong();
+    private final AtomicLong expectedTravelMillisSum = new AtomicLong();
+    private final AtomicLong coveredPpmSum = new AtomicLong();
+
+    /**
+     * Creates empty statistics for a simulation starting at the given time.
+     *
+     * @param startTimeMillis the simulation start time in epoch milliseconds
+     */
+    public DispatchStats(long startTimeMillis) {
+        this.startTimeMillis = startTimeMillis;
+    }
+
+    /**
+     * Records trucks leaving their stations.
+     *
+     * @param trucks the number of trucks dispatched
+     */
+    public void recordDispatch(int trucks) {
+        trucksDispatched.addAndGet(trucks);
+    }
+
+    /**
+     * Records a truck trip that did no work: the truck reached a fire that was already out,
+     * or turned back because it went out.
+     */
+    public void recordWastedTrip() {
+        wastedTrips.incrementAndGet();
+    }
+
+    /**
+     * Records a truck on its way to a fire being replaced by a closer one that came free.
+     */
+    public void recordReassignment() {
+        reassignments.incrementAndGet();
+    }
+
+    /**
+     * Records a station opening, adding its trucks to the fleet.
+     *
+     * @param trucks     the station's trucks
+     * @param timeMillis when it opened, in epoch milliseconds
+     */
+    public void recordStationOpened(int trucks, long timeMillis) {
+        fleetTrucks.addAndGet(trucks);
+        fleetOpenedSum.addAndGet(trucks * (timeMillis - startTimeMillis));
+    }
+
+    /**
+     * Records a truck leaving its station.
+     *
+     * @param timeMillis when it left, in epoch milliseconds
+     */
+    public void recordTruckOut(long timeMillis) {
+        trucksOut.incrementAndGet();
+        trucksOutSum.addAndGet(timeMillis - startTimeMillis);
+    }
+
+    /**
+     * Records a truck getting back to its station.
+     *
+     * @param timeMillis when it got back, in epoch milliseconds
+     */
+    public void recordTruckBack(long timeMillis) {
+        trucksBack.incrementAndGet();
+        trucksBackSum.addAndGet(timeMillis - startTimeMillis);
+    }
+
+    /**
+     * Records a fire being put out.
+     *
+     * @param responseMillis the time from the fire starting to the first truck arriving
+     */
+    public void recordCleared(long responseMillis) {
+        firesCleared.incrementAndGet();
+        responses.incrementAndGet();
+        totalResponseMillis.addAndGet(Math.max(0, responseMillis));
+    }
+
+    /**
+     * Records how well the stations cover the fire density at one moment. Samples are
+     * taken at a fixed interval, so their mean is a time average.
+     *
+     * @param expectedTravelSeconds the density-weighted mean travel time from the nearest station
+     * @param withinTarget          the fraction of the density reached within the target time
+     */
+    public void recordCoverage(double expectedTravelSeconds, double withinTarget) {
+        coverageSamples.incrementAndGet();
+        expectedTravelMillisSum.addAndGet(Math.round(expectedTravelSeconds * 1000));
+        coveredPpmSum.addAndGet(Math.round(withinTarget * 1_000_000));
+    }
+
+    /**
+     * @return the number of trucks at their stations: the fleet less every truck that has
+     *         left and not yet got back
+     */
+    public long getTrucksIdle() {
+        return fleetTrucks.get() - (trucksOut.get() - trucksBack.get());
+    }
+
+    /** @return the number of fires put out so far */
+    public long getFiresCleared() { return firesCleared.get(); }
+
+    /** @return the number of trucks dispatched so far */
+    public long getTrucksDispatched() { return trucksDispatched.get(); }
+
+    /** @return the mean time from a fire starting to the first truck arriving, in seconds */
+    public double getMeanResponseSeconds() {
+        long n = responses.get();
+        return n == 0 ? 0 : totalResponseMillis.get() / (n * 1000.0);
+    }
+
+    /** @return the number of truck trips that did no work */
+    public long getWastedTrips() { return wastedTrips.get(); }
+
+    /** @return the fraction of dispatched trucks whose trip did no work */
+    public double getWastedTripRatio() {
+        long n = trucksDispatched.get();
+        return n == 0 ? 0 : (double) wastedTrips.get() / n;
+    }
+
+    /** @return the number of trucks replaced on the way by a closer one */
+    public long getReassignments() { return reassignments.get(); }
+
+    /**
+     * @return the time-averaged, density-weighted travel time from the nearest station to
+     *         where fires start, in seconds; 0 before the first sample
+     */
+    public double getMeanExpectedTravelSeconds() {
+        long n = coverageSamples.get();
+        return n == 0 ? 0 : expectedTravelMillisSum.get() / (n * 1000.0);
+    }
+
+    /**
+     * @return the time-averaged fraction of the fire density that a station reaches within
+     *         the coverage target; 0 before the first sample
+     */
+    public double getMeanCoverage() {
+        long n = coverageSamples.get();
+        return n == 0 ? 0 : coveredPpmSum.get() / (n * 1_000_000.0);
+    }
+
+    /**
+     * Calculates the fraction of the fleet's truck time spent away from the stations,
+     * driving to, working at or returning from fires.
+     *
+     * @param nowMillis the current simulation time in epoch milliseconds
+     * @return the utilization from 0 to 1
+     */
+    public double getTruckUtilization(long nowMillis) {
+        long now = nowMillis - startTimeMillis;
+        double fleet = (double) fleetTrucks.get() * now - fleetOpenedSum.get();
+        double away = (double) trucksBackSum.get() - trucksOutSum.get()
+                + (double) (trucksOut.get() - trucksBack.get()) * now;
+        return fleet <= 0 ? 0 : Math.min(1, away / fleet);
+    }
+
+    /**
+     * Calculates how many fires were cleared per simulated hour.
+     *
+     * @param nowMillis the current simulation time in epoch milliseconds
+     * @return the number of fires cleared per hour of simulated time
+     */
+    public double getThroughputPerHour(long nowMillis) {
+        double hours = (nowMillis - startTimeMillis) / 3_600_000.0;
+        return hours <= 0 ? 0 : firesCleared.get() / hours;
+    }
+
+    /**
+     * Formats the statistics as a single line.
+     *
+     * @param nowMillis the current simulation time in epoch milliseconds
+     * @return a one-line summary
+     */
+    public String summary(long nowMillis) {
+        return String.format("Cleared: %d (%.1f/h)  Mean response: %.1fs  Trucks sent: %d  Wasted trips: %.1f%%"
+                        + "  Utilization: %.1f%%  Coverage: %.1f%%",
+                getFiresCleared(), getThroughputPerHour(nowMillis), getMeanResponseSeconds(), getTrucksDispatched(),
+                getWastedTripRatio() * 100, getTruckUtilization(nowMillis) * 100, getMeanCoverage() * 100);
+    }
+}
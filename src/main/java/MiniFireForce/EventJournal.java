@@ -0,0 +1,263 @@
+package MiniFireForce;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An {@link EventLogger} that appends structured events to a binary journal on disk.
+ * <p>
+ * Every event is encoded as one fixed-width record of {@link #RECORD_SIZE} bytes into an
+ * in-memory buffer; a background thread swaps in a spare buffer and writes the full one
+ * through a {@link FileChannel}, so simulation threads never wait for the disk. If both
+ * buffers are full, new events are dropped and counted. The journal is split into files
+ * named {@code journal-00000.bin}, {@code journal-00001.bin}, ... which are rolled once
+ * they reach the configured size. Free-form text messages are not journaled.
+ * <p>
+ * Several runs can share a directory: each journal numbers itself one past the latest run
+ * already there and writes that run number into every file header, so that
+ * {@link JournalReplay} can tell the runs apart. Use it to read a journal back.
+ */
+public class EventJournal implements EventLogger, AutoCloseable {
+    /** Identifies journal files; the ASCII bytes "FFJ1". */
+    static final int MAGIC = 0x46464A31;
+    /** Size of the file header in bytes: magic, version, record size and run number. */
+    static final int HEADER_SIZE = 16;
+    /** Size of one encoded event in bytes. */
+    static final int RECORD_SIZE = 40;
+    static final int VERSION = 1;
+
+    private final Path directory;
+    private final long maxFileBytes;
+    private final int run;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushNeeded = lock.newCondition();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread writerThread;
+    private ByteBuffer active;
+    private ByteBuffer spare;
+    private FileChannel channel;
+    private int fileIndex;
+    private long fileBytes;
+    private volatile boolean closed;
+    private volatile IOException failure;
+
+    /**
+     * Creates a journal in the given directory with 64 MB files and 64 KB buffers.
+     *
+     * @param directory the directory to write journal files into; created if missing
+     * @throws IOException if the directory or the first file cannot be created
+     */
+    public EventJournal(Path directory) throws IOException {
+        this(directory, 64L * 1024 * 1024, 64 * 1024);
+    }
+
+    /**
+     * Creates a journal and starts its writer thread.
+     * Existing journal files in the directory are kept; file numbering continues after them,
+     * and this journal becomes a new run.
+     *
+     * @param directory    the directory to write journal files into; created if missing
+     * @param maxFileBytes the size at which a journal file is closed and a new one started
+     * @param bufferBytes  the size of each of the two in-memory buffers
+     * @throws IOException if the directory or the first file cannot be created
+     */
+    public EventJournal(Path directory, long maxFileBytes, int bufferBytes) throws IOException {
+        if (maxFileBytes < HEADER_SIZE + RECORD_SIZE || bufferBytes < RECORD_SIZE) {
+            throw new IllegalArgumentException("File and buffer sizes must hold at least one record");
+        }
+        this.directory = Files.createDirectories(directory);
+        this.maxFileBytes = maxFileBytes;
+        int records = bufferBytes / RECORD_SIZE;
+        this.active = ByteBuffer.allocateDirect(records * RECORD_SIZE);
+        this.spare = ByteBuffer.allocateDirect(records * RECORD_SIZE);
+        // Carry on from the highest number, so a file missing in between never causes a name clash
+        List<Path> existing = JournalReplay.journalFiles(directory);
+        this.fileIndex = existing.isEmpty() ? 0 : JournalReplay.fileIndex(existing.get(existing.size() - 1)) + 1;
+        this.run = JournalReplay.latestRun(directory) + 1;
+        openNextFile();
+        this.writerThread = new Thread(this::writeLoop, "event-journal");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Text messages carry no structured data and are not journaled.
+     *
+     * @param message ignored
+     */
+    @Override
+    public void log(String message) {
+    }
+
+    /**
+     * Encodes an event into the active buffer. Never blocks on I/O.
+     *
+     * @param event the event to journal
+     */
+    @Override
+    public void event(SimulationEvent event) {
+        if (event.getType() == SimulationEvent.Type.MESSAGE) return;
+        if (closed) {
+            dropped.incrementAndGet();
+            return;
+        }
+        lock.lock();
+        try {
+            if (active.remaining() < RECORD_SIZE) {
+                // The writer is still busy with the spare buffer
+                dropped.incrementAndGet();
+                flushNeeded.signal();
+                return;
+            }
+            encode(event, active);
+            if (active.remaining() < RECORD_SIZE) flushNeeded.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes one record at the buffer's position.
+     */
+    static void encode(SimulationEvent e, ByteBuffer buf) {
+        buf.putLong(e.getTimeMillis());
+        buf.put((byte) e.getType().ordinal());
+        buf.put((byte) e.getSeverity());
+        buf.putShort((short) 0);
+        buf.putInt(e.getFireId());
+        buf.putInt(e.getSourceFireId());
+        buf.putInt(e.getStationId());
+        buf.putInt(e.getTrucks());
+        buf.putFloat(e.getX());
+        buf.putFloat(e.getY());
+        buf.putInt((int) Math.min(Integer.MAX_VALUE, e.getDurationMillis()));
+    }
+
+    /**
+     * @return the run number written into this journal's file headers
+     */
+    public int getRun() {
+        return run;
+    }
+
+    /**
+     * @return the number of events written to disk so far
+     */
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    /**
+     * @return the number of events discarded because the buffers were full or the journal was closed
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Writes everything buffered, closes the current file and stops the writer thread.
+     *
+     * @throws UncheckedIOException if a write failed at any point
+     */
+    @Override
+    public void close() {
+        closed = true;
+        lock.lock();
+        try {
+            flushNeeded.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            throw new UncheckedIOException("Event journal write failed", failure);
+        }
+    }
+
+    /**
+     * Swaps buffers every 200 ms, or sooner when the active one fills up, and writes
+     * the full one to disk.
+     */
+    private void writeLoop() {
+        try {
+            while (true) {
+                ByteBuffer full;
+                boolean last;
+                lock.lock();
+                try {
+                    if (!closed && active.remaining() >= RECORD_SIZE) {
+                        flushNeeded.awaitNanos(TimeUnit.MILLISECONDS.toNanos(200));
+                    }
+                    last = closed;
+                    full = active;
+                    active = spare;
+                    spare = full;
+                } finally {
+                    lock.unlock();
+                }
+                full.flip();
+                write(full);
+                full.clear();
+                if (last) break;
+            }
+            channel.close();
+        } catch (IOException e) {
+            failure = e;
+            closed = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Writes whole records, rolling to a new file whenever the current one is full.
+     */
+    private void write(ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) {
+            long room = (maxFileBytes - fileBytes) / RECORD_SIZE * RECORD_SIZE;
+            if (room < RECORD_SIZE) {
+                channel.close();
+                openNextFile();
+                continue;
+            }
+            int chunk = (int) Math.min(buf.remaining(), room);
+            ByteBuffer slice = buf.duplicate();
+            slice.limit(buf.position() + chunk);
+            while (slice.hasRemaining()) {
+                channel.write(slice);
+            }
+            buf.position(buf.position() + chunk);
+            fileBytes += chunk;
+            written.addAndGet(chunk / RECORD_SIZE);
+        }
+    }
+
+    /**
+     * Creates the next numbered journal file and writes its header.
+     */
+    private void openNextFile() throws IOException {
+        Path file = directory.resolve(String.format("journal-%05d.bin", fileIndex++));
+        channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putInt(RECORD_SIZE).putInt(run).flip();
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+        fileBytes = HEADER_SIZE;
+    }
+}
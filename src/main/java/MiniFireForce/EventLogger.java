@@ -11,4 +11,38 @@ public interface EventLogger {
      * @param message the message to log
      */
     void log(String message);
+
+    /**
+     * Logs a structured event. The event object is reused by the caller and is only
+     * valid for the duration of this call; implementations that keep it must copy it.
+     * The default implementation formats the event as text and passes it to {@link #log(String)}.
+     *
+     * @param event the event to log
+     */
+    default void event(SimulationEvent event) {
+        log(event.format());
+    }
+
+    /**
+     * Returns a logger that passes every message and event to this logger and then to another.
+     *
+     * @param next the logger to call second
+     * @return the combined logger
+     */
+    default EventLogger andThen(EventLogger next) {
+        EventLogger first = this;
+        return new EventLogger() {
+            @Override
+            public void log(String message) {
+                first.log(message);
+                next.log(message);
+            }
+
+            @Override
+            public void event(SimulationEvent event) {
+                first.event(event);
+                next.event(event);
+            }
+        };
+    }
 }
\ No newline at end of file
@@ -1,20 +1,27 @@
 package MiniFireForce;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.AbstractMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Represents a fire event in the simulation.
  * Fires have coordinates, severity levels, and timestamps.
+ * <p>
+ * A {@code Fire} is a lightweight view of one entry in a {@link FireStore}, which keeps the
+ * data of every active fire in primitive arrays; the simulation creates views on demand, and
+ * two views of the same fire are equal. A fire created through a public constructor gets a
+ * store of its own. Once the simulation removes a fire, its views throw
+ * {@link IllegalStateException}.
  */
 public class Fire {
-    private float x;
-    private float y;
-    private int severity;
-    private LocalDateTime time;
-    private static int count = 0;
+    private static final AtomicInteger count = new AtomicInteger();
+    private final FireStore store;
     private final int id;
+    private final int slot;
 
     /**
      * Creates a fire with given location, severity, and time.
@@ -25,66 +32,152 @@ public class Fire {
      * @param time     the timestamp of the fire
      */
     public Fire(float x, float y, int severity, LocalDateTime time) {
-        this.x = x;
-        this.y = y;
-        this.severity = severity;
-        this.time = time;
-        id = ++count;
+        this(count.incrementAndGet(), x, y, severity, time);
+    }
+
+    /**
+     * Creates a fire with an ID assigned by the caller, so that a simulation
+     * can number its fires independently of any other simulation in the same JVM.
+     *
+     * @param id       the unique ID of the fire
+     * @param x        the x-coordinate of the fire
+     * @param y        the y-coordinate of the fire
+     * @param severity the severity level (1-10)
+     * @param time     the timestamp of the fire
+     */
+    public Fire(int id, float x, float y, int severity, LocalDateTime time) {
+        this(id, x, y, severity, toMillis(time));
+    }
+
+    /**
+     * Creates a standalone fire with a start time in epoch milliseconds.
+     *
+     * @param id         the unique ID of the fire
+     * @param x          the x-coordinate of the fire
+     * @param y          the y-coordinate of the fire
+     * @param severity   the severity level (1-10)
+     * @param timeMillis the start time of the fire, in epoch milliseconds
+     */
+    Fire(int id, float x, float y, int severity, long timeMillis) {
+        this.store = new FireStore(1);
+        this.id = id;
+        this.slot = store.add(id, x, y, severity, timeMillis);
+    }
+
+    /**
+     * Creates a view of a stored fire.
+     *
+     * @param store the store holding the fire
+     * @param slot  the slot it occupies
+     * @param id    its ID
+     */
+    Fire(FireStore store, int slot, int id) {
+        this.store = store;
+        this.slot = slot;
+        this.id = id;
+    }
+
+    /**
+     * @return the slot holding this fire
+     * @throws IllegalStateException if the fire is no longer in its store
+     */
+    private int slot() {
+        return store.checkSlot(slot, id);
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
     }
 
     /** @return the unique ID of the fire */
     public int getID() { return id; }
 
     /** @return the x-coordinate of the fire */
-    public float getX() { return x; }
+    public float getX() { return store.x(slot()); }
 
     /** @return the y-coordinate of the fire */
-    public float getY() { return y; }
+    public float getY() { return store.y(slot()); }
 
-    /** @return the coordinates of the fire as a Map entry */
-    public Map.Entry<Float, Float> getXY() { return new AbstractMap.SimpleEntry<>(x, y); }
+    /**
+     * Returns the coordinates as a new map entry. Prefer {@link #getX()} and {@link #getY()},
+     * which do not allocate.
+     *
+     * @return the coordinates of the fire as a Map entry
+     */
+    public Map.Entry<Float, Float> getXY() { return new AbstractMap.SimpleEntry<>(getX(), getY()); }
 
     /** @return the severity level of the fire */
-    public int getSeverity() { return severity; }
+    public int getSeverity() { return store.severity(slot()); }
 
     /** @return the timestamp of the fire */
-    public LocalDateTime getTime() { return time; }
+    public LocalDateTime getTime() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(getTimeMillis()), ZoneId.systemDefault());
+    }
+
+    /** @return the timestamp of the fire in epoch milliseconds */
+    public long getTimeMillis() { return store.time(slot()); }
 
     /**
      * Sets a new x-coordinate for the fire.
      *
      * @param newX the new x-coordinate
      */
-    public void setX(float newX) { this.x = newX; }
+    public void setX(float newX) { store.setX(slot(), newX); }
 
     /**
      * Sets a new y-coordinate for the fire.
      *
      * @param newY the new y-coordinate
      */
-    public void setY(float newY) { this.y = newY; }
+    public void setY(float newY) { store.setY(slot(), newY); }
 
     /**
      * Sets a new timestamp for the fire.
      *
      * @param newTime the new timestamp
      */
-    public void setTime(LocalDateTime newTime) { this.time = newTime; }
+    public void setTime(LocalDateTime newTime) { store.setTime(slot(), toMillis(newTime)); }
 
     /**
      * Updates the severity level of the fire.
      *
      * @param newSev the new severity level
      */
-    public void updateSeverity(int newSev) { this.severity = newSev; }
+    public void updateSeverity(int newSev) { store.setSeverity(slot(), newSev); }
 
     /**
      * Increases the severity of the fire randomly by 0 or 1.
      * Ensures severity does not exceed 10.
      */
     public void spreadFire() {
+        spreadFire(Math.random());
+    }
+
+    /**
+     * Increases the severity of the fire by 0 or 1 using a supplied random draw,
+     * so that seeded simulations stay reproducible.
+     * Ensures severity does not exceed 10.
+     *
+     * @param roll a uniformly distributed value in [0, 1)
+     */
+    public void spreadFire(double roll) {
+        int s = slot();
+        int severity = store.severity(s);
         if (severity < 10) {
-            severity += (int) (Math.random() * 2);
+            store.setSeverity(s, severity + (int) (roll * 2));
         }
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Fire)) return false;
+        Fire other = (Fire) o;
+        return store == other.store && id == other.id;
+    }
+
+    @Override
+    public int hashCode() {
+        return Integer.hashCode(id);
+    }
 }
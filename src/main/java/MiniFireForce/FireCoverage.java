@@ -0,0 +1,130 @@
+package MiniFireForce;
+
+import java.util.Arrays;
+
+/**
+ * The trucks assigned to one fire: when each of them arrives, how big a crew the fire
+ * called for and when that crew is expected to put it out.
+ * <p>
+ * Dispatch consults this before sending more trucks, so that a fire never draws trucks
+ * from round after round, and a truck that would only arrive once the crew ahead of it
+ * has finished is not sent at all. All methods are synchronized; callers that read and
+ * then update a coverage synchronize on it for the whole step.
+ */
+final class FireCoverage {
+    private long[] arrivals = new long[4]; // When each assigned truck arrives, ascending
+    private int assigned;
+    private int required;   // The crew size the fire called for when it was last found full
+    private boolean full;   // No further truck could arrive before the crew finishes
+    private long firstArrival = Long.MIN_VALUE;
+    private long doneAt = Long.MAX_VALUE;
+
+    /** @return the number of trucks assigned to the fire */
+    synchronized int assigned() {
+        return assigned;
+    }
+
+    /**
+     * Works out how many more trucks the fire can use.
+     *
+     * @param crewSize the crew size the fire's severity calls for now
+     * @return the trucks still to send, possibly zero
+     */
+    synchronized int shortfall(int crewSize) {
+        if (full && crewSize <= required) return 0;
+        return Math.max(0, crewSize - assigned);
+    }
+
+    /**
+     * Records that the crew puts the fire out before any further truck could help, so that
+     * it asks for no more trucks until its severity calls for a bigger crew.
+     *
+     * @param crewSize the crew size the fire's severity calls for now
+     */
+    synchronized void markFull(int crewSize) {
+        full = true;
+        required = crewSize;
+    }
+
+    /**
+     * @return when each assigned truck arrives, in epoch milliseconds, earliest first
+     */
+    synchronized long[] arrivals() {
+        return Arrays.copyOf(arrivals, assigned);
+    }
+
+    /**
+     * Assigns a truck to the fire.
+     *
+     * @param arrival when the truck arrives, in epoch milliseconds
+     */
+    synchronized void add(long arrival) {
+        if (assigned == arrivals.length) arrivals = Arrays.copyOf(arrivals, assigned * 2);
+        int i = assigned++;
+        while (i > 0 && arrivals[i - 1] > arrival) {
+            arrivals[i] = arrivals[i - 1];
+            i--;
+        }
+        arrivals[i] = arrival;
+    }
+
+    /**
+     * Swaps a truck on its way for one that arrives at a different time.
+     *
+     * @param oldArrival when the replaced truck would have arrived
+     * @param newArrival when the new truck arrives
+     * @return {@code false} if no assigned truck arrives at {@code oldArrival}
+     */
+    synchronized boolean replace(long oldArrival, long newArrival) {
+        int i = Arrays.binarySearch(arrivals, 0, assigned, oldArrival);
+        if (i < 0) return false;
+        System.arraycopy(arrivals, i + 1, arrivals, i, assigned - i - 1);
+        assigned--;
+        add(newArrival);
+        return true;
+    }
+
+    /**
+     * Takes over the trucks of a fire that merged into this one.
+     *
+     * @param other the coverage of the absorbed fire
+     */
+    synchronized void absorb(FireCoverage other) {
+        long[] theirs;
+        long theirFirst;
+        synchronized (other) {
+            theirs = other.arrivals();
+            theirFirst = other.firstArrival;
+        }
+        for (long a : theirs) add(a);
+        if (theirFirst != Long.MIN_VALUE && (firstArrival == Long.MIN_VALUE || theirFirst < firstArrival)) {
+            firstArrival = theirFirst;
+        }
+        // The merged fire is bigger, so let dispatch size its crew afresh
+        full = false;
+    }
+
+    /**
+     * Records a truck reaching the fire.
+     *
+     * @param timeMillis when it arrived
+     */
+    synchronized void arrived(long timeMillis) {
+        if (firstArrival == Long.MIN_VALUE) firstArrival = timeMillis;
+    }
+
+    /** @return when the first truck reached the fire, or {@link Long#MIN_VALUE} if none has */
+    synchronized long firstArrival() {
+        return firstArrival;
+    }
+
+    /** @return when the crew is expected to put the fire out, in epoch milliseconds */
+    synchronized long doneAt() {
+        return doneAt;
+    }
+
+    /** @param timeMillis when the crew is expected to put the fire out, in epoch milliseconds */
+    synchronized void setDoneAt(long timeMillis) {
+        doneAt = timeMillis;
+    }
+}
@@ -0,0 +1,98 @@
+package MiniFireForce;
+
+/**
+ * A streaming heatmap of where fires start: a uniform 2D histogram over the world in
+ * which every fire adds one to its cell and old fires fade with a fixed half-life, so
+ * the map follows shifts in where fires occur.
+ * <p>
+ * Decay is applied lazily. A fire adds {@code 2^((t - base) / halfLife)} rather than one,
+ * so weights never need touching as time passes; when that term grows large, every cell
+ * is scaled down once and the base moves forward. All methods are synchronized.
+ */
+final class FireDensity {
+    private final float minX;
+    private final float minY;
+    private final float cellWidth;
+    private final float cellHeight;
+    private final int side;
+    private final double halfLifeMillis;
+    private final double[] weights;
+    private double total;
+    private long baseMillis;
+    private long recorded;
+
+    /**
+     * Creates an empty heatmap.
+     *
+     * @param minX           the lower x bound
+     * @param minY           the lower y bound
+     * @param maxX           the upper x bound
+     * @param maxY           the upper y bound
+     * @param side           the number of cells along each axis
+     * @param halfLifeMillis how long it takes a fire's weight to halve
+     * @param startMillis    the current time
+     */
+    FireDensity(float minX, float minY, float maxX, float maxY, int side, double halfLifeMillis, long startMillis) {
+        this.minX = minX;
+        this.minY = minY;
+        this.side = side;
+        this.cellWidth = (maxX - minX) / side;
+        this.cellHeight = (maxY - minY) / side;
+        this.halfLifeMillis = halfLifeMillis;
+        this.weights = new double[side * side];
+        this.baseMillis = startMillis;
+    }
+
+    /** @return the number of cells along each axis */
+    int side() { return side; }
+
+    /** @return the number of cells */
+    int cells() { return weights.length; }
+
+    /** @return the x-coordinate of the centre of cell {@code c} */
+    float cellX(int c) { return minX + (c % side + 0.5f) * cellWidth; }
+
+    /** @return the y-coordinate of the centre of cell {@code c} */
+    float cellY(int c) { return minY + (c / side + 0.5f) * cellHeight; }
+
+    /** @return the number of fires recorded so far */
+    synchronized long recorded() { return recorded; }
+
+    /**
+     * Records a fire starting.
+     *
+     * @param x          its x-coordinate
+     * @param y          its y-coordinate
+     * @param timeMillis when it started
+     */
+    synchronized void record(float x, float y, long timeMillis) {
+        double exponent = (timeMillis - baseMillis) / halfLifeMillis;
+        if (exponent > 64) {
+            // Rebase before the weights grow past double precision
+            double scale = Math.pow(2, -exponent);
+            for (int c = 0; c < weights.length; c++) weights[c] *= scale;
+            total *= scale;
+            baseMillis = timeMillis;
+            exponent = 0;
+        }
+        int cx = Math.min(side - 1, Math.max(0, (int) Math.floor((x - minX) / cellWidth)));
+        int cy = Math.min(side - 1, Math.max(0, (int) Math.floor((y - minY) / cellHeight)));
+        double w = Math.pow(2, exponent);
+        weights[cy * side + cx] += w;
+        total += w;
+        recorded++;
+    }
+
+    /**
+     * Copies the decayed weight of every cell, in fires.
+     *
+     * @param timeMillis the time to decay to
+     * @param out        receives the weights; at least {@link #cells()} long
+     * @return the total weight
+     */
+    synchronized double weights(long timeMillis, double[] out) {
+        double scale = Math.pow(2, -(timeMillis - baseMillis) / halfLifeMillis);
+        for (int c = 0; c < weights.length; c++) out[c] = weights[c] * scale;
+        return total * scale;
+    }
+}
@@ -1,12 +1,20 @@
 package MiniFireForce;
 
+import javax.management.JMException;
 import javax.swing.*;
 import javax.swing.border.TitledBorder;
 import javax.swing.table.DefaultTableModel;
+import javax.swing.text.BadLocationException;
 import java.awt.*;
 import java.awt.event.ActionEvent;
-import java.time.LocalDateTime;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
 
 /**
  * FireForceGUI provides a graphical user interface for the FireForce simulation.
@@ -14,13 +22,22 @@ import java.time.format.DateTimeFormatter;
  * panel for visualization, and an event log for tracking simulation updates.
  */
 public class FireForceGUI extends JFrame {
+    private static final int MAX_LOG_LINES = 1000;
+    private static final Double[] SPEEDS = {0.5, 1.0, 2.0, 5.0, 10.0, 100.0, 1000.0};
+    private static final DateTimeFormatter CLOCK_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.systemDefault());
+
     private GenSituationClass situation;
     private JTable stationTable;
     private JTable fireTable;
-    private DefaultTableModel stationModel;
-    private DefaultTableModel fireModel;
+    private StationTableModel stationModel;
+    private FireTableModel fireModel;
+    private DefaultTableModel metricsModel;
+    private DefaultTableModel idleModel;
     private JTextArea logArea;
+    private AsyncEventLogger eventLogger;
     private JLabel clockLabel;
+    private JLabel statsLabel;
     private JButton pauseButton;
     private Timer refreshTimer;
     private Timer clockTimer;
@@ -33,7 +50,13 @@ public class FireForceGUI extends JFrame {
      */
     public FireForceGUI() {
         situation = new GenSituationClass();
-        situation.setEventLogger(msg -> SwingUtilities.invokeLater(() -> appendLog(msg)));
+        eventLogger = new AsyncEventLogger(batch -> SwingUtilities.invokeLater(() -> appendLog(batch)));
+        situation.setEventLogger(withJournal(eventLogger));
+        try {
+            situation.getMetrics().registerMBean("MiniFireForce:type=SimulationMetrics");
+        } catch (JMException e) {
+            System.err.println("JMX metrics disabled: " + e.getMessage());
+        }
 
         initComponents();
         startClock();
@@ -43,6 +66,26 @@ public class FireForceGUI extends JFrame {
         setVisible(true);
     }
 
+    /**
+     * Adds a binary event journal to the given logger when the {@code fireforce.journal}
+     * system property names a directory.
+     *
+     * @param logger the GUI's own logger
+     * @return the logger to install in the simulation
+     */
+    private EventLogger withJournal(EventLogger logger) {
+        String dir = System.getProperty("fireforce.journal");
+        if (dir == null || dir.isEmpty()) return logger;
+        try {
+            EventJournal journal = new EventJournal(Paths.get(dir));
+            Runtime.getRuntime().addShutdownHook(new Thread(journal::close));
+            return logger.andThen(journal);
+        } catch (IOException e) {
+            System.err.println("Event journal disabled: " + e.getMessage());
+            return logger;
+        }
+    }
+
     /**
      * Initializes the graphical components of the GUI.
      */
@@ -62,6 +105,32 @@ public class FireForceGUI extends JFrame {
         clockLabel.setFont(new Font("SansSerif", Font.BOLD, 16));
         topPanel.add(clockLabel);
 
+        if (situation.getClock() != null) {
+            JComboBox<Double> speedBox = new JComboBox<>(SPEEDS);
+            speedBox.setSelectedItem(situation.getSpeed());
+            speedBox.setRenderer(new DefaultListCellRenderer() {
+                @Override
+                public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                                                              boolean isSelected, boolean cellHasFocus) {
+                    return super.getListCellRendererComponent(list, speedLabel((Double) value), index,
+                            isSelected, cellHasFocus);
+                }
+            });
+            speedBox.addActionListener(e -> situation.setSpeed((Double) speedBox.getSelectedItem()));
+            topPanel.add(new JLabel("Speed:"));
+            topPanel.add(speedBox);
+        }
+
+        JComboBox<GenSituationClass.CrewPolicy> policyBox = new JComboBox<>(GenSituationClass.CrewPolicy.values());
+        policyBox.setSelectedItem(situation.getCrewPolicy());
+        policyBox.addActionListener(e ->
+                situation.setCrewPolicy((GenSituationClass.CrewPolicy) policyBox.getSelectedItem()));
+        topPanel.add(new JLabel("Crews:"));
+        topPanel.add(policyBox);
+
+        statsLabel = new JLabel();
+        topPanel.add(statsLabel);
+
         add(topPanel, BorderLayout.NORTH);
 
         tabbedPane = new JTabbedPane();
@@ -71,7 +140,7 @@ public class FireForceGUI extends JFrame {
         JPanel tablePanel = new JPanel(new GridLayout(1, 2));
 
         // Fire station table
-        stationModel = new DefaultTableModel(new Object[]{"ID", "X", "Y", "Trucks"}, 0);
+        stationModel = new StationTableModel();
         stationTable = new JTable(stationModel);
         JScrollPane stationScroll = new JScrollPane(stationTable);
         stationScroll.setBorder(BorderFactory.createTitledBorder(
@@ -79,7 +148,7 @@ public class FireForceGUI extends JFrame {
         tablePanel.add(stationScroll);
 
         // Active fires table
-        fireModel = new DefaultTableModel(new Object[]{"ID", "X", "Y", "Severity", "Time"}, 0);
+        fireModel = new FireTableModel();
         fireTable = new JTable(fireModel);
         JScrollPane fireScroll = new JScrollPane(fireTable);
         fireScroll.setBorder(BorderFactory.createTitledBorder(
@@ -105,9 +174,31 @@ public class FireForceGUI extends JFrame {
         mapTab.add(mapPanel, BorderLayout.CENTER);
         tabbedPane.addTab("Map", mapTab);
 
+        // Metrics tab
+        JPanel metricsPanel = new JPanel(new GridLayout(1, 2));
+        metricsModel = new DefaultTableModel(new Object[]{"Metric", "Value"}, 0);
+        JScrollPane metricsScroll = new JScrollPane(new JTable(metricsModel));
+        metricsScroll.setBorder(BorderFactory.createTitledBorder(
+                BorderFactory.createEtchedBorder(), "Simulation Metrics", TitledBorder.CENTER, TitledBorder.TOP));
+        metricsPanel.add(metricsScroll);
+        idleModel = new DefaultTableModel(new Object[]{"Station", "Idle Ratio"}, 0);
+        JScrollPane idleScroll = new JScrollPane(new JTable(idleModel));
+        idleScroll.setBorder(BorderFactory.createTitledBorder(
+                BorderFactory.createEtchedBorder(), "Station Idle Time", TitledBorder.CENTER, TitledBorder.TOP));
+        metricsPanel.add(idleScroll);
+        tabbedPane.addTab("Metrics", metricsPanel);
+
         add(tabbedPane, BorderLayout.CENTER);
     }
 
+    /**
+     * @param speed a simulation speed
+     * @return the speed as shown in the speed menu, such as {@code 0.5×} or {@code 100×}
+     */
+    private static String speedLabel(Double speed) {
+        return speed == null ? "" : BigDecimal.valueOf(speed).stripTrailingZeros().toPlainString() + "\u00d7";
+    }
+
     /**
      * Toggles the pause state of the simulation.
      */
@@ -118,22 +209,39 @@ public class FireForceGUI extends JFrame {
     }
 
     /**
-     * Appends a message to the event log.
+     * Appends a batch of messages to the event log, discarding the oldest lines
+     * beyond {@link #MAX_LOG_LINES}.
      *
-     * @param msg the message to log
+     * @param batch the messages to log
      */
-    private void appendLog(String msg) {
-        logArea.append(msg + "\n");
+    private void appendLog(List<String> batch) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = Math.max(0, batch.size() - MAX_LOG_LINES); i < batch.size(); i++) {
+            sb.append(batch.get(i)).append('\n');
+        }
+        logArea.append(sb.toString());
+
+        int excess = logArea.getLineCount() - 1 - MAX_LOG_LINES;
+        if (excess > 0) {
+            try {
+                logArea.replaceRange("", 0, logArea.getLineEndOffset(excess - 1));
+            } catch (BadLocationException e) {
+                logArea.setText("");
+            }
+        }
     }
 
     /**
-     * Starts the clock timer that updates every second.
+     * Starts the timer that shows the simulation time, updating it several times a second
+     * so that it keeps up when the simulation is fast-forwarded.
      */
     private void startClock() {
-        clockTimer = new Timer(1000, (ActionEvent e) -> {
-            LocalDateTime now = LocalDateTime.now();
-            DateTimeFormatter dtf = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-            clockLabel.setText("Time: " + now.format(dtf));
+        clockTimer = new Timer(250, (ActionEvent e) -> {
+            long now = situation.getScheduler().currentTimeMillis();
+            clockLabel.setText("Time: " + CLOCK_FORMAT.format(Instant.ofEpochMilli(now)));
+            String stats = situation.getDispatchStats().summary(now);
+            long dropped = eventLogger.getDroppedCount();
+            statsLabel.setText(dropped > 0 ? stats + "  Log dropped: " + dropped : stats);
         });
         clockTimer.start();
     }
@@ -158,30 +266,55 @@ public class FireForceGUI extends JFrame {
      * Refreshes the tables displaying fire stations and active fires.
      */
     private void refreshTables() {
-        // Refresh station table
-        stationModel.setRowCount(0);
-        for (FireStation st : situation.getFireStations().values()) {
-            stationModel.addRow(new Object[]{
-                    st.getID(), st.getX(), st.getY(), st.getTrucks()
-            });
+        WorldSnapshot snap = situation.getSnapshot();
+        stationModel.update(snap);
+        fireModel.update(snap);
+        // Metrics are only worth reading while their tab is showing
+        if (tabbedPane.getSelectedIndex() == tabbedPane.indexOfTab("Metrics")) {
+            refreshMetrics();
         }
+    }
 
-        // Refresh fire table
-        fireModel.setRowCount(0);
-        DateTimeFormatter dtf = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-        for (Fire f : situation.getActiveFires().values()) {
-            fireModel.addRow(new Object[]{
-                    f.getID(), f.getX(), f.getY(), f.getSeverity(), f.getTime().format(dtf)
-            });
+    /**
+     * Refreshes the metrics tab from the simulation's metrics registry.
+     */
+    private void refreshMetrics() {
+        SimulationMetrics metrics = situation.getMetrics();
+        metricsModel.setRowCount(0);
+        for (Map.Entry<String, Number> e : metrics.values().entrySet()) {
+            Number v = e.getValue();
+            metricsModel.addRow(new Object[]{e.getKey(),
+                    v instanceof Double ? String.format("%.3f", v.doubleValue()) : v});
+        }
+        idleModel.setRowCount(0);
+        for (Map.Entry<Integer, Double> e : metrics.stationIdleRatios().entrySet()) {
+            idleModel.addRow(new Object[]{e.getKey(), String.format("%.3f", e.getValue())});
         }
     }
 
     /**
-     * Main method that starts the GUI application.
+     * Main method that starts the GUI application. An optional {@code --roads FILE}
+     * argument makes trucks drive on the {@link RoadNetwork} read from that file.
      *
      * @param args command-line arguments
      */
     public static void main(String[] args) {
-        SwingUtilities.invokeLater(FireForceGUI::new);
+        RoadNetwork roads = null;
+        if (args.length == 2 && args[0].equals("--roads")) {
+            try {
+                roads = RoadNetwork.load(Paths.get(args[1]));
+            } catch (IOException e) {
+                System.err.println("Error: " + e.getMessage());
+                System.exit(1);
+            }
+        } else if (args.length > 0) {
+            System.err.println("Usage: java MiniFireForce.FireForceGUI [--roads FILE]");
+            System.exit(2);
+        }
+        RoadNetwork network = roads;
+        SwingUtilities.invokeLater(() -> {
+            FireForceGUI gui = new FireForceGUI();
+            if (network != null) gui.situation.setRoadNetwork(network);
+        });
     }
 }
@@ -0,0 +1,568 @@
+package MiniFireForce;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A cellular fire-front model over a rectangular world.
+ * <p>
+ * The world is divided into square cells stored as primitive arrays: fuel (0-255),
+ * fire intensity (0-10) and a burning state. Each {@link #tick(Random)} only visits the
+ * cells on the active frontier, i.e. the cells currently burning, so its cost depends
+ * on the size of the fire front rather than the size of the map. Burning cells consume
+ * fuel, grow in intensity up to what their fuel allows and ignite unburnt neighbours
+ * with a probability proportional to their intensity and the neighbour's fuel.
+ * <p>
+ * Every burning cell belongs to a fire, identified by the ID of the {@link Fire} whose
+ * ignition it descends from. When two fires touch they merge into the older one; the
+ * merge is reported so the simulation can drop the absorbed fire. A fire whose cells
+ * have all burnt out or been extinguished has no burning cells left. All methods are
+ * synchronized, so the grid can be ticked and queried from different scheduler threads;
+ * large ticks additionally fan out over a fork-join pool.
+ */
+public class FireGrid {
+    private static final byte UNBURNT = 0;
+    private static final byte BURNING = 1;
+    private static final byte BURNT = 2;
+    /** Rows per band; bands are fixed so that results do not depend on the thread count. */
+    private static final int BAND_ROWS = 32;
+    /** Frontiers smaller than this are burned on the calling thread. */
+    private static final int PARALLEL_THRESHOLD = 8192;
+
+    private final float minX;
+    private final float minY;
+    private final float cellSize;
+    private final int cols;
+    private final int rows;
+    private final byte[] fuel;
+    private final byte[] intensity;
+    private final byte[] state;
+    private final int[] owner;
+    private double spreadProbability = 0.3;
+
+    /**
+     * Receives fire merges reported by {@link #drainMerges(MergeListener)}.
+     */
+    @FunctionalInterface
+    public interface MergeListener {
+        /**
+         * Called when one fire has grown into another.
+         *
+         * @param absorbed the fire that no longer has cells of its own
+         * @param survivor the fire that now owns them
+         */
+        void merged(int absorbed, int survivor);
+    }
+
+    private final float[] heatOdds = new float[11];
+    private final Band[] bands;
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+    private int[] sortedFrontier = new int[1024];
+    private int[] frontier = new int[1024];
+    private int frontierSize;
+    private int[] nextFrontier = new int[1024];
+    private int nextSize;
+
+    // Union-find over fire IDs, and burning cells per root fire
+    private int[] parent = new int[256];
+    private int[] burning = new int[256];
+    private int[] merges = new int[16];
+    private int mergeCount;
+
+    /**
+     * Creates a grid over the default simulation world [-1000, 1000] with one-unit cells
+     * (four million cells) and a fuel map generated from the given seed.
+     *
+     * @param seed the seed for the fuel map
+     */
+    public FireGrid(long seed) {
+        this(-1000, -1000, 1000, 1000, 1, seed);
+    }
+
+    /**
+     * Creates a grid over the given bounds with a fuel map generated from the given seed.
+     * The map has patches of dense and sparse fuel and some bare ground that cannot burn.
+     *
+     * @param minX     the lower x bound of the world
+     * @param minY     the lower y bound of the world
+     * @param maxX     the upper x bound of the world
+     * @param maxY     the upper y bound of the world
+     * @param cellSize the side length of each cell
+     * @param seed     the seed for the fuel map
+     */
+    public FireGrid(float minX, float minY, float maxX, float maxY, float cellSize, long seed) {
+        if (cellSize <= 0 || maxX <= minX || maxY <= minY) {
+            throw new IllegalArgumentException("Invalid grid bounds or cell size");
+        }
+        this.minX = minX;
+        this.minY = minY;
+        this.cellSize = cellSize;
+        this.cols = Math.max(1, (int) Math.ceil((maxX - minX) / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil((maxY - minY) / cellSize));
+        long cells = (long) cols * rows;
+        if (cells > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Grid too large: " + cells + " cells");
+        }
+        this.fuel = new byte[(int) cells];
+        this.intensity = new byte[(int) cells];
+        this.state = new byte[(int) cells];
+        this.owner = new int[(int) cells];
+        this.bands = new Band[(rows + BAND_ROWS - 1) / BAND_ROWS];
+        for (int b = 0; b < bands.length; b++) {
+            bands[b] = new Band();
+        }
+        generateFuel(new Random(seed));
+    }
+
+    /**
+     * Fills the fuel map with bilinearly interpolated value noise on a 64-cell lattice.
+     */
+    private void generateFuel(Random rnd) {
+        final int lattice = 64;
+        int lx = cols / lattice + 2;
+        int ly = rows / lattice + 2;
+        float[] noise = new float[lx * ly];
+        for (int i = 0; i < noise.length; i++) {
+            noise[i] = rnd.nextFloat();
+        }
+        for (int gy = 0; gy < rows; gy++) {
+            int y0 = gy / lattice;
+            float fy = (gy % lattice) / (float) lattice;
+            for (int gx = 0; gx < cols; gx++) {
+                int x0 = gx / lattice;
+                float fx = (gx % lattice) / (float) lattice;
+                float top = noise[y0 * lx + x0] * (1 - fx) + noise[y0 * lx + x0 + 1] * fx;
+                float bottom = noise[(y0 + 1) * lx + x0] * (1 - fx) + noise[(y0 + 1) * lx + x0 + 1] * fx;
+                float v = top * (1 - fy) + bottom * fy;
+                // The lowest tenth of the noise range is bare ground
+                fuel[gy * cols + gx] = v < 0.1f ? 0 : (byte) (40 + (int) (215 * (v - 0.1f) / 0.9f));
+            }
+        }
+    }
+
+    /**
+     * Sets the probability that a burning cell at full intensity ignites a neighbour
+     * with full fuel in one tick.
+     *
+     * @param p the spread probability, between 0 and 1
+     */
+    public synchronized void setSpreadProbability(double p) {
+        this.spreadProbability = p;
+    }
+
+    /** @return the number of cells in the grid */
+    public int cellCount() {
+        return fuel.length;
+    }
+
+    /** @return the number of cells currently on the burning frontier */
+    public synchronized int frontierSize() {
+        return frontierSize;
+    }
+
+    // ===== Ignition and extinguishing =====
+
+    /**
+     * Ignites a disc of cells around a point as a new fire.
+     *
+     * @param fireId the ID of the new fire; must not be in use
+     * @param x      the x-coordinate of the ignition point
+     * @param y      the y-coordinate of the ignition point
+     * @param radius the disc radius in cells; 0 ignites a single cell
+     * @return the number of cells ignited; 0 if nothing there can burn
+     */
+    public synchronized int ignite(int fireId, float x, float y, int radius) {
+        ensureFire(fireId);
+        parent[fireId] = fireId;
+        burning[fireId] = 0;
+        int cx = column(x);
+        int cy = row(y);
+        int lit = 0;
+        for (int dy = -radius; dy <= radius; dy++) {
+            for (int dx = -radius; dx <= radius; dx++) {
+                int gx = cx + dx;
+                int gy = cy + dy;
+                if (dx * dx + dy * dy > radius * radius || gx < 0 || gx >= cols || gy < 0 || gy >= rows) continue;
+                int c = gy * cols + gx;
+                if (state[c] != UNBURNT || fuel[c] == 0) continue;
+                light(c, fireId);
+                frontierAppend(c);
+                lit++;
+            }
+        }
+        return lit;
+    }
+
+    /**
+     * Returns the fire burning at a point.
+     *
+     * @param x the x-coordinate
+     * @param y the y-coordinate
+     * @return the ID of the fire burning there, or 0 if the cell is not burning
+     */
+    public synchronized int fireAt(float x, float y) {
+        int c = row(y) * cols + column(x);
+        return state[c] == BURNING ? find(owner[c]) : 0;
+    }
+
+    /**
+     * Puts out every cell of a fire. Extinguished cells keep their remaining fuel.
+     *
+     * @param fireId the fire to put out
+     */
+    public synchronized void extinguish(int fireId) {
+        if (fireId >= parent.length || parent[fireId] == 0) return;
+        int root = find(fireId);
+        // Compact the frontier so it only ever holds burning cells, each once
+        int kept = 0;
+        for (int i = 0; i < frontierSize; i++) {
+            int c = frontier[i];
+            if (find(owner[c]) == root) {
+                state[c] = UNBURNT;
+                intensity[c] = 0;
+            } else {
+                frontier[kept++] = c;
+            }
+        }
+        frontierSize = kept;
+        burning[root] = 0;
+    }
+
+    /**
+     * Returns how many cells of a fire are burning. A fire that merged into another
+     * has no cells of its own.
+     *
+     * @param fireId the fire
+     * @return the number of burning cells
+     */
+    public synchronized int burningCells(int fireId) {
+        if (fireId >= parent.length || parent[fireId] != fireId) return 0;
+        return burning[fireId];
+    }
+
+    /**
+     * Maps a burning area to a severity level: one plus the radius of a disc with
+     * the same number of cells, capped at 10.
+     *
+     * @param cells the number of burning cells
+     * @return the severity from 1 to 10, or 0 if nothing is burning
+     */
+    public static int severityOf(int cells) {
+        if (cells <= 0) return 0;
+        return Math.min(10, 1 + (int) Math.round(Math.sqrt(cells / Math.PI)));
+    }
+
+    // ===== Spread =====
+
+    /**
+     * Uses the given pool for the parallel phase of each tick.
+     *
+     * @param pool the fork-join pool to run band tasks in
+     */
+    public synchronized void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Advances the fire front by one step. Only cells that were burning before the
+     * tick spread fire or burn fuel; cells ignited during the tick start next time.
+     * <p>
+     * The frontier is split into fixed bands of rows. In the parallel phase each band
+     * burns its own cells and stages ignitions, burn-outs and fire contacts in its own
+     * buffers, reading only state that no band changes during the phase; each band
+     * draws from its own {@link SplittableRandom} split off one seed per tick. The
+     * buffers are then applied in band order, so the result depends only on the
+     * random source and never on the number of threads or their timing.
+     *
+     * @param rnd the source of randomness for ignitions; one value is drawn per tick
+     */
+    public synchronized void tick(Random rnd) {
+        // Ignition odds per unit of neighbour fuel, as 16-bit thresholds by intensity
+        for (int h = 0; h < heatOdds.length; h++) {
+            heatOdds[h] = (float) (spreadProbability * h / 10.0 / 255.0 * 65536);
+        }
+        SplittableRandom tickRandom = new SplittableRandom(rnd.nextLong());
+        partitionFrontier(tickRandom);
+
+        if (frontierSize >= PARALLEL_THRESHOLD && pool.getParallelism() > 1) {
+            pool.invoke(new BandTask(0, bands.length));
+        } else {
+            for (Band band : bands) {
+                burnBand(band);
+            }
+        }
+
+        // Apply staged changes in band order: contacts, burn-outs, then ignitions
+        nextSize = 0;
+        for (Band band : bands) {
+            for (int i = 0; i < band.contactCount; i++) {
+                int a = find(band.contacts[i * 2]);
+                int b = find(band.contacts[i * 2 + 1]);
+                if (a != b) merge(a, b);
+            }
+        }
+        for (Band band : bands) {
+            for (int i = 0; i < band.burnoutCount; i++) {
+                int c = band.burnouts[i];
+                state[c] = BURNT;
+                burning[find(owner[c])]--;
+            }
+            for (int i = 0; i < band.survivorCount; i++) {
+                nextAppend(band.survivors[i]);
+            }
+        }
+        for (Band band : bands) {
+            for (int i = 0; i < band.ignitionCount; i++) {
+                int n = band.ignitions[i * 2];
+                if (state[n] == UNBURNT) {
+                    light(n, find(band.ignitions[i * 2 + 1]));
+                    nextAppend(n);
+                }
+            }
+        }
+        int[] t = frontier;
+        frontier = nextFrontier;
+        nextFrontier = t;
+        frontierSize = nextSize;
+    }
+
+    /**
+     * Sorts the frontier by band with a counting sort, keeping the order within each band,
+     * and gives each band its slice of the sorted frontier and its own random stream.
+     */
+    private void partitionFrontier(SplittableRandom tickRandom) {
+        int[] counts = new int[bands.length + 1];
+        for (int i = 0; i < frontierSize; i++) {
+            counts[frontier[i] / cols / BAND_ROWS + 1]++;
+        }
+        for (int b = 0; b < bands.length; b++) {
+            counts[b + 1] += counts[b];
+            bands[b].start = counts[b];
+            bands[b].end = counts[b + 1];
+            bands[b].random = tickRandom.split();
+            bands[b].rollsLeft = 0;
+        }
+        if (sortedFrontier.length < frontierSize) {
+            sortedFrontier = new int[frontier.length];
+        }
+        for (int i = 0; i < frontierSize; i++) {
+            int c = frontier[i];
+            sortedFrontier[counts[c / cols / BAND_ROWS]++] = c;
+        }
+    }
+
+    /**
+     * Burns the cells of one band and stages its changes. Runs concurrently with other
+     * bands: it only writes the fuel and intensity of its own burning cells, which no
+     * other band reads, and only reads states, owners and fire links, which nobody
+     * writes until the staged changes are applied.
+     */
+    private void burnBand(Band band) {
+        band.clear();
+        for (int i = band.start; i < band.end; i++) {
+            int c = sortedFrontier[i];
+            int fire = root(owner[c]);
+            int heat = intensity[c];
+            float odds = heatOdds[heat];
+            int gx = c % cols;
+            int gy = c / cols;
+            if (gx > 0) spreadTo(band, c - 1, fire, odds);
+            if (gx < cols - 1) spreadTo(band, c + 1, fire, odds);
+            if (gy > 0) spreadTo(band, c - cols, fire, odds);
+            if (gy < rows - 1) spreadTo(band, c + cols, fire, odds);
+
+            int left = (fuel[c] & 0xFF) - heat;
+            if (left <= 0) {
+                fuel[c] = 0;
+                intensity[c] = 0;
+                band.burnouts = Band.push(band.burnouts, band.burnoutCount++, c);
+            } else {
+                fuel[c] = (byte) left;
+                intensity[c] = (byte) Math.min(heat + 1, 1 + left * 9 / 255);
+                band.survivors = Band.push(band.survivors, band.survivorCount++, c);
+            }
+        }
+    }
+
+    /**
+     * Stages an ignition of a neighbour, or a contact if it already burns for another fire.
+     */
+    private void spreadTo(Band band, int n, int fire, float odds) {
+        byte s = state[n];
+        if (s == UNBURNT) {
+            int f = fuel[n] & 0xFF;
+            if (f > 0 && band.nextRoll() < odds * f) {
+                band.ignitions = Band.pushPair(band.ignitions, band.ignitionCount++, n, fire);
+            }
+        } else if (s == BURNING) {
+            int other = root(owner[n]);
+            if (other != fire) {
+                band.contacts = Band.pushPair(band.contacts, band.contactCount++, fire, other);
+            }
+        }
+    }
+
+    /**
+     * Fork-join task that splits a range of bands in half until one band is left.
+     */
+    private final class BandTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+
+        BandTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                burnBand(bands[from]);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new BandTask(from, mid), new BandTask(mid, to));
+        }
+    }
+
+    /**
+     * Per-band slice of the frontier, random stream and staging buffers, reused every tick.
+     */
+    private static final class Band {
+        int start;
+        int end;
+        SplittableRandom random;
+        int rollBits;
+        int rollsLeft;
+        int[] survivors = new int[64];
+        int survivorCount;
+        int[] burnouts = new int[64];
+        int burnoutCount;
+        int[] ignitions = new int[64];
+        int ignitionCount;
+        int[] contacts = new int[16];
+        int contactCount;
+
+        void clear() {
+            survivorCount = 0;
+            burnoutCount = 0;
+            ignitionCount = 0;
+            contactCount = 0;
+        }
+
+        /**
+         * Returns a uniform 16-bit roll, drawing a new random int for every second roll.
+         */
+        int nextRoll() {
+            if (rollsLeft == 0) {
+                rollBits = random.nextInt();
+                rollsLeft = 2;
+            }
+            rollsLeft--;
+            int roll = rollBits & 0xFFFF;
+            rollBits >>>= 16;
+            return roll;
+        }
+
+        static int[] push(int[] a, int index, int v) {
+            if (index == a.length) a = Arrays.copyOf(a, a.length * 2);
+            a[index] = v;
+            return a;
+        }
+
+        static int[] pushPair(int[] a, int index, int v, int w) {
+            if (index * 2 + 2 > a.length) a = Arrays.copyOf(a, a.length * 2);
+            a[index * 2] = v;
+            a[index * 2 + 1] = w;
+            return a;
+        }
+    }
+
+    /**
+     * Sets a cell burning for a fire; the caller queues it on a frontier.
+     */
+    private void light(int c, int fireId) {
+        state[c] = BURNING;
+        intensity[c] = 1;
+        owner[c] = fireId;
+        burning[fireId]++;
+    }
+
+    /**
+     * Merges two root fires into the one with the lower ID and records the merge.
+     */
+    private void merge(int a, int b) {
+        int survivor = Math.min(a, b);
+        int absorbed = Math.max(a, b);
+        parent[absorbed] = survivor;
+        burning[survivor] += burning[absorbed];
+        burning[absorbed] = 0;
+        if (mergeCount * 2 + 2 > merges.length) merges = Arrays.copyOf(merges, merges.length * 2);
+        merges[mergeCount * 2] = absorbed;
+        merges[mergeCount * 2 + 1] = survivor;
+        mergeCount++;
+    }
+
+    /**
+     * Reports and forgets the merges since the last call.
+     *
+     * @param listener told about each merge, in order
+     */
+    public synchronized void drainMerges(MergeListener listener) {
+        for (int i = 0; i < mergeCount; i++) {
+            listener.merged(merges[i * 2], find(merges[i * 2 + 1]));
+        }
+        mergeCount = 0;
+    }
+
+    /**
+     * Finds the root of a fire without compressing paths, so it is safe during the parallel phase.
+     */
+    private int root(int fireId) {
+        while (parent[fireId] != fireId) fireId = parent[fireId];
+        return fireId;
+    }
+
+    private int find(int fireId) {
+        int root = fireId;
+        while (parent[root] != root) root = parent[root];
+        while (parent[fireId] != root) {
+            int next = parent[fireId];
+            parent[fireId] = root;
+            fireId = next;
+        }
+        return root;
+    }
+
+    private void ensureFire(int fireId) {
+        if (fireId <= 0) throw new IllegalArgumentException("Fire IDs must be positive");
+        if (fireId >= parent.length) {
+            int size = Math.max(parent.length * 2, fireId + 1);
+            parent = Arrays.copyOf(parent, size);
+            burning = Arrays.copyOf(burning, size);
+        }
+    }
+
+    private void frontierAppend(int c) {
+        if (frontierSize == frontier.length) frontier = Arrays.copyOf(frontier, frontier.length * 2);
+        frontier[frontierSize++] = c;
+    }
+
+    private void nextAppend(int c) {
+        if (nextSize == nextFrontier.length) nextFrontier = Arrays.copyOf(nextFrontier, nextFrontier.length * 2);
+        nextFrontier[nextSize++] = c;
+    }
+
+    private int column(float x) {
+        int c = (int) Math.floor((x - minX) / cellSize);
+        return Math.min(cols - 1, Math.max(0, c));
+    }
+
+    private int row(float y) {
+        int r = (int) Math.floor((y - minY) / cellSize);
+        return Math.min(rows - 1, Math.max(0, r));
+    }
+}
@@ -1,14 +1,18 @@
 package MiniFireForce;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Represents a fire station in the simulation.
  * Fire stations store fire trucks and deploy them when needed.
+ * The truck count is updated atomically, so stations can be shared between
+ * simulation threads and the GUI without locking.
  */
 public class FireStation {
-    private float xStation;
-    private float yStation;
-    private int trucks;
-    private static int counter = 0;
+    private final float xStation;
+    private final float yStation;
+    private final AtomicInteger trucks;
+    private static final AtomicInteger counter = new AtomicInteger();
     private final int id;
 
     /**
@@ -19,10 +23,22 @@ public class FireStation {
      * @param trucks   the number of fire trucks available
      */
     public FireStation(float xStation, float yStation, int trucks) {
+        this(counter.incrementAndGet(), xStation, yStation, trucks);
+    }
+
+    /**
+     * Creates a fire station with an ID assigned by the caller.
+     *
+     * @param id       the unique ID of the station
+     * @param xStation the x-coordinate of the station
+     * @param yStation the y-coordinate of the station
+     * @param trucks   the number of fire trucks available
+     */
+    public FireStation(int id, float xStation, float yStation, int trucks) {
+        this.id = id;
         this.xStation = xStation;
         this.yStation = yStation;
-        this.trucks = trucks;
-        id = ++counter;
+        this.trucks = new AtomicInteger(trucks);
     }
 
     /** @return the unique ID of the fire station */
@@ -35,7 +51,7 @@ public class FireStation {
     public float getY() { return yStation; }
 
     /** @return the number of available fire trucks */
-    public int getTrucks() { return trucks; }
+    public int getTrucks() { return trucks.get(); }
 
     /**
      * Calculates the distance from the fire station to a given fire location.
@@ -55,7 +71,7 @@ public class FireStation {
      *
      * @return {@code true} if at least one truck is available, otherwise {@code false}
      */
-    public boolean canDeploy() { return trucks > 0; }
+    public boolean canDeploy() { return trucks.get() > 0; }
 
     /**
      * Deploys fire trucks for fire suppression.
@@ -65,13 +81,13 @@ public class FireStation {
      * @return the number of additional trucks needed
      */
     public int deployTruck(int requiredTrucks) {
-        if (trucks < requiredTrucks) {
-            int needed = requiredTrucks - trucks;
-            trucks = 0;
-            return needed;
+        while (true) {
+            int available = trucks.get();
+            int deployed = Math.min(available, requiredTrucks);
+            if (trucks.compareAndSet(available, available - deployed)) {
+                return requiredTrucks - deployed;
+            }
         }
-        trucks -= requiredTrucks;
-        return 0;
     }
 
     /**
@@ -80,6 +96,6 @@ public class FireStation {
      * @param trucksReturned the number of trucks returning
      */
     public void retrieveTruck(int trucksReturned) {
-        trucks += trucksReturned;
+        trucks.addAndGet(trucksReturned);
     }
 }
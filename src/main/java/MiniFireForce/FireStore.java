@@ -0,0 +1,439 @@
+package MiniFireForce;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * The active fires of a simulation, stored as parallel primitive arrays indexed by slot.
+ * <p>
+ * A fire costs a few dozen bytes: its ID, position, severity and start time in the slot
+ * arrays, plus one entry in an open-addressing ID-to-slot index. Removed slots go on a
+ * free list and are reused by later fires, so the arrays only grow with the peak number
+ * of fires. Callers see fires through {@link Fire} views that read and write the arrays,
+ * created on demand and never stored here.
+ * <p>
+ * Adding, removing and looking up fires are synchronized. The arrays and the number of
+ * slots in use are published together through a volatile {@link Slots} holder, so iteration
+ * and views read them without locking and never index past the arrays another thread has
+ * just grown. Iteration is weakly consistent, like a concurrent map's: it sees fires added or
+ * removed during the loop or not. Field reads through a view are not locked either, so
+ * another thread may see a value that is one update stale, and a view whose fire another
+ * thread removes throws {@link IllegalStateException} from then on; {@link #forEach} moves
+ * on to the next fire when that happens inside its action.
+ */
+final class FireStore {
+    private static final int END = -1;
+    /** The ID of an empty slot, which no fire may use. */
+    static final int NO_FIRE = Integer.MIN_VALUE;
+
+    /**
+     * The slot arrays and how many slots have ever been used, replaced as a whole whenever
+     * either changes so that readers without the lock see a matching pair.
+     */
+    private static final class Slots {
+        final int[] ids;
+        final float[] xs;
+        final float[] ys;
+        final byte[] severities;
+        final long[] times;
+        // For each empty slot, the next empty slot or END
+        final int[] nextFree;
+        final int highWater;
+
+        Slots(int[] ids, float[] xs, float[] ys, byte[] severities, long[] times, int[] nextFree,
+              int highWater) {
+            this.ids = ids;
+            this.xs = xs;
+            this.ys = ys;
+            this.severities = severities;
+            this.times = times;
+            this.nextFree = nextFree;
+            this.highWater = highWater;
+        }
+
+        /** @return the same arrays with a different number of slots in use */
+        Slots withHighWater(int newHighWater) {
+            return new Slots(ids, xs, ys, severities, times, nextFree, newHighWater);
+        }
+
+        /** @return copies of the arrays, with room for the given number of slots */
+        Slots grow(int capacity) {
+            return new Slots(Arrays.copyOf(ids, capacity), Arrays.copyOf(xs, capacity),
+                    Arrays.copyOf(ys, capacity), Arrays.copyOf(severities, capacity),
+                    Arrays.copyOf(times, capacity), Arrays.copyOf(nextFree, capacity), highWater);
+        }
+    }
+
+    private volatile Slots slots;
+    private int freeHead = END;
+    private volatile int size;
+    private final IntIntMap slotById;
+    private Map<Integer, Fire> mapView;
+
+    /**
+     * Creates an empty store.
+     *
+     * @param expected the number of fires to hold without growing
+     */
+    FireStore(int expected) {
+        int capacity = Math.max(1, expected);
+        slots = new Slots(new int[capacity], new float[capacity], new float[capacity], new byte[capacity],
+                new long[capacity], new int[capacity], 0);
+        slotById = new IntIntMap(expected);
+    }
+
+    // ===== Fires =====
+
+    /** @return the number of fires */
+    int size() {
+        return size;
+    }
+
+    /** @return {@code true} if there are no fires */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Adds a fire.
+     *
+     * @param id         the fire's ID
+     * @param x          the x-coordinate
+     * @param y          the y-coordinate
+     * @param severity   the severity, 1 to 10
+     * @param timeMillis when the fire started, in epoch milliseconds
+     * @return the slot holding the fire
+     * @throws IllegalArgumentException if a fire with the same ID is already stored, or the
+     *                                  ID is {@link #NO_FIRE}
+     */
+    synchronized int add(int id, float x, float y, int severity, long timeMillis) {
+        if (id == NO_FIRE || slotById.get(id) != IntIntMap.MISSING) {
+            throw new IllegalArgumentException("Fire " + id + " is already stored");
+        }
+        Slots s = slots;
+        int slot;
+        if (freeHead != END) {
+            slot = freeHead;
+            freeHead = s.nextFree[slot];
+        } else {
+            slot = s.highWater;
+            if (slot == s.ids.length) s = s.grow(slot * 2);
+        }
+        s.xs[slot] = x;
+        s.ys[slot] = y;
+        s.severities[slot] = (byte) severity;
+        s.times[slot] = timeMillis;
+        s.ids[slot] = id;
+        // Publish after the writes, so a reader that sees the slot also sees the fire in it
+        if (slot == s.highWater) slots = s.withHighWater(slot + 1);
+        slotById.put(id, slot);
+        size++;
+        return slot;
+    }
+
+    /**
+     * Moves every fire of another store into this one and empties it.
+     *
+     * @param other the store to drain
+     */
+    void addAll(FireStore other) {
+        synchronized (other) {
+            Slots o = other.slots;
+            for (int s = 0; s < o.highWater; s++) {
+                if (o.ids[s] != NO_FIRE) {
+                    add(o.ids[s], o.xs[s], o.ys[s], o.severities[s], o.times[s]);
+                }
+            }
+            other.clear();
+        }
+    }
+
+    /**
+     * Removes a fire. Views of it stop working.
+     *
+     * @param id the fire's ID
+     * @return {@code true} if the fire was stored
+     */
+    synchronized boolean remove(int id) {
+        int slot = slotById.remove(id);
+        if (slot == IntIntMap.MISSING) return false;
+        Slots s = slots;
+        s.ids[slot] = NO_FIRE;
+        s.nextFree[slot] = freeHead;
+        freeHead = slot;
+        size--;
+        return true;
+    }
+
+    /**
+     * Removes every fire, keeping the arrays and index sized for as many again.
+     */
+    synchronized void clear() {
+        Slots s = slots;
+        Arrays.fill(s.ids, 0, s.highWater, NO_FIRE);
+        slotById.clear(size);
+        freeHead = END;
+        slots = s.withHighWater(0);
+        size = 0;
+    }
+
+    /**
+     * @param id a fire ID
+     * @return {@code true} if the fire is stored
+     */
+    synchronized boolean contains(int id) {
+        return slotById.get(id) != IntIntMap.MISSING;
+    }
+
+    /**
+     * @param id a fire ID
+     * @return when the fire started, in epoch milliseconds, or {@link Long#MIN_VALUE} if it
+     *         is not stored
+     */
+    synchronized long startTime(int id) {
+        int slot = slotById.get(id);
+        return slot == IntIntMap.MISSING ? Long.MIN_VALUE : slots.times[slot];
+    }
+
+    /**
+     * @param id a fire ID
+     * @return a view of the fire, or {@code null} if it is not stored
+     */
+    synchronized Fire get(int id) {
+        int slot = slotById.get(id);
+        return slot == IntIntMap.MISSING ? null : new Fire(this, slot, id);
+    }
+
+    /**
+     * Copies a fire out of the store under its lock. The copy is a standalone fire that stays
+     * readable once the fire is removed here, for code that another thread may race with.
+     *
+     * @param id a fire ID
+     * @return a copy of the fire, or {@code null} if it is not stored
+     */
+    synchronized Fire copy(int id) {
+        int slot = slotById.get(id);
+        if (slot == IntIntMap.MISSING) return null;
+        Slots s = slots;
+        return new Fire(id, s.xs[slot], s.ys[slot], s.severities[slot], s.times[slot]);
+    }
+
+    /**
+     * @return copies of every fire, in slot order, that stay readable as for {@link #copy(int)}
+     */
+    synchronized List<Fire> copyList() {
+        FireStore copy = new FireStore(size);
+        Slots o = slots;
+        for (int s = 0; s < o.highWater; s++) {
+            if (o.ids[s] != NO_FIRE) copy.add(o.ids[s], o.xs[s], o.ys[s], o.severities[s], o.times[s]);
+        }
+        return copy.list();
+    }
+
+    /**
+     * Visits every fire in slot order. If another thread removes a fire while the action is
+     * reading it, the view's {@link IllegalStateException} ends that fire's visit and the
+     * loop carries on with the next fire.
+     *
+     * @param action receives a view of each fire
+     */
+    void forEach(Consumer<Fire> action) {
+        Slots s = slots;
+        for (int slot = 0; slot < s.highWater; slot++) {
+            int id = s.ids[slot];
+            if (id == NO_FIRE) continue;
+            try {
+                action.accept(new Fire(this, slot, id));
+            } catch (IllegalStateException e) {
+                if (slots.ids[slot] == id) throw e; // not a removal: the action's own failure
+            }
+        }
+    }
+
+    /**
+     * @return views of every fire, in slot order
+     */
+    synchronized List<Fire> list() {
+        List<Fire> result = new ArrayList<>(size);
+        forEach(result::add);
+        return result;
+    }
+
+    /**
+     * Copies every fire into the given arrays, which must hold at least {@link #size()}
+     * entries, in slot order.
+     *
+     * @return the number of fires copied
+     */
+    synchronized int copyTo(int[] outIds, float[] outX, float[] outY, byte[] outSeverity, long[] outTime) {
+        Slots o = slots;
+        int n = 0;
+        for (int s = 0; s < o.highWater && n < outIds.length; s++) {
+            if (o.ids[s] == NO_FIRE) continue;
+            outIds[n] = o.ids[s];
+            outX[n] = o.xs[s];
+            outY[n] = o.ys[s];
+            outSeverity[n] = o.severities[s];
+            outTime[n] = o.times[s];
+            n++;
+        }
+        return n;
+    }
+
+    /**
+     * Returns a live map view keyed by fire ID. Removing through the view removes fires;
+     * adding through it is not supported.
+     *
+     * @return the map view
+     */
+    synchronized Map<Integer, Fire> asMap() {
+        if (mapView == null) mapView = new MapView();
+        return mapView;
+    }
+
+    // ===== Slot access for views =====
+
+    /**
+     * Checks that a slot still holds the fire a view was created for. Slots never move, so
+     * a view stays valid until its fire is removed.
+     *
+     * @param slot the slot the view was created with
+     * @param id   the fire's ID
+     * @return the slot
+     * @throws IllegalStateException if the fire has been removed
+     */
+    int checkSlot(int slot, int id) {
+        if (slots.ids[slot] != id) {
+            throw new IllegalStateException("Fire " + id + " is no longer active");
+        }
+        return slot;
+    }
+
+    /** @return the x-coordinate of the fire in a slot */
+    float x(int slot) { return slots.xs[slot]; }
+
+    /** @return the y-coordinate of the fire in a slot */
+    float y(int slot) { return slots.ys[slot]; }
+
+    /** @return the severity of the fire in a slot */
+    int severity(int slot) { return slots.severities[slot]; }
+
+    /** @return the start time of the fire in a slot, in epoch milliseconds */
+    long time(int slot) { return slots.times[slot]; }
+
+    /** Sets the x-coordinate of the fire in a slot. */
+    void setX(int slot, float x) { slots.xs[slot] = x; }
+
+    /** Sets the y-coordinate of the fire in a slot. */
+    void setY(int slot, float y) { slots.ys[slot] = y; }
+
+    /** Sets the severity of the fire in a slot. */
+    void setSeverity(int slot, int severity) { slots.severities[slot] = (byte) severity; }
+
+    /** Sets the start time of the fire in a slot, in epoch milliseconds. */
+    void setTime(int slot, long timeMillis) { slots.times[slot] = timeMillis; }
+
+    /**
+     * A {@code Map<Integer, Fire>} over the store, for callers of
+     * {@link GenSituationClass#getActiveFires()}.
+     */
+    private final class MapView extends AbstractMap<Integer, Fire> {
+        private final Set<Entry<Integer, Fire>> entries = new AbstractSet<Entry<Integer, Fire>>() {
+            @Override
+            public Iterator<Entry<Integer, Fire>> iterator() {
+                return new SlotIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+
+        @Override
+        public Set<Entry<Integer, Fire>> entrySet() {
+            return entries;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof Integer && contains((Integer) key);
+        }
+
+        @Override
+        public Fire get(Object key) {
+            return key instanceof Integer ? FireStore.this.get((Integer) key) : null;
+        }
+
+        @Override
+        public Fire remove(Object key) {
+            if (!(key instanceof Integer)) return null;
+            synchronized (FireStore.this) {
+                int id = (Integer) key;
+                int slot = slotById.get(id);
+                if (slot == IntIntMap.MISSING) return null;
+                // Removed fires have no slot to view, so hand back a detached copy
+                Slots s = slots;
+                Fire copy = new Fire(id, s.xs[slot], s.ys[slot], s.severities[slot], s.times[slot]);
+                FireStore.this.remove(id);
+                return copy;
+            }
+        }
+    }
+
+    /**
+     * Walks the used slots for the map view, over the arrays published when it was created.
+     * Each fire's ID is read as its slot is found, so a fire removed or replaced later is
+     * still reported, and removed, under the ID it had.
+     */
+    private final class SlotIterator implements Iterator<Map.Entry<Integer, Fire>> {
+        private final Slots s = slots;
+        private int next = -1;
+        private int nextId;
+        private int lastId = NO_FIRE;
+
+        SlotIterator() {
+            advance();
+        }
+
+        private void advance() {
+            do {
+                next++;
+            } while (next < s.highWater && (nextId = s.ids[next]) == NO_FIRE);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < s.highWater;
+        }
+
+        @Override
+        public Map.Entry<Integer, Fire> next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            int slot = next;
+            lastId = nextId;
+            advance();
+            return new AbstractMap.SimpleImmutableEntry<>(lastId, new Fire(FireStore.this, slot, lastId));
+        }
+
+        @Override
+        public void remove() {
+            if (lastId == NO_FIRE) throw new IllegalStateException();
+            FireStore.this.remove(lastId);
+            lastId = NO_FIRE;
+        }
+    }
+}
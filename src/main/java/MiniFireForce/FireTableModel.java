@@ -0,0 +1,48 @@
+package MiniFireForce;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Table model for the Active Fires table: ID, location, severity and start time.
+ * Start times are formatted only when a row is drawn.
+ */
+class FireTableModel extends SnapshotTableModel {
+    private static final DateTimeFormatter TIME_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.systemDefault());
+
+    /**
+     * Creates an empty fire table model.
+     */
+    FireTableModel() {
+        super("ID", "X", "Y", "Severity", "Time");
+    }
+
+    @Override
+    int count(WorldSnapshot snap) {
+        return snap.fireCount();
+    }
+
+    @Override
+    int id(WorldSnapshot snap, int i) {
+        return snap.fireId(i);
+    }
+
+    @Override
+    boolean changed(WorldSnapshot before, int i, WorldSnapshot after, int j) {
+        // A fire keeps its location and start time, so only severity can change
+        return before.fireSeverity(i) != after.fireSeverity(j);
+    }
+
+    @Override
+    Object value(WorldSnapshot snap, int i, int column) {
+        switch (column) {
+            case 0: return snap.fireId(i);
+            case 1: return snap.fireX(i);
+            case 2: return snap.fireY(i);
+            case 3: return snap.fireSeverity(i);
+            default: return TIME_FORMAT.format(Instant.ofEpochMilli(snap.fireTime(i)));
+        }
+    }
+}
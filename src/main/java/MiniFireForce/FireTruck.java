@@ -49,4 +49,15 @@ public class FireTruck {
     public double calculateExtinguishingTime(Fire fire, int numTrucks) {
         return (fire.getSeverity() * 5.0) / numTrucks;
     }
+
+    /**
+     * Calculates how many trucks are needed to put out a fire within this truck's
+     * target extinguishing time.
+     *
+     * @param fire the fire to extinguish
+     * @return the number of trucks to send, at least one
+     */
+    public int trucksRequired(Fire fire) {
+        return Math.max(1, (int) Math.ceil(calculateExtinguishingTime(fire, 1) / extinguishTime));
+    }
 }
@@ -1,8 +1,9 @@
 package MiniFireForce;
 
-import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * The {@code GenSituationClass} manages the entire fire simulation environment.
@@ -10,18 +11,100 @@ import java.util.concurrent.*;
  * of fire trucks to extinguish fires. Fires can spread over time, and fire stations
  * prioritize responses based on proximity.
  *
- * This class uses a scheduled executor to automate updates to the simulation.
+ * This class uses a {@link SimulationScheduler} to automate updates to the simulation,
+ * either live, paced by a pausable and time-scalable {@link SimulationClock}, or as a
+ * headless discrete-event run on a virtual clock.
+ * World state lives in concurrent collections, so scheduler threads can update it
+ * while the GUI iterates it without copying or locking.
  */
-public class GenSituationClass {
-    private final Map<Integer, Fire> activeFires;
+public class GenSituationClass implements TruckLifecycleManager.Listener {
+    private final FireStore activeFires;
+    private final FireStore spawnedFires = new FireStore(16); // Staged by a scatter tick
     private final Map<Integer, FireStation> stations;
-    private final List<MovingTruck> movingTrucks; // For animation
-    private ScheduledExecutorService scheduler;
-    private EventLogger eventLogger;
+    private final StationIndex stationIndex;
+    private final DispatchOptimizer dispatchOptimizer;
+    private final DispatchQueue dispatchQueue; // Fires still short of trucks
+    private final FireTruck truckModel;
+    private final DispatchStats stats;
+    private final Map<Integer, FireCoverage> coverage = new ConcurrentHashMap<>(); // Fires with trucks assigned
+    private final TruckLifecycleManager trucks; // Trucks on the road, also used for animation
+    private final SimulationScheduler scheduler;
+    private final SimulationClock clock; // Null unless the scheduler is paced by a clock
+    private final Random random;
+    private final ThreadLocal<SimulationEvent> scratchEvent = ThreadLocal.withInitial(SimulationEvent::new);
+    private final EnRouteBuffer enRoute = new EnRouteBuffer(); // Guarded by itself
+    private final AtomicInteger nextFireId = new AtomicInteger();
+    private final AtomicInteger nextStationId = new AtomicInteger();
+    private volatile EventLogger eventLogger;
     private volatile boolean paused = false;
+    private final AtomicLong worldVersion = new AtomicLong();
+    private volatile WorldSnapshot snapshot = WorldSnapshot.EMPTY;
 
+    private final SimulationMetrics metrics;
+    private final SimulationMetrics.Counter firesSpawned;
+    private final SimulationMetrics.Counter firesExtinguished;
+    private final SimulationMetrics.Counter firesBurnedOut;
+    private final SimulationMetrics.Counter firesMerged;
+    private final SimulationMetrics.Counter trucksDispatched;
+    private final SimulationMetrics.Counter dispatchRounds;
+    private final LatencyHistogram fireToDispatch;
+    private final LatencyHistogram dispatchToArrival;
+    private final LatencyHistogram timeToExtinguish;
+    private final LatencyHistogram schedulerLag;
+    private final SimulationMetrics.Counter wastedTrips;
+    private final SimulationMetrics.Counter trucksReassigned;
+
+    private final SimulationConfig config;
     // Speed of fire trucks in units per second
-    private static final double TRUCK_SPEED = 50.0;
+    private final double truckSpeed;
+    // How trucks get around: straight lines, or the road network once one is set
+    private volatile TravelModel travelModel;
+    private volatile RoadRouter router;
+    // How much sooner a free truck must reach a fire to take over from one on the way
+    private static final long REASSIGN_GAIN_MS = 5000;
+
+    /**
+     * How many trucks are sent to a fire and how long they take to put it out.
+     */
+    public enum CrewPolicy {
+        /** One truck per fire. */
+        SINGLE_TRUCK,
+        /**
+         * A crew sized by severity, cut down while the idle fleet cannot give every fire
+         * that is still waiting a full crew.
+         */
+        BY_SEVERITY
+    }
+
+    private volatile CrewPolicy crewPolicy;
+
+    /**
+     * How fires grow and spread.
+     */
+    public enum SpreadModel {
+        /** Severity rises at random and new independent fires start near existing ones. */
+        SCATTER,
+        /** Fires burn across a fuel grid and grow, merge and burn out as connected regions. */
+        GRID
+    }
+
+    private volatile SpreadModel spreadModel;
+    private final long gridSeed;
+    private volatile FireGrid fireGrid;
+
+    /**
+     * Where new fire stations open.
+     */
+    public enum StationPlacement {
+        /** At a random point in the world. */
+        RANDOM,
+        /** Where they most shorten the distance to past fires, weighted towards recent ones. */
+        DENSITY
+    }
+
+    private volatile StationPlacement stationPlacement;
+    private final FireDensity fireDensity; // Where fires have started, for placement and coverage
+    private final StationPlacer stationPlacer;
 
     /**
      * Initializes the simulation environment.
@@ -31,10 +114,108 @@ public class GenSituationClass {
      * - Simulates fire spread over time.
      */
     public GenSituationClass() {
-        activeFires = new HashMap<>();
-        stations = new HashMap<>();
-        movingTrucks = new ArrayList<>();
-        scheduler = Executors.newScheduledThreadPool(4);
+        this(new GridStationIndex());
+    }
+
+    /**
+     * Initializes the simulation environment with a specific station index
+     * used for nearest-station lookups.
+     *
+     * @param stationIndex the spatial index that stations are inserted into
+     */
+    public GenSituationClass(StationIndex stationIndex) {
+        this(new PacedScheduler(), new SimulationConfig(), stationIndex, new Random());
+        startSnapshotPublisher(50);
+        ((PacedScheduler) scheduler).start();
+    }
+
+    /**
+     * Initializes a reproducible simulation driven by the given scheduler.
+     * Passing a {@link DiscreteEventScheduler} runs the simulation headless on a
+     * virtual clock; the same seed always produces the same sequence of events.
+     *
+     * @param scheduler the scheduler that drives all simulation timers
+     * @param seed      the seed for every random decision in the simulation
+     */
+    public GenSituationClass(SimulationScheduler scheduler, long seed) {
+        this(scheduler, new SimulationConfig(), seed);
+    }
+
+    /**
+     * Initializes a reproducible simulation with the given parameters.
+     *
+     * @param scheduler the scheduler that drives all simulation timers
+     * @param config    the simulation parameters; copied, so later changes have no effect
+     * @param seed      the seed for every random decision in the simulation
+     */
+    public GenSituationClass(SimulationScheduler scheduler, SimulationConfig config, long seed) {
+        this(scheduler, config, new GridStationIndex(config.getMinX(), config.getMinY(),
+                config.getMaxX(), config.getMaxY(), 100), new Random(seed));
+    }
+
+    private GenSituationClass(SimulationScheduler scheduler, SimulationConfig config, StationIndex stationIndex,
+                              Random random) {
+        this.config = config.copy();
+        this.truckSpeed = this.config.getTruckSpeed();
+        this.crewPolicy = this.config.getCrewPolicy();
+        this.spreadModel = this.config.getSpreadModel();
+        this.stationPlacement = this.config.getStationPlacement();
+        activeFires = new FireStore(64);
+        stations = new ConcurrentHashMap<>();
+        this.stationIndex = stationIndex;
+        this.scheduler = scheduler;
+        this.clock = scheduler instanceof PacedScheduler ? ((PacedScheduler) scheduler).getClock() : null;
+        this.random = random;
+        this.travelModel = TravelModel.straightLine(truckSpeed);
+        this.dispatchOptimizer = new DispatchOptimizer(truckSpeed);
+        this.dispatchQueue = new DispatchQueue(TimeUnit.SECONDS.toMillis(this.config.getQueueAgingSeconds()));
+        this.truckModel = new FireTruck((int) truckSpeed, this.config.getCrewTargetSeconds());
+        this.stats = new DispatchStats(scheduler.currentTimeMillis());
+        trucks = new TruckLifecycleManager(scheduler, this);
+        this.gridSeed = random.nextLong();
+        this.fireDensity = new FireDensity(this.config.getMinX(), this.config.getMinY(),
+                this.config.getMaxX(), this.config.getMaxY(), 32,
+                TimeUnit.MINUTES.toMillis(this.config.getDensityHalfLifeMinutes()), scheduler.currentTimeMillis());
+        float diagonal = (float) Math.hypot(this.config.getMaxX() - this.config.getMinX(),
+                this.config.getMaxY() - this.config.getMinY());
+        this.stationPlacer = new StationPlacer(fireDensity, stationIndex, 2 * diagonal);
+
+        metrics = new SimulationMetrics(scheduler::currentTimeMillis);
+        firesSpawned = metrics.counter("fires.spawned", "Fires started, including spread");
+        firesExtinguished = metrics.counter("fires.extinguished", "Fires put out by crews");
+        firesBurnedOut = metrics.counter("fires.burnedOut", "Fires that ran out of fuel");
+        firesMerged = metrics.counter("fires.merged", "Fires absorbed by a neighbouring fire");
+        trucksDispatched = metrics.counter("trucks.dispatched", "Trucks sent to fires");
+        dispatchRounds = metrics.counter("dispatch.rounds", "Batch dispatch rounds run");
+        wastedTrips = metrics.counter("trucks.wastedTrips", "Truck trips that did no work because the fire was out");
+        trucksReassigned = metrics.counter("trucks.reassigned", "Trucks on the way replaced by a closer one");
+        metrics.gauge("fires.active", "Fires currently burning", activeFires::size);
+        metrics.gauge("fires.queued", "Fires waiting for trucks", dispatchQueue::size);
+        metrics.gauge("stations.count", "Fire stations open", stations::size);
+        metrics.gauge("trucks.onRoad", "Trucks away from their stations", trucks::activeCount);
+        metrics.gauge("scheduler.pending", "Tasks waiting in the scheduler", scheduler::pendingTasks);
+        metrics.gauge("trucks.utilization", "Fraction of fleet truck time spent away from stations",
+                () -> stats.getTruckUtilization(scheduler.currentTimeMillis()));
+        metrics.gauge("stations.idleRatio", "Mean fraction of station truck time spent idle",
+                metrics::meanStationIdleRatio);
+        metrics.gauge("stations.expectedTravel", "Seconds from the nearest station to where fires start, on average",
+                () -> {
+                    StationPlacer.Coverage c = getCoverage();
+                    return c == null ? 0 : c.expectedTravelSeconds;
+                });
+        metrics.gauge("stations.coverage", "Fraction of fire density a station reaches within the coverage target",
+                () -> {
+                    StationPlacer.Coverage c = getCoverage();
+                    return c == null ? 0 : c.withinTarget;
+                });
+        fireToDispatch = metrics.histogram("latency.fireToDispatch",
+                "Milliseconds from a fire starting to its first truck leaving", 3_600_000);
+        dispatchToArrival = metrics.histogram("latency.dispatchToArrival",
+                "Milliseconds from a truck leaving its station to reaching the fire", 3_600_000);
+        timeToExtinguish = metrics.histogram("latency.timeToExtinguish",
+                "Milliseconds from a fire starting to a crew putting it out", 3_600_000);
+        schedulerLag = metrics.histogram("scheduler.lag",
+                "Milliseconds a simulation timer ran after its intended time", 60_000);
 
         startStationSpawner();
         startFireSpawner();
@@ -52,17 +233,106 @@ public class GenSituationClass {
     }
 
     /**
-     * Pauses or resumes the simulation.
+     * @return this thread's reusable event object, to be filled and passed to the logger
+     */
+    private SimulationEvent event() {
+        return scratchEvent.get();
+    }
+
+    /**
+     * Pauses or resumes the simulation. Under a clock-paced scheduler this stops simulation
+     * time itself, so trucks on the road and pending arrivals wait too; otherwise it only
+     * stops new stations, fires, spreading and dispatch.
      *
      * @param p {@code true} to pause, {@code false} to resume
      */
     public void setPaused(boolean p) {
         paused = p;
+        if (clock != null) {
+            clock.setPaused(p);
+            // Publishing may have been throttled, so show the state the clock stopped at
+            if (p) publishSnapshot();
+        }
         if (eventLogger != null) {
             eventLogger.log(paused ? "Simulation paused." : "Simulation resumed.");
         }
     }
 
+    /**
+     * Sets how fast simulation time runs relative to the wall clock. Only the pace changes:
+     * events happen at the same simulation times as at normal speed.
+     *
+     * @param speed simulated seconds per wall-clock second, from {@link SimulationClock#MIN_SPEED}
+     *              to {@link SimulationClock#MAX_SPEED}
+     * @throws IllegalArgumentException      if the speed is out of range
+     * @throws UnsupportedOperationException if the scheduler is not paced by a clock
+     */
+    public void setSpeed(double speed) {
+        if (clock == null) throw new UnsupportedOperationException("Scheduler has no adjustable clock");
+        clock.setSpeed(speed);
+        if (eventLogger != null) {
+            eventLogger.log(String.format("Simulation speed set to %sx.", speed));
+        }
+    }
+
+    /**
+     * @return simulated seconds per wall-clock second, or {@code NaN} if the scheduler is not
+     *         paced by a clock
+     */
+    public double getSpeed() {
+        return clock == null ? Double.NaN : clock.getSpeed();
+    }
+
+    /**
+     * @return the clock pacing the simulation, or {@code null} if the scheduler is not paced by one
+     */
+    public SimulationClock getClock() {
+        return clock;
+    }
+
+    /**
+     * Stops all simulation timers.
+     */
+    public void shutdown() {
+        scheduler.shutdown();
+    }
+
+    /**
+     * Runs a timer task at a fixed rate, recording how late each run starts in the
+     * scheduler-lag histogram. A paced scheduler reports a task's due time while it runs,
+     * so there lateness is how far the pacing clock has moved past it; a discrete-event
+     * run is never late. A run that throws is reported to the thread's uncaught-exception
+     * handler and the timer keeps going, where an executor would cancel it silently.
+     *
+     * @param task         the task to run
+     * @param initialDelay the delay before the first run
+     * @param period       the time between the start of consecutive runs
+     * @param unit         the unit of {@code initialDelay} and {@code period}
+     */
+    private void every(Runnable task, long initialDelay, long period, TimeUnit unit) {
+        long periodMs = unit.toMillis(period);
+        // Runs of one fixed-rate task never overlap, so this needs no synchronization
+        long[] due = {scheduler.currentTimeMillis() + unit.toMillis(initialDelay)};
+        scheduler.scheduleAtFixedRate(() -> {
+            long now = scheduler.currentTimeMillis();
+            schedulerLag.record(clock != null ? clock.currentTimeMillis() - now : now - due[0]);
+            due[0] += periodMs;
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                Thread t = Thread.currentThread();
+                t.getUncaughtExceptionHandler().uncaughtException(t, e);
+            }
+        }, initialDelay, period, unit);
+    }
+
+    /**
+     * @return the scheduler driving this simulation
+     */
+    public SimulationScheduler getScheduler() {
+        return scheduler;
+    }
+
     /**
      * @return {@code true} if the simulation is paused, otherwise {@code false}
      */
@@ -71,236 +341,1085 @@ public class GenSituationClass {
     }
 
     /**
-     * @return a map of active fires in the simulation
+     * Returns the active fires as a live, thread-safe map view. Its values are views into the
+     * simulation's fire store, created as they are read; removing entries removes fires.
+     *
+     * @return a map of active fires in the simulation, keyed by ID
      */
     public Map<Integer, Fire> getActiveFires() {
-        return activeFires;
+        return activeFires.asMap();
     }
 
     /**
-     * @return a map of fire stations in the simulation
+     * @return a live, thread-safe map of fire stations in the simulation
      */
     public Map<Integer, FireStation> getFireStations() {
         return stations;
     }
 
     /**
+     * @return a copy of the parameters this simulation was created with
+     */
+    public SimulationConfig getConfig() {
+        return config.copy();
+    }
+
+    /**
+     * @return the optimizer used to assign trucks in each dispatch round, for tuning
+     */
+    public DispatchOptimizer getDispatchOptimizer() {
+        return dispatchOptimizer;
+    }
+
+    /**
+     * Makes trucks drive on a road network instead of in straight lines. Every station,
+     * including those opened later, gets a shortest-path tree over the network, and
+     * dispatch ranks stations by their travel time over the roads. Trucks already on the
+     * road finish their trips as planned.
+     *
+     * @param network the roads, or {@code null} to drive in straight lines again
+     */
+    public void setRoadNetwork(RoadNetwork network) {
+        RoadRouter r = network == null ? null : new RoadRouter(network, truckSpeed);
+        router = r;
+        if (r != null) {
+            for (FireStation st : stations.values()) {
+                r.addStation(st);
+            }
+        }
+        travelModel = r != null ? r : TravelModel.straightLine(truckSpeed);
+        dispatchOptimizer.setTravelModel(travelModel);
+    }
+
+    /** @return the roads trucks drive on, or {@code null} if they drive in straight lines */
+    public RoadNetwork getRoadNetwork() {
+        RoadRouter r = router;
+        return r == null ? null : r.getNetwork();
+    }
+
+    /**
+     * Selects how crews are sized and timed for subsequent dispatches.
+     *
+     * @param policy the crew policy to use
+     */
+    public void setCrewPolicy(CrewPolicy policy) {
+        this.crewPolicy = policy;
+    }
+
+    /** @return the crew policy used for new dispatches */
+    public CrewPolicy getCrewPolicy() {
+        return crewPolicy;
+    }
+
+    /**
+     * Selects where subsequent fire stations open.
+     *
+     * @param placement the station placement to use
+     */
+    public void setStationPlacement(StationPlacement placement) {
+        this.stationPlacement = placement;
+    }
+
+    /** @return where new fire stations open */
+    public StationPlacement getStationPlacement() {
+        return stationPlacement;
+    }
+
+    /**
+     * Measures how quickly the open stations reach the places fires have started,
+     * weighted towards recent fires.
+     *
+     * @return the coverage, or {@code null} if no station is open or no fire has started
+     */
+    StationPlacer.Coverage getCoverage() {
+        return stationPlacer.evaluate(scheduler.currentTimeMillis(), travelModel, config.getCoverageSeconds());
+    }
+
+    /**
+     * Selects how fires spread. Switching to {@link SpreadModel#GRID} ignites every
+     * active fire on the grid with an area matching its severity; switching back leaves
+     * fires at their current severity.
+     *
+     * @param model the spread model to use
+     */
+    public synchronized void setSpreadModel(SpreadModel model) {
+        if (model == spreadModel) return;
+        if (model == SpreadModel.GRID) {
+            FireGrid grid = getFireGrid();
+            activeFires.forEach(f -> {
+                if (grid.burningCells(f.getID()) == 0) {
+                    grid.ignite(f.getID(), f.getX(), f.getY(), f.getSeverity() - 1);
+                }
+            });
+        }
+        this.spreadModel = model;
+    }
+
+    /** @return the model used to spread fires */
+    public SpreadModel getSpreadModel() {
+        return spreadModel;
+    }
+
+    /**
+     * Returns the fuel grid used by {@link SpreadModel#GRID}, creating it on first use
+     * so that simulations using the scatter model do not pay for its memory.
+     *
+     * @return the fire grid
+     */
+    public FireGrid getFireGrid() {
+        FireGrid grid = fireGrid;
+        if (grid == null) {
+            synchronized (this) {
+                grid = fireGrid;
+                if (grid == null) {
+                    grid = new FireGrid(config.getMinX(), config.getMinY(), config.getMaxX(), config.getMaxY(),
+                            config.getGridCellSize(), gridSeed);
+                    grid.setSpreadProbability(config.getSpreadProbability());
+                    fireGrid = grid;
+                }
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * @return the live counters, gauges and latency histograms of this simulation
+     */
+    public SimulationMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return throughput and response-time statistics for comparing dispatch policies
+     */
+    public DispatchStats getDispatchStats() {
+        return stats;
+    }
+
+    /**
+     * Returns the most recently published snapshot of the world.
+     * This never blocks and never allocates; the returned frame is immutable.
+     *
+     * @return the latest world snapshot
+     */
+    public WorldSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Returns the trucks currently on the road or at a fire. The list is a copy built from
+     * the lifecycle manager's records; readers that run every frame should prefer
+     * {@link #getSnapshot()}.
+     *
      * @return a list of moving fire trucks for animation purposes
      */
     public List<MovingTruck> getMovingTrucks() {
-        synchronized (movingTrucks) {
-            return new ArrayList<>(movingTrucks);
+        WorldSnapshot snap = buildTruckFrame();
+        List<MovingTruck> result = new ArrayList<>(snap.truckCount());
+        for (int i = 0; i < snap.truckCount(); i++) {
+            result.add(new MovingTruck(snap.truckStationIds[i], snap.truckFireIds[i],
+                    snap.truckStartX[i], snap.truckStartY[i], snap.truckDestX[i], snap.truckDestY[i],
+                    snap.truckDuration[i], snap.truckState(i), snap.truckStartTime[i], scheduler::currentTimeMillis,
+                    snap.truckRoute(i)));
+        }
+        return result;
+    }
+
+    /**
+     * @return a snapshot holding only the trucks currently on the road
+     */
+    private WorldSnapshot buildTruckFrame() {
+        WorldSnapshot empty = WorldSnapshot.EMPTY;
+        int capacity = trucks.activeCount();
+        int[] truckStationIds = new int[capacity];
+        int[] truckFireIds = new int[capacity];
+        float[] startX = new float[capacity];
+        float[] startY = new float[capacity];
+        float[] destX = new float[capacity];
+        float[] destY = new float[capacity];
+        long[] startTime = new long[capacity];
+        long[] duration = new long[capacity];
+        byte[] state = new byte[capacity];
+        Route[] routes = router != null ? new Route[capacity] : null;
+        int n = trucks.copyTo(truckStationIds, truckFireIds, startX, startY, destX, destY, startTime, duration, state,
+                routes);
+        if (n < capacity) {
+            truckStationIds = Arrays.copyOf(truckStationIds, n);
+            truckFireIds = Arrays.copyOf(truckFireIds, n);
+            startX = Arrays.copyOf(startX, n);
+            startY = Arrays.copyOf(startY, n);
+            destX = Arrays.copyOf(destX, n);
+            destY = Arrays.copyOf(destY, n);
+            startTime = Arrays.copyOf(startTime, n);
+            duration = Arrays.copyOf(duration, n);
+            state = Arrays.copyOf(state, n);
+            if (routes != null) routes = Arrays.copyOf(routes, n);
+        }
+        return new WorldSnapshot(0, scheduler.currentTimeMillis(),
+                empty.fireIds, empty.fireX, empty.fireY, empty.fireSeverity, empty.fireTime,
+                empty.stationIds, empty.stationX, empty.stationY, empty.stationTrucks,
+                truckStationIds, truckFireIds, startX, startY, destX, destY, startTime, duration, state, routes);
+    }
+
+    // ================= World Snapshots =================
+
+    /**
+     * Periodically publishes a new world snapshot whenever the world has changed.
+     *
+     * @param periodMs the publishing interval in milliseconds
+     */
+    public void startSnapshotPublisher(long periodMs) {
+        if (clock == null) {
+            every(this::publishSnapshot, 0, periodMs, TimeUnit.MILLISECONDS);
+            return;
         }
+        // When fast-forwarding, publish at most once per period of wall time; viewers
+        // cannot see more, and building a snapshot per simulated period would not keep up
+        long periodNanos = TimeUnit.MILLISECONDS.toNanos(periodMs);
+        long[] lastPublish = {System.nanoTime() - periodNanos};
+        every(() -> {
+            long wall = System.nanoTime();
+            if (clock.getSpeed() <= 1 || wall - lastPublish[0] >= periodNanos) {
+                lastPublish[0] = wall;
+                publishSnapshot();
+            }
+        }, 0, periodMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Records that the world has changed, so the next publish builds a new snapshot.
+     */
+    private void markChanged() {
+        worldVersion.incrementAndGet();
+    }
+
+    /**
+     * Builds and publishes a snapshot of the current world if anything changed
+     * since the last one. Safe to call from any thread.
+     */
+    public synchronized void publishSnapshot() {
+        long version = worldVersion.get();
+        if (version == snapshot.getVersion() && snapshot != WorldSnapshot.EMPTY) return;
+
+        int capacity = activeFires.size();
+        int[] fireIds = new int[capacity];
+        float[] fireX = new float[capacity];
+        float[] fireY = new float[capacity];
+        byte[] fireSeverity = new byte[capacity];
+        long[] fireTime = new long[capacity];
+        // Fires added after sizing show up in the next frame
+        int n = activeFires.copyTo(fireIds, fireX, fireY, fireSeverity, fireTime);
+        if (n < capacity) {
+            fireIds = Arrays.copyOf(fireIds, n);
+            fireX = Arrays.copyOf(fireX, n);
+            fireY = Arrays.copyOf(fireY, n);
+            fireSeverity = Arrays.copyOf(fireSeverity, n);
+            fireTime = Arrays.copyOf(fireTime, n);
+        }
+
+        n = 0;
+        capacity = stations.size();
+        int[] stationIds = new int[capacity];
+        float[] stationX = new float[capacity];
+        float[] stationY = new float[capacity];
+        int[] stationTrucks = new int[capacity];
+        for (FireStation st : stations.values()) {
+            if (n == capacity) break;
+            stationIds[n] = st.getID();
+            stationX[n] = st.getX();
+            stationY[n] = st.getY();
+            stationTrucks[n] = st.getTrucks();
+            n++;
+        }
+        if (n < capacity) {
+            stationIds = Arrays.copyOf(stationIds, n);
+            stationX = Arrays.copyOf(stationX, n);
+            stationY = Arrays.copyOf(stationY, n);
+            stationTrucks = Arrays.copyOf(stationTrucks, n);
+        }
+
+        WorldSnapshot truckFrame = buildTruckFrame();
+
+        snapshot = new WorldSnapshot(version, scheduler.currentTimeMillis(),
+                fireIds, fireX, fireY, fireSeverity, fireTime,
+                stationIds, stationX, stationY, stationTrucks,
+                truckFrame.truckStationIds, truckFrame.truckFireIds,
+                truckFrame.truckStartX, truckFrame.truckStartY, truckFrame.truckDestX, truckFrame.truckDestY,
+                truckFrame.truckStartTime, truckFrame.truckDuration, truckFrame.truckState, truckFrame.truckRoutes);
     }
 
     // ================= Fire Station Spawning =================
 
     /**
-     * Periodically spawns a new fire station at a random location every 30 seconds.
+     * Periodically spawns a new fire station, every 30 seconds by default, and samples how
+     * well the stations cover the fire density. Stations open at a random location, or under
+     * {@link StationPlacement#DENSITY} where the {@link StationPlacer} puts them.
      */
     private void startStationSpawner() {
-        scheduler.scheduleAtFixedRate(() -> {
+        every(() -> {
             if (!paused) {
-                Random r = new Random();
-                float x = r.nextInt(2000) - 1000;
-                float y = r.nextInt(2000) - 1000;
-                int trucks = r.nextInt(5) + 1; // 1 to 5 trucks
-                FireStation st = new FireStation(x, y, trucks);
-                stations.put(st.getID(), st);
-                if (eventLogger != null) {
-                    eventLogger.log("New station: ID " + st.getID() + " at (" + x + ", " + y + "), trucks=" + trucks);
+                // Drawn in every mode so the random sequence does not depend on placement
+                float x = randomX();
+                float y = randomY();
+                int trucks = config.getMinStationTrucks()
+                        + random.nextInt(config.getMaxStationTrucks() - config.getMinStationTrucks() + 1);
+                if (stationPlacement == StationPlacement.DENSITY) {
+                    float[] placed = stationPlacer.place(scheduler.currentTimeMillis());
+                    if (placed != null) {
+                        x = placed[0];
+                        y = placed[1];
+                    }
                 }
+                addStation(x, y, trucks);
+                StationPlacer.Coverage c = getCoverage();
+                if (c != null) stats.recordCoverage(c.expectedTravelSeconds, c.withinTarget);
             }
-        }, 0, 30, TimeUnit.SECONDS);
+        }, 0, config.getStationSpawnSeconds(), TimeUnit.SECONDS);
+    }
+
+    /**
+     * Opens a fire station at the given location.
+     *
+     * @param x      the station's x-coordinate
+     * @param y      the station's y-coordinate
+     * @param trucks the number of trucks it starts with
+     * @return the new station
+     */
+    FireStation addStation(float x, float y, int trucks) {
+        FireStation st = new FireStation(nextStationId.incrementAndGet(), x, y, trucks);
+        stations.put(st.getID(), st);
+        RoadRouter r = router;
+        if (r != null) r.addStation(st);
+        stationIndex.insert(st);
+        metrics.stationOpened(st.getID(), trucks);
+        stats.recordStationOpened(trucks, scheduler.currentTimeMillis());
+        markChanged();
+        EventLogger logger = eventLogger;
+        if (logger != null) {
+            logger.event(event().stationSpawned(scheduler.currentTimeMillis(), st.getID(), x, y, trucks));
+        }
+        trucksAvailable(st);
+        return st;
     }
 
     // ================= Fire Spawning =================
 
     /**
-     * Periodically spawns a new fire at a random location every 10 seconds.
+     * Periodically spawns a new fire at a random location, every 10 seconds by default.
      */
     private void startFireSpawner() {
-        scheduler.scheduleAtFixedRate(() -> {
+        every(() -> {
             if (!paused) {
                 generateFire();
             }
-        }, 0, 10, TimeUnit.SECONDS);
+        }, 0, config.getFireSpawnSeconds(), TimeUnit.SECONDS);
+    }
+
+    /**
+     * @return a random whole-number x-coordinate within the world bounds
+     */
+    private float randomX() {
+        return config.getMinX() + random.nextInt(Math.max(1, (int) (config.getMaxX() - config.getMinX())));
+    }
+
+    /**
+     * @return a random whole-number y-coordinate within the world bounds
+     */
+    private float randomY() {
+        return config.getMinY() + random.nextInt(Math.max(1, (int) (config.getMaxY() - config.getMinY())));
     }
 
     /**
      * Generates a fire at a random location with a random severity.
      */
     public void generateFire() {
-        Random r = new Random();
-        int x = r.nextInt(2000) - 1000;
-        int y = r.nextInt(2000) - 1000;
-        int sev = r.nextInt(10) + 1; // Severity 1 to 10
-        LocalDateTime now = LocalDateTime.now();
-        Fire f = new Fire(x, y, sev, now);
-        activeFires.put(f.getID(), f);
-        if (eventLogger != null) {
-            eventLogger.log("New Fire: ID " + f.getID() + " at (" + x + ", " + y + "), severity=" + sev);
+        int x = (int) randomX();
+        int y = (int) randomY();
+        int sev = random.nextInt(10) + 1; // Severity 1 to 10
+        igniteFire(x, y, sev);
+    }
+
+    /**
+     * Starts a fire at the given location. Under the grid model nothing happens if the
+     * location is already burning or has no fuel.
+     *
+     * @param x   the fire's x-coordinate
+     * @param y   the fire's y-coordinate
+     * @param sev the fire's severity, 1 to 10
+     * @return the new fire, or {@code null} if none was started
+     */
+    Fire igniteFire(int x, int y, int sev) {
+        int id;
+        if (spreadModel == SpreadModel.GRID) {
+            FireGrid grid = getFireGrid();
+            // A fire starting inside a burning area is part of that fire already
+            if (grid.fireAt(x, y) != 0) return null;
+            id = nextFireId.incrementAndGet();
+            // Nothing burns on bare ground
+            if (grid.ignite(id, x, y, sev - 1) == 0) return null;
+        } else {
+            id = nextFireId.incrementAndGet();
         }
+        int slot = activeFires.add(id, x, y, sev, scheduler.currentTimeMillis());
+        dispatchQueue.offer(id, sev, scheduler.currentTimeMillis());
+        fireDensity.record(x, y, scheduler.currentTimeMillis());
+        firesSpawned.increment();
+        markChanged();
+        EventLogger logger = eventLogger;
+        if (logger != null) {
+            logger.event(event().fireSpawned(scheduler.currentTimeMillis(), id, 0, x, y, sev));
+        }
+        return new Fire(activeFires, slot, id);
     }
 
     // ================= Fire Spread Simulation =================
 
     /**
-     * Periodically spreads active fires and creates new nearby fires.
+     * Periodically spreads active fires: every 20 seconds (by default) under the scatter model and
+     * every second under the grid model.
      */
     public void startFireTimer() {
-        scheduler.scheduleAtFixedRate(() -> {
-            if (paused || activeFires.isEmpty()) return;
-            Random rand = new Random();
-            for (Fire f : new ArrayList<>(activeFires.values())) {
-                f.spreadFire();
-                if (eventLogger != null) {
-                    eventLogger.log("Fire ID " + f.getID() + " is spreading, severity=" + f.getSeverity());
+        every(() -> {
+            if (!paused && spreadModel == SpreadModel.GRID) spreadGrid();
+        }, 1, 1, TimeUnit.SECONDS);
+        every(() -> {
+            if (!paused && spreadModel == SpreadModel.SCATTER && !activeFires.isEmpty()) spreadScatter();
+        }, config.getScatterSpreadSeconds(), config.getScatterSpreadSeconds(), TimeUnit.SECONDS);
+    }
+
+    /**
+     * Raises the severity of every active fire at random and starts new fires near
+     * some of them.
+     */
+    void spreadScatter() {
+        // New fires are staged so they only start spreading on the next tick
+        EventLogger logger = eventLogger;
+        long time = scheduler.currentTimeMillis();
+        int firstSpawned = nextFireId.get() + 1;
+        activeFires.forEach(f -> {
+            int before = f.getSeverity();
+            f.spreadFire(random.nextDouble());
+            if (f.getSeverity() != before) requeue(f);
+            if (logger != null) {
+                logger.event(event().fireSpread(time, f.getID(), f.getSeverity()));
+            }
+            if (random.nextDouble() < config.getSpreadProbability()) {
+                spawnNearbyFire(f);
+            }
+        });
+        activeFires.addAll(spawnedFires);
+        // Queue the new fires only once they are active, so the queue never holds a staged one
+        for (int id = firstSpawned, last = nextFireId.get(); id <= last; id++) {
+            Fire f = activeFires.get(id);
+            if (f != null) requeue(f);
+        }
+        markChanged();
+    }
+
+    /**
+     * Advances the fire grid by one tick, then drops fires that merged into others or
+     * burned out and updates the severity of the rest from their burning area.
+     */
+    void spreadGrid() {
+        FireGrid grid = getFireGrid();
+        grid.tick(random);
+        EventLogger logger = eventLogger;
+        long time = scheduler.currentTimeMillis();
+        grid.drainMerges((absorbed, survivor) -> {
+            if (activeFires.remove(absorbed)) {
+                dispatchQueue.remove(absorbed);
+                handOver(absorbed, survivor);
+                firesMerged.increment();
+                if (logger != null) {
+                    logger.event(event().fireMerged(time, absorbed, survivor));
                 }
-                if (rand.nextDouble() < 0.3) {
-                    spawnNearbyFire(f);
+            }
+        });
+        activeFires.forEach(f -> {
+            int sev = FireGrid.severityOf(grid.burningCells(f.getID()));
+            if (sev == 0) {
+                if (activeFires.remove(f.getID())) {
+                    fireOut(f.getID());
+                    firesBurnedOut.increment();
+                    if (logger != null) {
+                        logger.event(event().fireExtinguished(time, f.getID(), 0));
+                    }
+                }
+            } else if (sev != f.getSeverity()) {
+                f.updateSeverity(sev);
+                requeue(f);
+                if (logger != null) {
+                    logger.event(event().fireSpread(time, f.getID(), sev));
                 }
             }
-        }, 20, 20, TimeUnit.SECONDS);
+        });
+        markChanged();
     }
 
     /**
-     * Creates a new fire near an existing fire.
+     * Creates a new fire near an existing fire and stages it in {@link #spawnedFires}.
+     * The caller is responsible for moving it to the active fires.
      *
      * @param oldFire the fire from which a new fire is spreading
      */
     private void spawnNearbyFire(Fire oldFire) {
-        Random rand = new Random();
-        int nx = (int)oldFire.getX() + rand.nextInt(101) - 50;
-        int ny = (int)oldFire.getY() + rand.nextInt(101) - 50;
+        int nx = (int)oldFire.getX() + random.nextInt(101) - 50;
+        int ny = (int)oldFire.getY() + random.nextInt(101) - 50;
         int newSev = Math.max(1, oldFire.getSeverity() - 1);
-        Fire nf = new Fire(nx, ny, newSev, LocalDateTime.now());
-        activeFires.put(nf.getID(), nf);
-        if (eventLogger != null) {
-            eventLogger.log("Fire spread -> new Fire ID " + nf.getID() + " at (" + nx + ", " + ny + ")");
+        int id = nextFireId.incrementAndGet();
+        spawnedFires.add(id, nx, ny, newSev, scheduler.currentTimeMillis());
+        fireDensity.record(nx, ny, scheduler.currentTimeMillis());
+        firesSpawned.increment();
+        EventLogger logger = eventLogger;
+        if (logger != null) {
+            logger.event(event().fireSpawned(scheduler.currentTimeMillis(), id, oldFire.getID(), nx, ny, newSev));
         }
     }
 
     // ================= Fire Truck Deployment =================
 
     /**
-     * Periodically deploys fire trucks to active fires every 15 seconds.
+     * Periodically deploys fire trucks to active fires, every 15 seconds by default.
+     * Each round assigns all available trucks to all active fires at once
+     * through the {@link DispatchOptimizer}.
      */
     private void startAutoDeploy() {
-        scheduler.scheduleAtFixedRate(() -> {
+        every(() -> {
             if (!paused && !activeFires.isEmpty()) {
-                for (Fire f : new ArrayList<>(activeFires.values())) {
-                    deploySingleTruck(f);
+                deployRound();
+            }
+        }, 5, config.getDispatchSeconds(), TimeUnit.SECONDS);
+    }
+
+    /**
+     * Runs one batch dispatch round over every active fire. Each fire gets a crew
+     * sized by its severity, possibly drawn from several stations.
+     */
+    void deployRound() {
+        dispatchRounds.increment();
+        // Copies, so fires going out on another thread cannot fail the round halfway
+        List<DispatchOptimizer.Assignment> plan = dispatchOptimizer.assign(
+                activeFires.copyList(), stations.values(), stationIndex, this::trucksRequired);
+
+        // Group the planned trucks by fire and then by station, keeping plan order
+        Map<Fire, Map<FireStation, Integer>> crews = new LinkedHashMap<>();
+        for (DispatchOptimizer.Assignment a : plan) {
+            crews.computeIfAbsent(a.getFire(), f -> new LinkedHashMap<>())
+                    .merge(a.getStation(), 1, Integer::sum);
+        }
+        for (Map.Entry<Fire, Map<FireStation, Integer>> e : crews.entrySet()) {
+            List<FireStation> crew = new ArrayList<>();
+            for (Map.Entry<FireStation, Integer> planned : e.getValue().entrySet()) {
+                FireStation st = planned.getKey();
+                int sent = planned.getValue() - st.deployTruck(planned.getValue());
+                for (int i = 0; i < sent; i++) {
+                    crew.add(st);
                 }
             }
-        }, 5, 15, TimeUnit.SECONDS);
+            launchCrew(e.getKey(), crew);
+        }
     }
 
     /**
-     * Finds the nearest fire station to a given fire.
+     * Finds the fire station with a truck available that reaches a given fire soonest;
+     * without a road network, that is the nearest one.
      *
      * @param fire the fire that needs a fire truck
-     * @return the nearest fire station, or {@code null} if none exist
+     * @return the fastest deployable fire station, or {@code null} if none exist
      */
-    private FireStation findNearestStation(Fire fire) {
-        FireStation nearest = null;
-        double minDist = Double.MAX_VALUE;
-        for (FireStation st : stations.values()) {
-            double d = st.calculateDistance(fire.getX(), fire.getY());
-            if (d < minDist) {
-                minDist = d;
-                nearest = st;
-            }
-        }
-        return nearest;
+    FireStation findNearestStation(Fire fire) {
+        List<FireStation> fastest = findNearestStations(fire, 1);
+        return fastest.isEmpty() ? null : fastest.get(0);
     }
 
     /**
-     * Deploys a fire truck to a specified fire.
+     * Finds up to {@code k} fire stations with a truck available that reach a fire soonest.
      *
-     * @param fire the fire that needs a truck
+     * @param fire the fire that needs fire trucks
+     * @param k    the maximum number of stations to return
+     * @return the fastest deployable stations, soonest first
      */
-    public void deploySingleTruck(Fire fire) {
-        // If the fire is already gone, skip
-        if (!activeFires.containsKey(fire.getID())) return;
+    List<FireStation> findNearestStations(Fire fire, int k) {
+        return travelModel.fastest(stationIndex, fire.getX(), fire.getY(), k, FireStation::canDeploy);
+    }
 
-        // Find the nearest station
-        FireStation st = findNearestStation(fire);
-        if (st == null) return; // no stations
-        if (!st.canDeploy()) return; // no trucks
+    /**
+     * Works out how many more trucks a fire needs: the crew size its severity calls for
+     * under the truck timing model, minus trucks already heading there or working it.
+     * A fire whose crew will put it out before another truck could arrive needs none.
+     *
+     * @param fire the fire to respond to
+     * @return the number of trucks to send, possibly zero
+     */
+    int trucksRequired(Fire fire) {
+        int crewSize = crewSize(fire);
+        FireCoverage cov = coverage.get(fire.getID());
+        return cov == null ? crewSize : cov.shortfall(crewSize);
+    }
 
-        st.deployTruck(1); // send exactly 1 truck
-        if (eventLogger != null) {
-            eventLogger.log("Station " + st.getID() + " sends 1 truck to Fire " + fire.getID());
-        }
-
-        // Calculate travel time
-        double distance = st.calculateDistance(fire.getX(), fire.getY());
-        double travelTimeSec = Math.max(distance / TRUCK_SPEED, 3); // min 3s
-        long travelMs = (long)(travelTimeSec * 1000);
-
-        // Create a moving truck to animate
-        MovingTruck mt = new MovingTruck(
-                st.getID(), fire.getID(),
-                st.getX(), st.getY(),
-                fire.getX(), fire.getY(),
-                travelMs,
-                MovingTruck.State.TO_FIRE
-        );
-        synchronized (movingTrucks) {
-            movingTrucks.add(mt);
-        }
-
-        // Schedule arrival
-        scheduler.schedule(() -> {
-            // Truck arrived at fire
-            synchronized (movingTrucks) {
-                mt.setState(MovingTruck.State.EXTINGUISHING);
+    /**
+     * @param fire a fire
+     * @return the crew size the fire's severity calls for under the current crew policy
+     */
+    private int crewSize(Fire fire) {
+        if (crewPolicy == CrewPolicy.SINGLE_TRUCK) return 1;
+        int wanted = truckModel.trucksRequired(fire);
+        if (wanted == 1) return 1;
+        // Extra trucks add travel but no work, so they only go once every fire waiting for
+        // its first truck can have a share of the idle fleet
+        long waiting = Math.max(1, activeFires.size() - coverage.size());
+        long share = stats.getTrucksIdle() / waiting;
+        return (int) Math.max(1, Math.min(wanted, share));
+    }
+
+    /**
+     * Deploys as many fire trucks as the fire's severity requires, starting with the
+     * nearest station and moving on to the next-nearest ones whenever a station
+     * cannot cover the whole requirement. A fire left short of trucks waits in the
+     * dispatch queue until a truck returns or a station opens.
+     *
+     * @param target the fire that needs trucks
+     */
+    public void deploySingleTruck(Fire target) {
+        Fire fire = activeFires.copy(target.getID());
+        if (fire == null) return;
+        int needed = trucksRequired(fire);
+        List<FireStation> crew = new ArrayList<>();
+        while (needed > 0) {
+            List<FireStation> nearest = findNearestStations(fire, needed);
+            if (nearest.isEmpty()) break; // no stations with trucks
+            for (FireStation st : nearest) {
+                if (needed == 0) break;
+                int shortfall = st.deployTruck(needed);
+                for (int i = needed - shortfall; i > 0; i--) {
+                    crew.add(st);
+                }
+                needed = shortfall;
             }
-            if (eventLogger != null) {
-                eventLogger.log("Truck arrived at Fire " + fire.getID() + " -> extinguishing...");
+        }
+        launchCrew(fire, crew);
+        if (needed > 0 && activeFires.contains(fire.getID())) {
+            dispatchQueue.offer(fire.getID(), fire.getSeverity(), scheduler.currentTimeMillis());
+        } else {
+            dispatchQueue.remove(fire.getID());
+        }
+    }
+
+    /**
+     * Sends trucks to the fires in the dispatch queue, most urgent first, until the queue
+     * is empty or no station has a truck left. Runs whenever trucks become available, so
+     * waiting fires do not have to wait for the next dispatch round.
+     */
+    private void serveQueue() {
+        if (paused) return;
+        for (int id; (id = dispatchQueue.peek()) != FireStore.NO_FIRE; ) {
+            Fire fire = activeFires.get(id);
+            if (fire == null) {
+                dispatchQueue.remove(id);
+                continue;
             }
+            deploySingleTruck(fire);
+            // A fire still short of trucks means every station is empty
+            if (dispatchQueue.contains(id)) return;
+        }
+    }
 
-            // Extinguish for 5s
-            long extinguishMs = 5000;
-            scheduler.schedule(() -> {
-                // Remove the fire
-                activeFires.remove(fire.getID());
-                if (eventLogger != null) {
-                    eventLogger.log("Fire " + fire.getID() + " extinguished -> truck returning to station " + st.getID());
+    /**
+     * Puts a station's free trucks to use: first on fires waiting in the dispatch queue,
+     * then in place of trucks still on their way to a fire that a truck from this station
+     * would reach sooner.
+     *
+     * @param st a station that has just gained trucks
+     */
+    private void trucksAvailable(FireStation st) {
+        serveQueue();
+        if (paused || !st.canDeploy()) return;
+        RoadRouter r = router;
+        // No truck covers more than this many units per millisecond, on or off the roads
+        double topSpeed = truckSpeed * (r != null ? Math.max(1, r.getNetwork().maxSpeedFactor()) : 1) / 1000;
+        while (st.canDeploy()) {
+            long now = scheduler.currentTimeMillis();
+            long latest = trucks.latestArrival();
+            if (latest < now + REASSIGN_GAIN_MS) return;
+            int truck, fromStation, fireId;
+            float x, y;
+            long arrival, travel;
+            synchronized (enRoute) {
+                EnRouteBuffer b = enRoute;
+                b.ensure(trucks.activeCount());
+                // Only a truck still this far out can be beaten by REASSIGN_GAIN_MS, so look no
+                // further from the station than that (plus a millisecond for rounding)
+                int n = trucks.copyEnRouteNear(st.getX(), st.getY(), reach(topSpeed, latest - now),
+                        b.truck, b.station, b.fire, b.x, b.y, b.arrival);
+                int best = -1;
+                long bestGain = REASSIGN_GAIN_MS - 1;
+                long bestTravel = 0;
+                for (int i = 0; i < n; i++) {
+                    if (b.station[i] == st.getID()) continue;
+                    if (st.calculateDistance(b.x[i], b.y[i]) > reach(topSpeed, b.arrival[i] - now)) continue;
+                    long t = travelMillis(st, b.x[i], b.y[i]);
+                    long gain = b.arrival[i] - (now + t);
+                    // Ties go to the lowest truck number, whatever order the trucks were found in
+                    if (gain > bestGain || gain == bestGain && best >= 0 && b.truck[i] < b.truck[best]) {
+                        best = i;
+                        bestGain = gain;
+                        bestTravel = t;
+                    }
                 }
+                if (best < 0) return;
+                truck = b.truck[best];
+                fromStation = b.station[best];
+                fireId = b.fire[best];
+                x = b.x[best];
+                y = b.y[best];
+                arrival = b.arrival[best];
+                travel = bestTravel;
+            }
+            if (!reassign(st, truck, fromStation, fireId, x, y, arrival, travel)) return;
+        }
+    }
 
-                // Move truck from the map
-                synchronized (movingTrucks) {
-                    movingTrucks.remove(mt);
-                }
+    /**
+     * @param topSpeed the fastest a truck drives, in units per millisecond
+     * @param window   how long until the truck being replaced arrives, in milliseconds
+     * @return how far from a station a fire can be for its truck to arrive at least
+     *         {@link #REASSIGN_GAIN_MS} sooner
+     */
+    private static double reach(double topSpeed, long window) {
+        return topSpeed * (window - REASSIGN_GAIN_MS + 2);
+    }
+
+    /**
+     * Scratch arrays for the trucks on their way to fires, reused across calls and grown as
+     * the fleet on the road grows.
+     */
+    private static final class EnRouteBuffer {
+        int[] truck = new int[0], station = new int[0], fire = new int[0];
+        float[] x = new float[0], y = new float[0];
+        long[] arrival = new long[0];
 
-                // Create a new truck object for returning
-                MovingTruck returningTruck = new MovingTruck(
-                        st.getID(), fire.getID(),
-                        fire.getX(), fire.getY(),
-                        st.getX(), st.getY(),
-                        travelMs,
-                        MovingTruck.State.RETURNING
-                );
-                synchronized (movingTrucks) {
-                    movingTrucks.add(returningTruck);
+        void ensure(int n) {
+            if (truck.length >= n) return;
+            int size = Math.max(n, truck.length * 2);
+            truck = new int[size];
+            station = new int[size];
+            fire = new int[size];
+            x = new float[size];
+            y = new float[size];
+            arrival = new long[size];
+        }
+    }
+
+    /**
+     * Sends a truck from a station to take over from a truck on its way to a fire, which
+     * turns back, and moves the crew's finish time to match.
+     *
+     * @param st         the station sending the new truck
+     * @param oldTruck   the number of the truck being replaced
+     * @param oldStation the station the replaced truck belongs to
+     * @param fireId     the fire
+     * @param x          the x-coordinate the replaced truck was heading to
+     * @param y          the y-coordinate the replaced truck was heading to
+     * @param oldArrival when the replaced truck would have arrived
+     * @param travelMs   the new truck's travel time
+     * @return {@code false} if nothing changed
+     */
+    private boolean reassign(FireStation st, int oldTruck, int oldStation, int fireId, float x, float y,
+                             long oldArrival, long travelMs) {
+        Fire fire = activeFires.copy(fireId);
+        FireCoverage cov = coverage.get(fireId);
+        if (fire == null || cov == null || st.deployTruck(1) > 0) return false;
+        if (!trucks.recallTruck(oldTruck, oldStation, fireId)) {
+            st.retrieveTruck(1);
+            return false;
+        }
+        long arrival = scheduler.currentTimeMillis() + travelMs;
+        long doneAt;
+        synchronized (cov) {
+            cov.replace(oldArrival, arrival);
+            doneAt = crewFinishTime(fire, cov.arrivals());
+            cov.setDoneAt(doneAt);
+        }
+        trucks.retime(fireId, doneAt);
+        stats.recordDispatch(1);
+        stats.recordReassignment();
+        trucksReassigned.increment();
+        sendTruck(st, fireId, x, y, travelMs, doneAt - arrival);
+        return true;
+    }
+
+    /**
+     * Updates a fire's place in the dispatch queue after its severity changed, queueing it
+     * again if a bigger fire now needs more trucks than it has.
+     *
+     * @param fire the fire whose severity changed
+     */
+    private void requeue(Fire fire) {
+        if (trucksRequired(fire) > 0) {
+            dispatchQueue.offer(fire.getID(), fire.getSeverity(), scheduler.currentTimeMillis());
+        } else {
+            dispatchQueue.remove(fire.getID());
+        }
+    }
+
+    /**
+     * Sends a crew of trucks, already taken from their stations, to a fire.
+     * The extinguishing time comes from the {@link FireTruck} model for every truck
+     * assigned to the fire, including those sent earlier, whose finish time moves to
+     * match. Trucks that would only arrive once the fire is out go straight back to
+     * their stations.
+     *
+     * @param target the fire to respond to
+     * @param crew one entry per truck, naming the station it was taken from
+     */
+    private void launchCrew(Fire target, List<FireStation> crew) {
+        if (crew.isEmpty()) return;
+        // A copy stays readable if another thread puts the fire out while the crew is sent
+        Fire fire = activeFires.copy(target.getID());
+        if (fire == null) {
+            // The fire went out while the crew was being assembled
+            for (FireStation st : crew) {
+                st.retrieveTruck(1);
+            }
+            return;
+        }
+
+        long now = scheduler.currentTimeMillis();
+        long[] travelMs = new long[crew.size()];
+        for (int i = 0; i < crew.size(); i++) {
+            travelMs[i] = travelMillis(crew.get(i), fire.getX(), fire.getY());
+        }
+        FireCoverage cov = coverage.get(fire.getID());
+        boolean first = cov == null;
+        if (first) {
+            cov = new FireCoverage();
+            coverage.put(fire.getID(), cov);
+        }
+        boolean[] useful = new boolean[crew.size()];
+        int sent = 0;
+        long doneAt;
+        boolean retime;
+        synchronized (cov) {
+            long[] assigned = cov.arrivals();
+            long[] arrivals = Arrays.copyOf(assigned, assigned.length + crew.size());
+            for (int i = 0; i < crew.size(); i++) {
+                arrivals[assigned.length + i] = now + travelMs[i];
+            }
+            Arrays.sort(arrivals);
+            doneAt = crewFinishTime(fire, arrivals);
+            for (int i = 0; i < crew.size(); i++) {
+                long arrival = now + travelMs[i];
+                // The first truck always goes; later ones only if they can still help
+                useful[i] = arrival < doneAt || arrival == arrivals[0];
+                if (useful[i]) {
+                    cov.add(arrival);
+                    sent++;
                 }
+            }
+            if (sent < crew.size()) cov.markFull(crewSize(fire));
+            retime = assigned.length > 0 && sent > 0 && doneAt != cov.doneAt();
+            cov.setDoneAt(doneAt);
+        }
+        for (int i = 0; i < crew.size(); i++) {
+            if (!useful[i]) crew.get(i).retrieveTruck(1);
+        }
+        if (sent > 0) {
+            stats.recordDispatch(sent);
+            if (first) {
+                fireToDispatch.record(now - fire.getTimeMillis());
+            }
+            if (retime) trucks.retime(fire.getID(), doneAt);
+            for (int i = 0; i < crew.size(); i++) {
+                if (useful[i]) {
+                    sendTruck(crew.get(i), fire.getID(), fire.getX(), fire.getY(), travelMs[i],
+                            doneAt - (now + travelMs[i]));
+                }
+            }
+        }
+        if (trucksRequired(fire) == 0) dispatchQueue.remove(fire.getID());
+    }
 
-                // Once it returns
-                scheduler.schedule(() -> {
-                    synchronized (movingTrucks) {
-                        movingTrucks.remove(returningTruck);
-                    }
-                    st.retrieveTruck(1);
-                    if (eventLogger != null) {
-                        eventLogger.log("Truck returned to Station " + st.getID()
-                                + " -> station now has " + st.getTrucks() + " trucks");
-                    }
-                }, travelMs, TimeUnit.MILLISECONDS);
+    /**
+     * Hands the trucks of a fire that merged into another over to the surviving fire, and
+     * works out when the combined crew puts it out.
+     *
+     * @param absorbed the fire that merged
+     * @param survivor the fire it merged into
+     */
+    private void handOver(int absorbed, int survivor) {
+        FireCoverage from = coverage.remove(absorbed);
+        if (from == null) return;
+        Fire fire = activeFires.copy(survivor);
+        if (fire == null) {
+            recallCrew(absorbed);
+            return;
+        }
+        // Trucks keep driving to the same spot, which is now part of the survivor
+        if (trucks.retarget(absorbed, survivor) > 0) {
+            EventLogger logger = eventLogger;
+            if (logger != null) {
+                logger.event(event().trucksRetargeted(scheduler.currentTimeMillis(), absorbed, survivor));
+            }
+        }
+        FireCoverage to = coverage.computeIfAbsent(survivor, id -> new FireCoverage());
+        long doneAt;
+        synchronized (to) {
+            to.absorb(from);
+            doneAt = crewFinishTime(fire, to.arrivals());
+            to.setDoneAt(doneAt);
+        }
+        trucks.retime(survivor, doneAt);
+    }
+
+    /**
+     * Forgets a fire that has gone out and sends home any trucks still assigned to it.
+     *
+     * @param fireId the fire
+     * @return the fire's coverage, or {@code null} if no trucks were sent to it
+     */
+    private FireCoverage fireOut(int fireId) {
+        dispatchQueue.remove(fireId);
+        FireCoverage cov = coverage.remove(fireId);
+        if (cov != null) recallCrew(fireId);
+        return cov;
+    }
+
+    /**
+     * Turns back the trucks still on their way to a fire that has gone out, counting each
+     * as a wasted trip.
+     *
+     * @param fireId the fire
+     */
+    private void recallCrew(int fireId) {
+        int turned = trucks.recall(fireId);
+        for (int i = 0; i < turned; i++) {
+            stats.recordWastedTrip();
+            wastedTrips.increment();
+        }
+    }
+
+    /**
+     * Calculates when a crew puts a fire out. Work starts with the first truck to arrive
+     * and speeds up as more trucks join, at the rate the {@link FireTruck} model gives
+     * for the number of trucks on scene.
+     *
+     * @param fire     the fire being extinguished
+     * @param arrivals when each truck of the crew arrives, earliest first
+     * @return when the fire is out
+     */
+    private long crewFinishTime(Fire fire, long[] arrivals) {
+        double remaining = 1.0; // fraction of the fire still burning
+        for (int k = 1; k <= arrivals.length; k++) {
+            long start = arrivals[k - 1];
+            double fullMs = truckModel.calculateExtinguishingTime(fire, k) * 1000;
+            double neededMs = remaining * fullMs;
+            if (k == arrivals.length || start + neededMs <= arrivals[k]) {
+                return start + (long) Math.ceil(neededMs);
+            }
+            remaining -= (arrivals[k] - start) / fullMs;
+        }
+        return 0;
+    }
+
+    /**
+     * Calculates how long a truck takes to drive from a station to a point, over the roads
+     * if there is a road network.
+     *
+     * @param st the station
+     * @param x  the x-coordinate of the destination
+     * @param y  the y-coordinate of the destination
+     * @return the travel time in milliseconds, at least three seconds
+     */
+    private long travelMillis(FireStation st, float x, float y) {
+        double travelTimeSec = Math.max(travelModel.travelSeconds(st, x, y), 3); // min 3s
+        return (long) (travelTimeSec * 1000);
+    }
 
-            }, extinguishMs, TimeUnit.MILLISECONDS);
+    /**
+     * Puts one truck of a crew on the road; the lifecycle manager takes it from there.
+     *
+     * @param st           the station the truck belongs to
+     * @param fireId       the fire the truck is responding to
+     * @param x            the x-coordinate the truck drives to
+     * @param y            the y-coordinate the truck drives to
+     * @param travelMs     the travel time in each direction, in milliseconds
+     * @param extinguishMs how long the truck works at the fire after arriving
+     */
+    private void sendTruck(FireStation st, int fireId, float x, float y, long travelMs, long extinguishMs) {
+        EventLogger logger = eventLogger;
+        if (logger != null) {
+            logger.event(event().truckDispatched(scheduler.currentTimeMillis(), st.getID(), fireId, travelMs));
+        }
+        RoadRouter r = router;
+        Route route = r != null ? r.route(st, x, y) : null;
+        trucks.dispatch(st.getID(), fireId, st.getX(), st.getY(), x, y, route, travelMs, extinguishMs);
+        stats.recordTruckOut(scheduler.currentTimeMillis());
+        trucksDispatched.increment();
+        metrics.stationTrucksAway(st.getID(), 1);
+        markChanged();
+    }
+
+    // ================= Truck Lifecycle =================
 
-        }, travelMs, TimeUnit.MILLISECONDS);
+    @Override
+    public void truckArrived(int stationId, int fireId, long dispatchedAt) {
+        dispatchToArrival.record(scheduler.currentTimeMillis() - dispatchedAt);
+        markChanged();
+        FireCoverage cov = coverage.get(fireId);
+        if (cov != null && activeFires.contains(fireId)) {
+            cov.arrived(scheduler.currentTimeMillis());
+        } else {
+            stats.recordWastedTrip();
+            wastedTrips.increment();
+        }
+        EventLogger logger = eventLogger;
+        if (logger != null) {
+            logger.event(event().truckArrived(scheduler.currentTimeMillis(), stationId, fireId));
+        }
+    }
+
+    @Override
+    public void truckFinished(int stationId, int fireId) {
+        // Remove the fire once the crew has put it out
+        long started = activeFires.startTime(fireId);
+        if (started != Long.MIN_VALUE && activeFires.remove(fireId)) {
+            FireCoverage cov = fireOut(fireId);
+            FireGrid grid = fireGrid;
+            if (grid != null) grid.extinguish(fireId);
+            firesExtinguished.increment();
+            timeToExtinguish.record(scheduler.currentTimeMillis() - started);
+            long firstArrival = cov != null ? cov.firstArrival() : Long.MIN_VALUE;
+            long arrived = firstArrival != Long.MIN_VALUE ? firstArrival : scheduler.currentTimeMillis();
+            stats.recordCleared(arrived - started);
+            EventLogger logger = eventLogger;
+            if (logger != null) {
+                logger.event(event().fireExtinguished(scheduler.currentTimeMillis(), fireId, stationId));
+            }
+        }
+        markChanged();
+    }
+
+    @Override
+    public void truckReturned(int stationId, int fireId) {
+        metrics.stationTrucksAway(stationId, -1);
+        stats.recordTruckBack(scheduler.currentTimeMillis());
+        FireStation st = stations.get(stationId);
+        if (st == null) return;
+        st.retrieveTruck(1);
+        markChanged();
+        EventLogger logger = eventLogger;
+        if (logger != null) {
+            logger.event(event().truckReturned(scheduler.currentTimeMillis(), stationId, fireId, st.getTrucks()));
+        }
+        trucksAvailable(st);
+    }
+
+    @Override
+    public void truckRecalled(int stationId, int fireId, float x, float y, long returnMillis) {
+        markChanged();
+        EventLogger logger = eventLogger;
+        if (logger != null) {
+            logger.event(event().truckRecalled(scheduler.currentTimeMillis(), stationId, fireId, x, y, returnMillis));
+        }
     }
 }
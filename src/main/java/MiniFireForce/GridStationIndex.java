@@ -0,0 +1,134 @@
+package MiniFireForce;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Predicate;
+
+/**
+ * A {@link StationIndex} that buckets stations into a uniform grid over the world.
+ * Queries search rings of cells outward from the query point and stop as soon as
+ * no unvisited cell can contain a closer station than the ones already found.
+ * Each cell is a copy-on-write array, so queries never lock; inserts are rare
+ * and serialized.
+ */
+public class GridStationIndex implements StationIndex {
+    private final float minX;
+    private final float minY;
+    private final float cellSize;
+    private final int cols;
+    private final int rows;
+    private final AtomicReferenceArray<FireStation[]> cells;
+    private volatile int size;
+
+    /**
+     * Creates a grid index covering the default simulation world [-1000, 1000]
+     * with 100-unit cells.
+     */
+    public GridStationIndex() {
+        this(-1000, -1000, 1000, 1000, 100);
+    }
+
+    /**
+     * Creates a grid index covering the given bounds.
+     * Stations outside the bounds are stored in the nearest edge cell.
+     *
+     * @param minX     the lower x bound of the world
+     * @param minY     the lower y bound of the world
+     * @param maxX     the upper x bound of the world
+     * @param maxY     the upper y bound of the world
+     * @param cellSize the side length of each grid cell
+     */
+    public GridStationIndex(float minX, float minY, float maxX, float maxY, float cellSize) {
+        if (cellSize <= 0 || maxX <= minX || maxY <= minY) {
+            throw new IllegalArgumentException("Invalid grid bounds or cell size");
+        }
+        this.minX = minX;
+        this.minY = minY;
+        this.cellSize = cellSize;
+        this.cols = Math.max(1, (int) Math.ceil((maxX - minX) / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil((maxY - minY) / cellSize));
+        this.cells = new AtomicReferenceArray<>(cols * rows);
+    }
+
+    @Override
+    public synchronized void insert(FireStation station) {
+        int cell = cellIndex(column(station.getX()), row(station.getY()));
+        FireStation[] bucket = cells.get(cell);
+        FireStation[] grown = bucket == null ? new FireStation[1] : Arrays.copyOf(bucket, bucket.length + 1);
+        grown[grown.length - 1] = station;
+        cells.set(cell, grown);
+        size++;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public List<FireStation> kNearest(float x, float y, int k, Predicate<FireStation> filter) {
+        if (k <= 0 || size == 0) return new ArrayList<>();
+        KNearestBuffer best = new KNearestBuffer(k);
+
+        int cx = column(x);
+        int cy = row(y);
+        int maxRing = Math.max(Math.max(cx, cols - 1 - cx), Math.max(cy, rows - 1 - cy));
+        for (int r = 0; r <= maxRing; r++) {
+            for (int gy = cy - r; gy <= cy + r; gy++) {
+                if (gy < 0 || gy >= rows) continue;
+                boolean edgeRow = gy == cy - r || gy == cy + r;
+                int step = edgeRow ? 1 : 2 * r;
+                for (int gx = cx - r; gx <= cx + r; gx += Math.max(step, 1)) {
+                    if (gx >= 0 && gx < cols) {
+                        scanCell(cellIndex(gx, gy), x, y, filter, best);
+                    }
+                }
+            }
+            // Every station outside rings 0..r is at least this far from the query point
+            double reach = ringClearance(x, y, cx, cy, r);
+            if (best.isFull() && reach > 0 && reach * reach >= best.worst()) break;
+        }
+        return best.toList();
+    }
+
+    /**
+     * Offers every matching station in one cell to the result buffer.
+     */
+    private void scanCell(int cell, float x, float y, Predicate<FireStation> filter, KNearestBuffer best) {
+        FireStation[] bucket = cells.get(cell);
+        if (bucket == null) return;
+        for (FireStation st : bucket) {
+            if (!filter.test(st)) continue;
+            double dx = st.getX() - x;
+            double dy = st.getY() - y;
+            best.offer(st, dx * dx + dy * dy);
+        }
+    }
+
+    /**
+     * Distance from the query point to the border of the block of cells covered by rings 0..r.
+     */
+    private double ringClearance(float x, float y, int cx, int cy, int r) {
+        double left = x - (minX + (cx - r) * cellSize);
+        double right = (minX + (cx + r + 1) * cellSize) - x;
+        double bottom = y - (minY + (cy - r) * cellSize);
+        double top = (minY + (cy + r + 1) * cellSize) - y;
+        return Math.min(Math.min(left, right), Math.min(bottom, top));
+    }
+
+    private int column(float x) {
+        int c = (int) Math.floor((x - minX) / cellSize);
+        return Math.min(cols - 1, Math.max(0, c));
+    }
+
+    private int row(float y) {
+        int r = (int) Math.floor((y - minY) / cellSize);
+        return Math.min(rows - 1, Math.max(0, r));
+    }
+
+    private int cellIndex(int gx, int gy) {
+        return gy * cols + gx;
+    }
+}
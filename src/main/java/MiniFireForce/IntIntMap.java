@@ -0,0 +1,135 @@
+package MiniFireForce;
+
+import java.util.Arrays;
+
+/**
+ * An open-addressing hash map from {@code int} keys to {@code int} values, with linear
+ * probing and no boxing. Removal shifts later entries of a probe run back instead of
+ * leaving tombstones, so lookups stay short however many entries come and go.
+ * Not thread-safe.
+ */
+final class IntIntMap {
+    /** Returned by {@link #get} for a missing key. */
+    static final int MISSING = Integer.MIN_VALUE;
+
+    private int[] keys;
+    private int[] values;
+    private boolean[] used;
+    private int mask;
+    private int size;
+
+    /**
+     * Creates an empty map sized for the given number of entries.
+     *
+     * @param expected the number of entries to hold without resizing
+     */
+    IntIntMap(int expected) {
+        allocate(tableSizeFor(expected));
+    }
+
+    private static int tableSizeFor(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(4, expected * 2 - 1)) << 1;
+        return Math.max(8, capacity);
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+    }
+
+    private int slotOf(int key) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    /** @return the number of entries */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @param key the key to look up
+     * @return the value for the key, or {@link #MISSING}
+     */
+    int get(int key) {
+        for (int i = slotOf(key); used[i]; i = (i + 1) & mask) {
+            if (keys[i] == key) return values[i];
+        }
+        return MISSING;
+    }
+
+    /**
+     * Maps a key to a value, replacing any previous value.
+     *
+     * @param key   the key
+     * @param value the value; must not be {@link #MISSING}
+     */
+    void put(int key, int value) {
+        int i = slotOf(key);
+        for (; used[i]; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+        }
+        used[i] = true;
+        keys[i] = key;
+        values[i] = value;
+        if (++size * 2 > keys.length) rehash(keys.length * 2);
+    }
+
+    /**
+     * Removes a key.
+     *
+     * @param key the key to remove
+     * @return the value it had, or {@link #MISSING}
+     */
+    int remove(int key) {
+        int i = slotOf(key);
+        while (used[i] && keys[i] != key) i = (i + 1) & mask;
+        if (!used[i]) return MISSING;
+        int removed = values[i];
+        // Shift back any later entry of the run that would no longer be reachable
+        int gap = i;
+        for (int j = (i + 1) & mask; used[j]; j = (j + 1) & mask) {
+            int home = slotOf(keys[j]);
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                keys[gap] = keys[j];
+                values[gap] = values[j];
+                gap = j;
+            }
+        }
+        used[gap] = false;
+        size--;
+        return removed;
+    }
+
+    /**
+     * Removes every entry, keeping the table for reuse. Shrinks the table first if it has
+     * grown far beyond the given size.
+     *
+     * @param expected the number of entries about to be added
+     */
+    void clear(int expected) {
+        int wanted = tableSizeFor(expected);
+        if (keys.length > wanted * 4) {
+            allocate(wanted);
+        } else {
+            Arrays.fill(used, false);
+        }
+        size = 0;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(capacity);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) put(oldKeys[i], oldValues[i]);
+        }
+    }
+}
@@ -0,0 +1,452 @@
+package MiniFireForce;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Reads an {@link EventJournal} back and rebuilds the simulation world from it.
+ * <p>
+ * A directory may hold several runs, each numbering its fires and stations from one, so
+ * only one run is read at a time: the latest unless another is asked for.
+ * <p>
+ * Events are applied in journal order to a lightweight model of fires, stations and
+ * trucks in flight, which can be turned into a {@link WorldSnapshot} for any point in
+ * time and drawn or reported like a live frame. Reading reuses one event object and
+ * large sequential buffers, so a day of events replays in seconds.
+ * <p>
+ * The journal records when the first truck finishes a fire, not when each truck of a
+ * crew does, so every truck still working a fire is assumed to leave when it goes out.
+ */
+public class JournalReplay {
+    private static final SimulationEvent.Type[] TYPES = SimulationEvent.Type.values();
+    private static final byte TO_FIRE = (byte) MovingTruck.State.TO_FIRE.ordinal();
+    private static final byte EXTINGUISHING = (byte) MovingTruck.State.EXTINGUISHING.ordinal();
+    private static final byte RETURNING = (byte) MovingTruck.State.RETURNING.ordinal();
+
+    /**
+     * A fire as seen by the replay.
+     */
+    private static final class FireRecord {
+        final int id;
+        final float x, y;
+        final long time;
+        int severity;
+
+        FireRecord(int id, float x, float y, int severity, long time) {
+            this.id = id;
+            this.x = x;
+            this.y = y;
+            this.severity = severity;
+            this.time = time;
+        }
+    }
+
+    /**
+     * A station as seen by the replay.
+     */
+    private static final class StationRecord {
+        final int id;
+        final float x, y;
+        int trucks;
+
+        StationRecord(int id, float x, float y, int trucks) {
+            this.id = id;
+            this.x = x;
+            this.y = y;
+            this.trucks = trucks;
+        }
+    }
+
+    /**
+     * A truck on the road or at a fire.
+     */
+    private static final class TruckRecord {
+        final int stationId;
+        final float stationX, stationY;
+        int fireId;
+        float fireX, fireY; // Where the truck turned back, once recalled
+        long travelMillis;
+        byte state = TO_FIRE;
+        long legStart;
+
+        TruckRecord(int stationId, int fireId, float stationX, float stationY, float fireX, float fireY,
+                    long travelMillis, long legStart) {
+            this.stationId = stationId;
+            this.fireId = fireId;
+            this.stationX = stationX;
+            this.stationY = stationY;
+            this.fireX = fireX;
+            this.fireY = fireY;
+            this.travelMillis = travelMillis;
+            this.legStart = legStart;
+        }
+    }
+
+    private final Map<Integer, FireRecord> fires = new LinkedHashMap<>();
+    private final Map<Integer, StationRecord> stations = new LinkedHashMap<>();
+    private final List<TruckRecord> trucks = new ArrayList<>();
+    private long timeMillis;
+    private long applied;
+
+    // ===== Reading =====
+
+    /**
+     * Lists the journal files in a directory in the order they were written, which is the
+     * order of the numbers in their names. Files that only look like journal files, such as
+     * {@code journal-old.bin}, are left out.
+     *
+     * @param directory the journal directory
+     * @return the journal files, oldest first; empty if the directory does not exist
+     * @throws IOException if the directory cannot be listed
+     */
+    public static List<Path> journalFiles(Path directory) throws IOException {
+        List<Path> files = new ArrayList<>();
+        if (!Files.isDirectory(directory)) return files;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "journal-*.bin")) {
+            for (Path p : stream) {
+                if (fileIndex(p) >= 0) files.add(p);
+            }
+        }
+        files.sort(Comparator.comparingInt(JournalReplay::fileIndex));
+        return files;
+    }
+
+    /**
+     * @param file a file named {@code journal-NNNNN.bin}
+     * @return the number in the file's name, or -1 if the name holds no such number
+     */
+    static int fileIndex(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith("journal-") || !name.endsWith(".bin")) return -1;
+        String digits = name.substring("journal-".length(), name.length() - ".bin".length());
+        if (digits.isEmpty() || digits.length() > 9) return -1;
+        for (int i = 0; i < digits.length(); i++) {
+            if (digits.charAt(i) < '0' || digits.charAt(i) > '9') return -1;
+        }
+        return Integer.parseInt(digits);
+    }
+
+    /**
+     * Finds the run that wrote the newest file in a journal directory.
+     *
+     * @param directory the journal directory
+     * @return the latest run number, or 0 if there are no journal files
+     * @throws IOException if a file cannot be read or is not a journal file
+     */
+    public static int latestRun(Path directory) throws IOException {
+        List<Path> files = journalFiles(directory);
+        if (files.isEmpty()) return 0;
+        Path last = files.get(files.size() - 1);
+        try (FileChannel ch = FileChannel.open(last, StandardOpenOption.READ)) {
+            return readHeader(ch, last);
+        }
+    }
+
+    /**
+     * Decodes every event of the latest run in a journal directory and passes it to a consumer.
+     * The same event object is reused for every call.
+     *
+     * @param directory the journal directory
+     * @param consumer  receives each event in journal order
+     * @return the number of events read
+     * @throws IOException if a file cannot be read or is not a journal file
+     */
+    public static long read(Path directory, Consumer<SimulationEvent> consumer) throws IOException {
+        return read(directory, latestRun(directory), consumer);
+    }
+
+    /**
+     * Decodes every event of one run in a journal directory and passes it to a consumer.
+     * The same event object is reused for every call.
+     *
+     * @param directory the journal directory
+     * @param run       the run to read, as given by {@link EventJournal#getRun()}
+     * @param consumer  receives each event in journal order
+     * @return the number of events read
+     * @throws IOException if a file cannot be read or is not a journal file
+     */
+    public static long read(Path directory, int run, Consumer<SimulationEvent> consumer) throws IOException {
+        SimulationEvent event = new SimulationEvent();
+        ByteBuffer buf = ByteBuffer.allocateDirect(EventJournal.RECORD_SIZE * 16384);
+        long count = 0;
+        for (Path file : journalFiles(directory)) {
+            try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+                if (readHeader(ch, file) != run) continue;
+                buf.clear();
+                while (ch.read(buf) > 0 || buf.position() >= EventJournal.RECORD_SIZE) {
+                    buf.flip();
+                    while (buf.remaining() >= EventJournal.RECORD_SIZE) {
+                        consumer.accept(decode(buf, event));
+                        count++;
+                    }
+                    // Keep a partial record for the next read; a truncated tail is ignored
+                    buf.compact();
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Checks a journal file header.
+     *
+     * @return the run that wrote the file
+     */
+    private static int readHeader(FileChannel ch, Path file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(EventJournal.HEADER_SIZE);
+        while (header.hasRemaining() && ch.read(header) > 0) {
+            // keep reading until the header is complete or the file ends
+        }
+        header.flip();
+        if (header.remaining() < EventJournal.HEADER_SIZE
+                || header.getInt() != EventJournal.MAGIC
+                || header.getInt() != EventJournal.VERSION
+                || header.getInt() != EventJournal.RECORD_SIZE) {
+            throw new IOException("Not a journal file: " + file);
+        }
+        return header.getInt();
+    }
+
+    /**
+     * Reads one record at the buffer's position into an event.
+     */
+    static SimulationEvent decode(ByteBuffer buf, SimulationEvent e) {
+        long time = buf.getLong();
+        SimulationEvent.Type type = TYPES[buf.get()];
+        int severity = buf.get();
+        buf.getShort();
+        int fireId = buf.getInt();
+        int sourceFireId = buf.getInt();
+        int stationId = buf.getInt();
+        int trucks = buf.getInt();
+        float x = buf.getFloat();
+        float y = buf.getFloat();
+        long duration = buf.getInt();
+        switch (type) {
+            case FIRE_SPAWNED: return e.fireSpawned(time, fireId, sourceFireId, x, y, severity);
+            case FIRE_SPREAD: return e.fireSpread(time, fireId, severity);
+            case TRUCK_DISPATCHED: return e.truckDispatched(time, stationId, fireId, duration);
+            case TRUCK_ARRIVED: return e.truckArrived(time, stationId, fireId);
+            case FIRE_EXTINGUISHED: return e.fireExtinguished(time, fireId, stationId);
+            case TRUCK_RETURNED: return e.truckReturned(time, stationId, fireId, trucks);
+            case STATION_SPAWNED: return e.stationSpawned(time, stationId, x, y, trucks);
+            case FIRE_MERGED: return e.fireMerged(time, fireId, sourceFireId);
+            case TRUCKS_RETARGETED: return e.trucksRetargeted(time, fireId, sourceFireId);
+            case TRUCK_RECALLED: return e.truckRecalled(time, stationId, fireId, x, y, duration);
+            default: return e.message(time, null);
+        }
+    }
+
+    /**
+     * Replays the latest run of a journal up to a point in time.
+     *
+     * @param directory  the journal directory
+     * @param timeMillis the simulation time to stop at, in epoch milliseconds
+     * @return the world as it was at that time
+     * @throws IOException if the journal cannot be read
+     */
+    public static WorldSnapshot replay(Path directory, long timeMillis) throws IOException {
+        return replay(directory, latestRun(directory), timeMillis);
+    }
+
+    /**
+     * Replays one run of a journal up to a point in time.
+     *
+     * @param directory  the journal directory
+     * @param run        the run to replay, as given by {@link EventJournal#getRun()}
+     * @param timeMillis the simulation time to stop at, in epoch milliseconds
+     * @return the world as it was at that time
+     * @throws IOException if the journal cannot be read
+     */
+    public static WorldSnapshot replay(Path directory, int run, long timeMillis) throws IOException {
+        JournalReplay replay = new JournalReplay();
+        read(directory, run, e -> {
+            if (e.getTimeMillis() <= timeMillis) replay.apply(e);
+        });
+        return replay.toSnapshot(timeMillis);
+    }
+
+    // ===== State =====
+
+    /**
+     * Applies one event to the replayed world.
+     *
+     * @param e the event, in journal order
+     */
+    public void apply(SimulationEvent e) {
+        timeMillis = Math.max(timeMillis, e.getTimeMillis());
+        applied++;
+        switch (e.getType()) {
+            case STATION_SPAWNED:
+                stations.put(e.getStationId(), new StationRecord(e.getStationId(), e.getX(), e.getY(), e.getTrucks()));
+                break;
+            case FIRE_SPAWNED:
+                fires.put(e.getFireId(), new FireRecord(e.getFireId(), e.getX(), e.getY(), e.getSeverity(),
+                        e.getTimeMillis()));
+                break;
+            case FIRE_SPREAD: {
+                FireRecord f = fires.get(e.getFireId());
+                if (f != null) f.severity = e.getSeverity();
+                break;
+            }
+            case TRUCK_DISPATCHED: {
+                StationRecord st = stations.get(e.getStationId());
+                FireRecord f = fires.get(e.getFireId());
+                if (st == null || f == null) break;
+                st.trucks--;
+                trucks.add(new TruckRecord(st.id, f.id, st.x, st.y, f.x, f.y,
+                        e.getDurationMillis(), e.getTimeMillis()));
+                break;
+            }
+            case TRUCK_ARRIVED: {
+                TruckRecord t = findTruck(e.getStationId(), e.getFireId(), TO_FIRE);
+                if (t == null) break;
+                // A truck reaching a fire that is already out turns straight around
+                t.state = fires.containsKey(t.fireId) ? EXTINGUISHING : RETURNING;
+                t.legStart = e.getTimeMillis();
+                break;
+            }
+            case FIRE_EXTINGUISHED:
+            case FIRE_MERGED:
+                fires.remove(e.getFireId());
+                for (TruckRecord t : trucks) {
+                    if (t.fireId == e.getFireId() && t.state == EXTINGUISHING) {
+                        t.state = RETURNING;
+                        t.legStart = e.getTimeMillis();
+                    }
+                }
+                break;
+            case TRUCKS_RETARGETED:
+                for (TruckRecord t : trucks) {
+                    if (t.fireId == e.getFireId() && t.state != RETURNING) t.fireId = e.getSourceFireId();
+                }
+                break;
+            case TRUCK_RECALLED: {
+                TruckRecord t = findTruck(e.getStationId(), e.getFireId(), TO_FIRE);
+                if (t == null) break;
+                t.state = RETURNING;
+                t.fireX = e.getX();
+                t.fireY = e.getY();
+                t.travelMillis = e.getDurationMillis();
+                t.legStart = e.getTimeMillis();
+                break;
+            }
+            case TRUCK_RETURNED: {
+                StationRecord st = stations.get(e.getStationId());
+                if (st != null) st.trucks = e.getTrucks();
+                TruckRecord t = findTruck(e.getStationId(), e.getFireId(), RETURNING);
+                if (t == null) t = findTruck(e.getStationId(), e.getFireId(), (byte) -1);
+                if (t != null) trucks.remove(t);
+                break;
+            }
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Finds the oldest truck of a station sent to a fire, in the given state or any state if -1.
+     */
+    private TruckRecord findTruck(int stationId, int fireId, byte state) {
+        for (TruckRecord t : trucks) {
+            if (t.stationId == stationId && t.fireId == fireId && (state < 0 || t.state == state)) {
+                return t;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the number of events applied so far
+     */
+    public long getAppliedCount() {
+        return applied;
+    }
+
+    /**
+     * @return the time of the latest event applied, in epoch milliseconds
+     */
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    /**
+     * Builds a frame of the replayed world.
+     *
+     * @param timeMillis the time to stamp on the frame, used to place trucks along their route
+     * @return the replayed world as a snapshot
+     */
+    public WorldSnapshot toSnapshot(long timeMillis) {
+        int nf = fires.size();
+        int[] fireIds = new int[nf];
+        float[] fireX = new float[nf];
+        float[] fireY = new float[nf];
+        byte[] fireSeverity = new byte[nf];
+        long[] fireTime = new long[nf];
+        int i = 0;
+        for (FireRecord f : fires.values()) {
+            fireIds[i] = f.id;
+            fireX[i] = f.x;
+            fireY[i] = f.y;
+            fireSeverity[i] = (byte) f.severity;
+            fireTime[i] = f.time;
+            i++;
+        }
+
+        int ns = stations.size();
+        int[] stationIds = new int[ns];
+        float[] stationX = new float[ns];
+        float[] stationY = new float[ns];
+        int[] stationTrucks = new int[ns];
+        i = 0;
+        for (StationRecord st : stations.values()) {
+            stationIds[i] = st.id;
+            stationX[i] = st.x;
+            stationY[i] = st.y;
+            stationTrucks[i] = st.trucks;
+            i++;
+        }
+
+        int nt = trucks.size();
+        int[] truckStationIds = new int[nt];
+        int[] truckFireIds = new int[nt];
+        float[] startX = new float[nt];
+        float[] startY = new float[nt];
+        float[] destX = new float[nt];
+        float[] destY = new float[nt];
+        long[] startTime = new long[nt];
+        long[] duration = new long[nt];
+        byte[] state = new byte[nt];
+        Iterator<TruckRecord> it = trucks.iterator();
+        for (i = 0; i < nt; i++) {
+            TruckRecord t = it.next();
+            boolean returning = t.state == RETURNING;
+            truckStationIds[i] = t.stationId;
+            truckFireIds[i] = t.fireId;
+            startX[i] = returning ? t.fireX : t.stationX;
+            startY[i] = returning ? t.fireY : t.stationY;
+            destX[i] = returning ? t.stationX : t.fireX;
+            destY[i] = returning ? t.stationY : t.fireY;
+            startTime[i] = t.legStart;
+            duration[i] = t.travelMillis;
+            state[i] = t.state;
+        }
+
+        return new WorldSnapshot(applied, timeMillis,
+                fireIds, fireX, fireY, fireSeverity, fireTime,
+                stationIds, stationX, stationY, stationTrucks,
+                truckStationIds, truckFireIds, startX, startY, destX, destY, startTime, duration, state);
+    }
+}
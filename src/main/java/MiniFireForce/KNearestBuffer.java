@@ -0,0 +1,57 @@
+package MiniFireForce;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bounded buffer that keeps the {@code k} closest stations seen so far,
+ * sorted by squared distance. Shared by the {@link StationIndex} implementations.
+ */
+class KNearestBuffer {
+    private final FireStation[] stations;
+    private final double[] dist2;
+    private int size;
+
+    /**
+     * Creates a buffer that keeps at most {@code k} stations.
+     *
+     * @param k the number of stations to keep
+     */
+    KNearestBuffer(int k) {
+        stations = new FireStation[k];
+        dist2 = new double[k];
+    }
+
+    /** @return {@code true} once {@code k} stations have been collected */
+    boolean isFull() { return size == stations.length; }
+
+    /** @return the squared distance of the farthest kept station, or infinity if not full */
+    double worst() { return isFull() ? dist2[size - 1] : Double.POSITIVE_INFINITY; }
+
+    /**
+     * Offers a station; it is kept if it is closer than the current worst.
+     *
+     * @param station the candidate station
+     * @param d2      the squared distance from the query point
+     */
+    void offer(FireStation station, double d2) {
+        if (stations.length == 0 || d2 >= worst()) return;
+        int i = isFull() ? size - 1 : size++;
+        while (i > 0 && dist2[i - 1] > d2) {
+            stations[i] = stations[i - 1];
+            dist2[i] = dist2[i - 1];
+            i--;
+        }
+        stations[i] = station;
+        dist2[i] = d2;
+    }
+
+    /** @return the kept stations, nearest first */
+    List<FireStation> toList() {
+        List<FireStation> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(stations[i]);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,109 @@
+package MiniFireForce;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of non-negative durations with a fixed relative precision,
+ * laid out like an HDR histogram.
+ * <p>
+ * Values below {@code 2 * SUB_BUCKETS} get a bucket each. Above that, every power of two
+ * is split into {@code SUB_BUCKETS} equal buckets, so a recorded value is off by less than
+ * one part in {@value #SUB_BUCKETS} whatever its size. Recording is a handful of
+ * arithmetic operations and one atomic increment; values above the highest trackable
+ * value are counted in the last bucket, and the exact maximum is kept separately.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 7;
+    /** Buckets per power of two. */
+    public static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private final long highestTrackable;
+    private final AtomicLongArray counts;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Creates an empty histogram.
+     *
+     * @param highestTrackable the largest value that is bucketed precisely, at least 1
+     */
+    public LatencyHistogram(long highestTrackable) {
+        if (highestTrackable < 1) throw new IllegalArgumentException("highestTrackable must be positive");
+        this.highestTrackable = highestTrackable;
+        this.counts = new AtomicLongArray(indexOf(highestTrackable) + 1);
+    }
+
+    /**
+     * Returns the bucket holding a value.
+     */
+    private static int indexOf(long value) {
+        if (value < 2 * SUB_BUCKETS) return (int) value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+    }
+
+    /**
+     * Returns the largest value that falls in a bucket.
+     */
+    private static long highestInBucket(int index) {
+        if (index < 2 * SUB_BUCKETS) return index;
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        long mantissa = index - ((long) shift << SUB_BUCKET_BITS);
+        return ((mantissa + 1) << shift) - 1;
+    }
+
+    /**
+     * Records one value. Negative values are recorded as zero.
+     *
+     * @param value the value, usually in milliseconds
+     */
+    public void record(long value) {
+        if (value < 0) value = 0;
+        counts.incrementAndGet(indexOf(Math.min(value, highestTrackable)));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /** @return the number of recorded values */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /** @return the mean of the recorded values, or {@code NaN} if there are none */
+    public double getMean() {
+        long n = count.sum();
+        return n == 0 ? Double.NaN : (double) sum.sum() / n;
+    }
+
+    /** @return the largest recorded value, or 0 if there are none */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Returns the value below which a given percentage of the recorded values fall,
+     * to the histogram's precision. Concurrent recording may make the result slightly stale.
+     *
+     * @param percentile the percentage, from 0 to 100
+     * @return the value at that percentile, or 0 if nothing has been recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        long total = 0;
+        int n = counts.length();
+        for (int i = 0; i < n; i++) {
+            total += counts.get(i);
+        }
+        if (total == 0) return 0;
+        long target = Math.max(1, (long) Math.ceil(Math.min(100, percentile) / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < n; i++) {
+            seen += counts.get(i);
+            if (seen >= target) return Math.min(highestInBucket(i), getMax());
+        }
+        return getMax();
+    }
+}
@@ -0,0 +1,37 @@
+package MiniFireForce;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
+
+/**
+ * A {@link StationIndex} that scans every station on each query.
+ * Kept as the reference implementation and as a baseline for benchmarks.
+ */
+public class LinearStationIndex implements StationIndex {
+    private final List<FireStation> stations = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void insert(FireStation station) {
+        stations.add(station);
+    }
+
+    @Override
+    public int size() {
+        return stations.size();
+    }
+
+    @Override
+    public List<FireStation> kNearest(float x, float y, int k, Predicate<FireStation> filter) {
+        if (k <= 0) return new ArrayList<>();
+        KNearestBuffer best = new KNearestBuffer(k);
+        for (FireStation st : stations) {
+            if (!filter.test(st)) continue;
+            double dx = st.getX() - x;
+            double dy = st.getY() - y;
+            best.offer(st, dx * dx + dy * dy);
+        }
+        return best.toList();
+    }
+}
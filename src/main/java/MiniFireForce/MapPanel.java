@@ -2,12 +2,31 @@ package MiniFireForce;
 
 import javax.swing.*;
 import java.awt.*;
-import java.util.Map;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
 
 /**
  * The {@code MapPanel} class is responsible for rendering the fire simulation.
  * It visually represents fire stations, active fires, and moving fire trucks.
- * The panel dynamically updates based on the state of the simulation.
+ * The panel dynamically updates based on the state of the simulation, reading
+ * each frame from the latest immutable {@link WorldSnapshot}.
+ * <p>
+ * The map is drawn in layers. The background gradient, the stations and the fires are
+ * rendered into cached images that are rebuilt only when the panel is resized or the
+ * stations or fires change, so a typical frame copies one image and draws the trucks.
+ * Icons are rasterized into sprites once instead of laying out emoji glyphs every frame.
+ * A corner overlay shows the frame rate and the time spent painting.
+ * <p>
+ * The mouse wheel zooms around the cursor, dragging pans and a double click shows the
+ * whole world again. Stations and fires are kept in {@link PointGridIndex grid indexes},
+ * so a frame only visits the entities inside the viewport. When more of them are visible
+ * than can usefully be drawn as icons, they are aggregated into heat cells whose colour
+ * shows how many entities each holds, so the cost of a frame follows what is on screen
+ * rather than the size of the world.
  */
 public class MapPanel extends JPanel {
     private GenSituationClass situation;
@@ -17,6 +36,93 @@ public class MapPanel extends JPanel {
     private final String truckIcon = "🚒";
     private final String stationIcon = "🏢";
 
+    private static final Font ICON_FONT = new Font("SansSerif", Font.BOLD, 22);
+    private static final Font LABEL_FONT = new Font("Arial", Font.BOLD, 10);
+    private static final Font OVERLAY_FONT = new Font("Monospaced", Font.PLAIN, 11);
+    private static final Color TOP_COLOR = new Color(10, 10, 50);
+    private static final Color BOTTOM_COLOR = new Color(30, 30, 80);
+    private static final Color STATION_COLOR = new Color(135, 206, 250); // Light blue for fire stations
+    private static final Color TRUCK_COLOR = Color.GREEN.darker();
+    private static final Color ROAD_COLOR = new Color(70, 70, 120);
+
+    private static final int ICON_MARGIN = 30;
+    // Above this many visible entities of a kind, draw heat cells or dots instead of icons
+    private static final int MAX_ICONS = 1500;
+    // Side of a heat cell in pixels, at least
+    private static final int HEAT_CELL_PX = 12;
+    private static final int INDEX_CELLS = 256;
+    private static final double MAX_ZOOM = 256;
+    private static final int[] STATION_HEAT = heatColors(STATION_COLOR);
+    private static final int[] FIRE_HEAT = heatColors(new Color(255, 120, 0));
+
+    /**
+     * An icon or label rasterized once, drawn with its text baseline at the requested point.
+     */
+    private static final class Sprite {
+        final BufferedImage image;
+        final int ascent;
+
+        Sprite(String text, Font font, Color color) {
+            BufferedImage probe = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D pg = probe.createGraphics();
+            FontMetrics fm = pg.getFontMetrics(font);
+            pg.dispose();
+            int w = Math.max(1, fm.stringWidth(text));
+            int h = Math.max(1, fm.getAscent() + fm.getDescent());
+            image = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB_PRE);
+            ascent = fm.getAscent();
+            Graphics2D g = image.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g.setFont(font);
+            g.setColor(color);
+            g.drawString(text, 0, ascent);
+            g.dispose();
+        }
+
+        void draw(Graphics g, int x, int baselineY) {
+            g.drawImage(image, x, baselineY - ascent, null);
+        }
+    }
+
+    private Sprite stationSprite;
+    private Sprite fireSprite;
+    private Sprite truckSprite;
+    private Sprite extinguishingLabel;
+
+    // Cached layers, each drawn on top of a copy of the previous one
+    private BufferedImage background;
+    private BufferedImage stationLayer;
+    private BufferedImage sceneLayer;
+    private long stationLayerView = -1;
+    private RoadNetwork roads; // The network drawn in the station layer
+    private long sceneView = -1;
+
+    // Spatial indexes over the snapshot's stations and fires
+    private final PointGridIndex stationGrid;
+    private final PointGridIndex fireGrid;
+    private int[] stationGridIds;
+    private int[] fireGridIds;
+
+    // The view: world bounds, the world point at the panel centre and the magnification
+    private final float worldMinX, worldMinY, worldMaxX, worldMaxY;
+    private double viewX;
+    private double viewY;
+    private double zoom = 1;
+    private long viewVersion;
+
+    // Truck positions for the frame being painted, reused between frames
+    private float[] truckX = new float[0];
+    private float[] truckY = new float[0];
+
+    // World-to-panel mapping for the frame being painted: px = originX + x * scaleX, py = originY - y * scaleY
+    private double scaleX, scaleY, originX, originY;
+
+    // Frame statistics for the overlay, as exponential moving averages
+    private boolean showFrameStats = true;
+    private long lastFrameNanos;
+    private double frameIntervalMs;
+    private double paintMs;
+
     /**
      * Constructs a new {@code MapPanel} with a reference to the simulation.
      *
@@ -25,6 +131,114 @@ public class MapPanel extends JPanel {
     public MapPanel(GenSituationClass situation) {
         this.situation = situation;
         setPreferredSize(new Dimension(500, 500));
+        SimulationConfig config = situation.getConfig();
+        worldMinX = config.getMinX();
+        worldMinY = config.getMinY();
+        worldMaxX = config.getMaxX();
+        worldMaxY = config.getMaxY();
+        stationGrid = new PointGridIndex(worldMinX, worldMinY, worldMaxX, worldMaxY, INDEX_CELLS);
+        fireGrid = new PointGridIndex(worldMinX, worldMinY, worldMaxX, worldMaxY, INDEX_CELLS);
+        resetView();
+
+        MouseAdapter mouse = new MouseAdapter() {
+            private int lastX, lastY;
+
+            @Override
+            public void mousePressed(MouseEvent e) {
+                lastX = e.getX();
+                lastY = e.getY();
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                updateMapping();
+                setView(viewX - (e.getX() - lastX) / scaleX, viewY + (e.getY() - lastY) / scaleY, zoom);
+                lastX = e.getX();
+                lastY = e.getY();
+            }
+
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) resetView();
+            }
+
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                zoomAt(e.getX(), e.getY(), Math.pow(1.25, -e.getPreciseWheelRotation()));
+            }
+        };
+        addMouseListener(mouse);
+        addMouseMotionListener(mouse);
+        addMouseWheelListener(mouse);
+    }
+
+    // ===== View =====
+
+    /**
+     * Shows the whole world.
+     */
+    public void resetView() {
+        setView((worldMinX + worldMaxX) / 2.0, (worldMinY + worldMaxY) / 2.0, 1);
+    }
+
+    /**
+     * Centres the view on a world point at a given magnification. The centre is kept
+     * inside the world bounds.
+     *
+     * @param x    the world x-coordinate to show at the panel centre
+     * @param y    the world y-coordinate to show at the panel centre
+     * @param zoom the magnification, where 1 shows the whole world; clamped to [1, 256]
+     */
+    public void setView(double x, double y, double zoom) {
+        this.viewX = Math.max(worldMinX, Math.min(worldMaxX, x));
+        this.viewY = Math.max(worldMinY, Math.min(worldMaxY, y));
+        this.zoom = Math.max(1, Math.min(MAX_ZOOM, zoom));
+        viewVersion++;
+        repaint();
+    }
+
+    /** @return the current magnification, where 1 shows the whole world */
+    public double getZoom() {
+        return zoom;
+    }
+
+    /**
+     * Zooms by a factor while keeping the world point under a panel position in place.
+     *
+     * @param px     the panel x-coordinate to zoom around
+     * @param py     the panel y-coordinate to zoom around
+     * @param factor the change in magnification
+     */
+    private void zoomAt(int px, int py, double factor) {
+        updateMapping();
+        double wx = (px - originX) / scaleX;
+        double wy = (originY - py) / scaleY;
+        double newZoom = Math.max(1, Math.min(MAX_ZOOM, zoom * factor));
+        double ratio = newZoom / zoom;
+        setView(wx - (px - getWidth() / 2.0) / (scaleX * ratio), wy + (py - getHeight() / 2.0) / (scaleY * ratio),
+                newZoom);
+    }
+
+    /**
+     * Computes the world-to-panel mapping for the current size and view. At a magnification
+     * of 1 the world fills the panel less a 10-pixel margin.
+     */
+    private void updateMapping() {
+        int offset = 10;
+        scaleX = Math.max(1, getWidth() - 2 * offset) / (double) (worldMaxX - worldMinX) * zoom;
+        scaleY = Math.max(1, getHeight() - 2 * offset) / (double) (worldMaxY - worldMinY) * zoom;
+        originX = getWidth() / 2.0 - viewX * scaleX;
+        originY = getHeight() / 2.0 + viewY * scaleY;
+    }
+
+    /**
+     * Shows or hides the frame-rate and paint-time overlay.
+     *
+     * @param show {@code true} to show the overlay
+     */
+    public void setShowFrameStats(boolean show) {
+        this.showFrameStats = show;
+        repaint();
     }
 
     /**
@@ -35,61 +249,220 @@ public class MapPanel extends JPanel {
      */
     @Override
     protected void paintComponent(Graphics g) {
-        super.paintComponent(g);
-        Graphics2D g2d = (Graphics2D) g;
+        long start = System.nanoTime();
+        // No need to clear first: the cached scene covers the whole panel
         int width = getWidth();
         int height = getHeight();
+        if (width <= 0 || height <= 0) return;
+        if (stationSprite == null) {
+            stationSprite = new Sprite(stationIcon, ICON_FONT, STATION_COLOR);
+            fireSprite = new Sprite(fireIcon, ICON_FONT, Color.ORANGE);
+            truckSprite = new Sprite(truckIcon, ICON_FONT, TRUCK_COLOR);
+            extinguishingLabel = new Sprite("Extinguishing", LABEL_FONT, Color.WHITE);
+        }
 
-        // Background gradient
-        Color topColor = new Color(10, 10, 50);
-        Color bottomColor = new Color(30, 30, 80);
-        GradientPaint gp = new GradientPaint(0, 0, topColor, 0, height, bottomColor);
-        g2d.setPaint(gp);
-        g2d.fillRect(0, 0, width, height);
+        // Coordinate mapping from simulation space to panel space, and the visible world
+        // rectangle widened by an icon so that icons straddling the edge are drawn
+        updateMapping();
+        float x0 = (float) ((-ICON_MARGIN - originX) / scaleX);
+        float x1 = (float) ((width + ICON_MARGIN - originX) / scaleX);
+        float y0 = (float) ((originY - height - ICON_MARGIN) / scaleY);
+        float y1 = (float) ((originY + ICON_MARGIN) / scaleY);
 
-        // Coordinate mapping from simulation space [-1000, 1000] to panel space
-        int offset = 10;
-        int drawWidth = width - 2 * offset;
-        int drawHeight = height - 2 * offset;
-        double scaleX = (double) drawWidth / 2000.0;
-        double scaleY = (double) drawHeight / 2000.0;
-        int centerX = offset + drawWidth / 2;
-        int centerY = offset + drawHeight / 2;
-
-        // Draw fire stations
-        g.setColor(new Color(135, 206, 250)); // Light blue for fire stations
-        g.setFont(new Font("SansSerif", Font.BOLD, 22));
-        for (Map.Entry<Integer, FireStation> e : situation.getFireStations().entrySet()) {
-            FireStation st = e.getValue();
-            int x = centerX + (int) (st.getX() * scaleX);
-            int y = centerY - (int) (st.getY() * scaleY);
-            g.drawString(stationIcon, x - 10, y + 10);
-        }
-
-        // Draw active fires
-        g.setColor(Color.ORANGE);
-        for (Map.Entry<Integer, Fire> e : situation.getActiveFires().entrySet()) {
-            Fire f = e.getValue();
-            int x = centerX + (int) (f.getX() * scaleX);
-            int y = centerY - (int) (f.getY() * scaleY);
-            g.drawString(fireIcon, x - 10, y + 10);
-        }
-
-        // Draw moving fire trucks
-        g.setColor(Color.GREEN.darker());
-        for (MovingTruck mt : situation.getMovingTrucks()) {
-            int tx = centerX + (int) (mt.getCurrentX() * scaleX);
-            int ty = centerY - (int) (mt.getCurrentY() * scaleY);
-            g.drawString(truckIcon, tx - 10, ty + 10);
+        WorldSnapshot snap = situation.getSnapshot();
+        long now = situation.getScheduler().currentTimeMillis();
+        // Entities never move, so the indexes and layers only go stale when the IDs change
+        if (!Arrays.equals(stationGridIds, snap.stationIds)) {
+            stationGrid.build(snap.stationX, snap.stationY, snap.stationCount());
+            stationLayerView = -1;
+        }
+        stationGridIds = snap.stationIds;
+        RoadNetwork network = situation.getRoadNetwork();
+        if (network != roads) {
+            roads = network;
+            stationLayerView = -1;
+        }
+        if (!Arrays.equals(fireGridIds, snap.fireIds)) {
+            fireGrid.build(snap.fireX, snap.fireY, snap.fireCount());
+            sceneView = -1;
+        }
+        fireGridIds = snap.fireIds;
+
+        // Rebuild only the layers that are out of date
+        if (background == null || background.getWidth() != width || background.getHeight() != height) {
+            background = createLayer(width, height);
+            Graphics2D bg = background.createGraphics();
+            bg.setPaint(new GradientPaint(0, 0, TOP_COLOR, 0, height, BOTTOM_COLOR));
+            bg.fillRect(0, 0, width, height);
+            bg.dispose();
+            stationLayerView = -1;
+        }
+        long view = viewVersion ^ ((long) width << 32) ^ ((long) height << 48);
+        if (stationLayerView != view) {
+            stationLayer = copyLayer(background, stationLayer);
+            Graphics2D sg = stationLayer.createGraphics();
+            if (roads != null) drawRoads(sg, roads, x0, y0, x1, y1);
+            drawPoints(sg, stationGrid, snap.stationX, snap.stationY, stationSprite, STATION_HEAT, x0, y0, x1, y1);
+            sg.dispose();
+            stationLayerView = view;
+            sceneView = -1; // the fire layer sits on top of the station layer
+        }
+        if (sceneView != view) {
+            sceneLayer = copyLayer(stationLayer, sceneLayer);
+            Graphics2D fg = sceneLayer.createGraphics();
+            drawPoints(fg, fireGrid, snap.fireX, snap.fireY, fireSprite, FIRE_HEAT, x0, y0, x1, y1);
+            fg.dispose();
+            sceneView = view;
+        }
+        g.drawImage(sceneLayer, 0, 0, null);
+
+        // Draw moving fire trucks, as dots when there are too many for icons, all
+        // positioned at the same instant
+        if (truckX.length < snap.truckCount()) {
+            truckX = new float[snap.truckCount() * 2];
+            truckY = new float[truckX.length];
+        }
+        int trucks = snap.truckPositions(now, truckX, truckY);
+        boolean icons = trucks <= MAX_ICONS;
+        g.setColor(TRUCK_COLOR);
+        for (int i = 0; i < trucks; i++) {
+            int tx = (int) (originX + truckX[i] * scaleX);
+            int ty = (int) (originY - truckY[i] * scaleY);
+            if (tx < -ICON_MARGIN || ty < -ICON_MARGIN || tx > width + ICON_MARGIN || ty > height + ICON_MARGIN) {
+                continue;
+            }
+            if (!icons) {
+                g.fillRect(tx - 1, ty - 1, 3, 3);
+                continue;
+            }
+            truckSprite.draw(g, tx - 10, ty + 10);
 
             // Label extinguishing trucks
-            if (mt.getState() == MovingTruck.State.EXTINGUISHING) {
-                g.setColor(Color.WHITE);
-                g.setFont(new Font("Arial", Font.BOLD, 10));
-                g.drawString("Extinguishing", tx + 15, ty);
-                g.setColor(Color.GREEN.darker());
-                g.setFont(new Font("SansSerif", Font.BOLD, 22));
+            if (snap.truckState(i) == MovingTruck.State.EXTINGUISHING) {
+                extinguishingLabel.draw(g, tx + 15, ty);
+            }
+        }
+
+        if (showFrameStats) {
+            drawFrameStats(g, start);
+        }
+    }
+
+    /**
+     * Draws every road with an end inside a world rectangle, as thin lines under the stations.
+     */
+    private void drawRoads(Graphics2D g, RoadNetwork network, float x0, float y0, float x1, float y1) {
+        g.setColor(ROAD_COLOR);
+        for (int v = 0; v < network.nodeCount(); v++) {
+            float vx = network.nodeX(v), vy = network.nodeY(v);
+            boolean vIn = vx >= x0 && vx <= x1 && vy >= y0 && vy <= y1;
+            for (int a = network.firstArc(v); a < network.endArc(v); a++) {
+                int u = network.arcHead(a);
+                if (u < v) continue; // Each road once
+                float ux = network.nodeX(u), uy = network.nodeY(u);
+                if (!vIn && !(ux >= x0 && ux <= x1 && uy >= y0 && uy <= y1)) continue;
+                g.drawLine((int) (originX + vx * scaleX), (int) (originY - vy * scaleY),
+                        (int) (originX + ux * scaleX), (int) (originY - uy * scaleY));
+            }
+        }
+    }
+
+    /**
+     * Draws the indexed points inside a world rectangle: as icons when there are few
+     * enough, otherwise as heat cells, each covering a square block of index cells at
+     * least {@link #HEAT_CELL_PX} pixels wide. Blocks are aligned to the index grid so
+     * that they do not shimmer while panning. The heat cells are written one pixel each
+     * into a small image that is then scaled onto the layer in a single draw, which is
+     * far cheaper than filling thousands of translucent rectangles.
+     */
+    private void drawPoints(Graphics2D g, PointGridIndex grid, float[] xs, float[] ys, Sprite sprite,
+                            int[] heat, float x0, float y0, float x1, float y1) {
+        if (grid.countIn(x0, y0, x1, y1) <= MAX_ICONS) {
+            grid.forEachIn(x0, y0, x1, y1, i -> sprite.draw(g,
+                    (int) (originX + xs[i] * scaleX) - 10, (int) (originY - ys[i] * scaleY) + 10));
+            return;
+        }
+        double cellPx = Math.min(grid.cellWidth() * scaleX, grid.cellHeight() * scaleY);
+        int k = Math.max(1, (int) Math.ceil(HEAT_CELL_PX / cellPx));
+        int cx0 = grid.cellX(x0) / k * k;
+        int cy0 = grid.cellY(y0) / k * k;
+        int nx = (grid.cellX(x1) - cx0) / k + 1;
+        int ny = (grid.cellY(y1) - cy0) / k + 1;
+        BufferedImage cells = new BufferedImage(nx, ny, BufferedImage.TYPE_INT_ARGB_PRE);
+        int[] pixels = ((DataBufferInt) cells.getRaster().getDataBuffer()).getData();
+        for (int j = 0; j < ny; j++) {
+            int cy = cy0 + j * k;
+            int row = (ny - 1 - j) * nx; // world y grows upwards, image rows downwards
+            for (int i = 0; i < nx; i++) {
+                int cx = cx0 + i * k;
+                int n = grid.countCells(cx, cy, cx + k - 1, cy + k - 1);
+                if (n > 0) pixels[row + i] = heat[Math.min(heat.length - 1, 31 - Integer.numberOfLeadingZeros(n))];
             }
         }
+        int left = (int) (originX + (grid.minX() + cx0 * grid.cellWidth()) * scaleX);
+        int right = (int) (originX + (grid.minX() + (cx0 + nx * k) * grid.cellWidth()) * scaleX);
+        int top = (int) (originY - (grid.minY() + (cy0 + ny * k) * grid.cellHeight()) * scaleY);
+        int bottom = (int) (originY - (grid.minY() + cy0 * grid.cellHeight()) * scaleY);
+        g.drawImage(cells, left, top, right, bottom, 0, 0, nx, ny, null);
+    }
+
+    /**
+     * Builds heat-cell colours for counts of 1, 2-3, 4-7 and so on: the base colour,
+     * increasingly opaque and bright, as premultiplied ARGB pixels.
+     */
+    private static int[] heatColors(Color base) {
+        int[] colors = new int[12];
+        for (int i = 0; i < colors.length; i++) {
+            float t = i / (float) (colors.length - 1);
+            int alpha = 90 + (int) (165 * t);
+            int r = (int) (base.getRed() + (255 - base.getRed()) * t * 0.6f) * alpha / 255;
+            int gr = (int) (base.getGreen() + (255 - base.getGreen()) * t * 0.6f) * alpha / 255;
+            int b = (int) (base.getBlue() + (255 - base.getBlue()) * t * 0.6f) * alpha / 255;
+            colors[i] = alpha << 24 | r << 16 | gr << 8 | b;
+        }
+        return colors;
+    }
+
+    /**
+     * Creates an opaque image suited to the screen, or a plain one when there is no screen.
+     */
+    private BufferedImage createLayer(int width, int height) {
+        GraphicsConfiguration gc = getGraphicsConfiguration();
+        return gc != null ? gc.createCompatibleImage(width, height)
+                : new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    }
+
+    /**
+     * Copies a layer into a reusable image of the same size, allocating one if needed.
+     */
+    private BufferedImage copyLayer(BufferedImage source, BufferedImage target) {
+        if (target == null || target.getWidth() != source.getWidth() || target.getHeight() != source.getHeight()) {
+            target = createLayer(source.getWidth(), source.getHeight());
+        }
+        Graphics2D g = target.createGraphics();
+        g.drawImage(source, 0, 0, null);
+        g.dispose();
+        return target;
+    }
+
+    /**
+     * Updates the frame statistics and draws them in the top-left corner.
+     *
+     * @param g          the graphics to draw on
+     * @param startNanos when this frame started painting
+     */
+    private void drawFrameStats(Graphics g, long startNanos) {
+        long end = System.nanoTime();
+        if (lastFrameNanos != 0) {
+            double interval = (startNanos - lastFrameNanos) / 1e6;
+            frameIntervalMs = frameIntervalMs == 0 ? interval : frameIntervalMs * 0.9 + interval * 0.1;
+        }
+        lastFrameNanos = startNanos;
+        double paint = (end - startNanos) / 1e6;
+        paintMs = paintMs == 0 ? paint : paintMs * 0.9 + paint * 0.1;
+        g.setFont(OVERLAY_FONT);
+        g.setColor(Color.WHITE);
+        g.drawString(String.format("%.1f fps  %.2f ms/frame  zoom %.1fx",
+                frameIntervalMs > 0 ? 1000 / frameIntervalMs : 0, paintMs, zoom), 8, 16);
     }
 }
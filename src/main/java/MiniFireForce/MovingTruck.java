@@ -1,8 +1,12 @@
 package MiniFireForce;
 
+import java.util.function.LongSupplier;
+
 /**
  * The {@code MovingTruck} class represents a fire truck moving between a station and a fire.
  * It supports animation by tracking the truck’s position over time as it travels.
+ * Times come from the truck's clock, which is the wall clock unless a simulation clock is
+ * supplied, so that a paused or fast-forwarded simulation moves its trucks accordingly.
  */
 public class MovingTruck {
     /**
@@ -12,11 +16,13 @@ public class MovingTruck {
 
     private final int stationID;
     private final int fireID;
-    private double startX, startY;
-    private double destX, destY;
-    private long startTime;
-    private long travelDurationMs;
-    private State state;
+    private final double startX, startY;
+    private volatile double destX, destY;
+    private volatile long startTime;
+    private volatile long travelDurationMs;
+    private volatile State state;
+    private final LongSupplier clock;
+    private final Route route; // null for a truck driving in a straight line
 
     /**
      * Constructs a new {@code MovingTruck} instance.
@@ -35,6 +41,83 @@ public class MovingTruck {
                        double destX, double destY,
                        long travelDurationMs,
                        State initialState) {
+        this(stationID, fireID, startX, startY, destX, destY, travelDurationMs, initialState,
+                System.currentTimeMillis());
+    }
+
+    /**
+     * Constructs a {@code MovingTruck} whose current leg started at a given time.
+     *
+     * @param stationID        the ID of the fire station sending the truck
+     * @param fireID           the ID of the fire the truck is responding to
+     * @param startX           the x-coordinate of the truck’s starting position
+     * @param startY           the y-coordinate of the truck’s starting position
+     * @param destX            the x-coordinate of the destination
+     * @param destY            the y-coordinate of the destination
+     * @param travelDurationMs the travel time in milliseconds
+     * @param state            the state of the truck
+     * @param startTime        the time the current leg started, in epoch milliseconds
+     */
+    public MovingTruck(int stationID, int fireID,
+                       double startX, double startY,
+                       double destX, double destY,
+                       long travelDurationMs,
+                       State state,
+                       long startTime) {
+        this(stationID, fireID, startX, startY, destX, destY, travelDurationMs, state, startTime,
+                System::currentTimeMillis);
+    }
+
+    /**
+     * Constructs a {@code MovingTruck} that reads the time from a simulation clock.
+     *
+     * @param stationID        the ID of the fire station sending the truck
+     * @param fireID           the ID of the fire the truck is responding to
+     * @param startX           the x-coordinate of the truck’s starting position
+     * @param startY           the y-coordinate of the truck’s starting position
+     * @param destX            the x-coordinate of the destination
+     * @param destY            the y-coordinate of the destination
+     * @param travelDurationMs the travel time in milliseconds
+     * @param state            the state of the truck
+     * @param startTime        the time the current leg started, in the clock's epoch milliseconds
+     * @param clock            the source of the current time, such as the simulation scheduler
+     */
+    public MovingTruck(int stationID, int fireID,
+                       double startX, double startY,
+                       double destX, double destY,
+                       long travelDurationMs,
+                       State state,
+                       long startTime,
+                       LongSupplier clock) {
+        this(stationID, fireID, startX, startY, destX, destY, travelDurationMs, state, startTime, clock, null);
+    }
+
+    /**
+     * Constructs a {@code MovingTruck} that follows a route on the road network.
+     *
+     * @param stationID        the ID of the fire station sending the truck
+     * @param fireID           the ID of the fire the truck is responding to
+     * @param startX           the x-coordinate of the truck’s starting position
+     * @param startY           the y-coordinate of the truck’s starting position
+     * @param destX            the x-coordinate of the destination
+     * @param destY            the y-coordinate of the destination
+     * @param travelDurationMs the travel time in milliseconds
+     * @param state            the state of the truck
+     * @param startTime        the time the current leg started, in the clock's epoch milliseconds
+     * @param clock            the source of the current time, such as the simulation scheduler
+     * @param route            the roads from the station to the fire, driven backwards while
+     *                         returning, or {@code null} to drive in a straight line
+     */
+    public MovingTruck(int stationID, int fireID,
+                       double startX, double startY,
+                       double destX, double destY,
+                       long travelDurationMs,
+                       State state,
+                       long startTime,
+                       LongSupplier clock,
+                       Route route) {
+        this.clock = clock;
+        this.route = route;
         this.stationID = stationID;
         this.fireID = fireID;
         this.startX = startX;
@@ -42,8 +125,8 @@ public class MovingTruck {
         this.destX = destX;
         this.destY = destY;
         this.travelDurationMs = travelDurationMs;
-        this.state = initialState;
-        this.startTime = System.currentTimeMillis();
+        this.state = state;
+        this.startTime = startTime;
     }
 
     /**
@@ -53,7 +136,7 @@ public class MovingTruck {
      */
     public void setState(State newState) {
         this.state = newState;
-        this.startTime = System.currentTimeMillis();
+        this.startTime = clock.getAsLong();
     }
 
     /**
@@ -77,10 +160,10 @@ public class MovingTruck {
     }
 
     /**
-     * Resets the truck’s start time to the current system time.
+     * Resets the truck’s start time to the current time of its clock.
      */
     public void resetStartTime() {
-        this.startTime = System.currentTimeMillis();
+        this.startTime = clock.getAsLong();
     }
 
     /** @return the ID of the station the truck belongs to */
@@ -98,33 +181,102 @@ public class MovingTruck {
         return state;
     }
 
+    /** @return the x-coordinate the truck started from */
+    public double getStartX() {
+        return startX;
+    }
+
+    /** @return the y-coordinate the truck started from */
+    public double getStartY() {
+        return startY;
+    }
+
+    /** @return the x-coordinate the truck is heading to */
+    public double getDestX() {
+        return destX;
+    }
+
+    /** @return the y-coordinate the truck is heading to */
+    public double getDestY() {
+        return destY;
+    }
+
+    /** @return the time the current leg started, in epoch milliseconds */
+    public long getStartTime() {
+        return startTime;
+    }
+
+    /** @return the roads from the station to the fire, or {@code null} for a straight line */
+    public Route getRoute() {
+        return route;
+    }
+
+    /** @return the travel duration of the current leg in milliseconds */
+    public long getTravelDuration() {
+        return travelDurationMs;
+    }
+
+    /**
+     * Computes how far along its current leg the truck is at a given time.
+     *
+     * @param timeMillis the time to evaluate, in epoch milliseconds
+     * @return the fraction of the leg covered, from 0 to 1; 1 while extinguishing
+     */
+    public double progress(long timeMillis) {
+        if (state == State.EXTINGUISHING) return 1;
+        double t = (timeMillis - startTime) / (double) Math.max(1, travelDurationMs);
+        return Math.min(1, Math.max(0, t));
+    }
+
+    /** @return how far along its route the truck is, which runs backwards while returning */
+    private double routeFraction(long timeMillis) {
+        double p = progress(timeMillis);
+        return state == State.RETURNING ? 1 - p : p;
+    }
+
+    /**
+     * Computes the truck's x-coordinate at a given time. Evaluate every truck of a frame
+     * at the same time so that all positions, and both coordinates, belong to one instant.
+     *
+     * @param timeMillis the time to evaluate, in epoch milliseconds
+     * @return the truck's x-coordinate
+     */
+    public double getX(long timeMillis) {
+        if (route != null) return route.xAt(routeFraction(timeMillis));
+        return startX + (destX - startX) * progress(timeMillis);
+    }
+
+    /**
+     * Computes the truck's y-coordinate at a given time.
+     *
+     * @param timeMillis the time to evaluate, in epoch milliseconds
+     * @return the truck's y-coordinate
+     * @see #getX(long)
+     */
+    public double getY(long timeMillis) {
+        if (route != null) return route.yAt(routeFraction(timeMillis));
+        return startY + (destY - startY) * progress(timeMillis);
+    }
+
     /**
      * Computes the truck’s current x-coordinate using linear interpolation.
+     * This reads the truck's clock on every call; prefer {@link #getX(long)} with one
+     * timestamp per frame.
      *
      * @return the truck’s x-coordinate
      */
     public double getCurrentX() {
-        if (state == State.EXTINGUISHING) {
-            return destX;
-        }
-        double elapsed = System.currentTimeMillis() - startTime;
-        double t = elapsed / (double) travelDurationMs;
-        if (t > 1) t = 1;
-        return startX + (destX - startX) * t;
+        return getX(clock.getAsLong());
     }
 
     /**
      * Computes the truck’s current y-coordinate using linear interpolation.
+     * This reads the truck's clock on every call; prefer {@link #getY(long)} with one
+     * timestamp per frame.
      *
      * @return the truck’s y-coordinate
      */
     public double getCurrentY() {
-        if (state == State.EXTINGUISHING) {
-            return destY;
-        }
-        double elapsed = System.currentTimeMillis() - startTime;
-        double t = elapsed / (double) travelDurationMs;
-        if (t > 1) t = 1;
-        return startY + (destY - startY) * t;
+        return getY(clock.getAsLong());
     }
 }
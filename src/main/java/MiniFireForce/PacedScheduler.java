@@ -0,0 +1,214 @@
+package MiniFireForce;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A {@link SimulationScheduler} for live runs that paces a discrete-event queue with a
+ * {@link SimulationClock}.
+ * <p>
+ * Tasks are kept in a {@link DiscreteEventScheduler} and run one at a time on a single driver
+ * thread once the clock reaches their due time, and {@link #currentTimeMillis()} reports that
+ * due time while they run. The simulation therefore sees exactly the event sequence a headless
+ * run would: pausing the clock holds every pending task, trucks included, and changing its
+ * speed only changes how fast the same events are played back. Other threads, such as the GUI,
+ * read the clock itself, which is never behind the last event run.
+ * <p>
+ * Tasks scheduled before {@link #start()} wait until it is called, and their delays count
+ * from the time it is called. A simulation built before starting its scheduler therefore
+ * sets up its timers in a fixed order at one instant, and replays exactly like a headless
+ * run with the same seed, started at the same time.
+ */
+public class PacedScheduler implements SimulationScheduler {
+    /**
+     * A task scheduled from outside the driver thread.
+     */
+    private static final class Request {
+        final Runnable task;
+        final long submitted; // Simulation time of the request, or NOT_STARTED
+        final long delay;
+        final long period;
+
+        Request(Runnable task, long submitted, long delay, long period) {
+            this.task = task;
+            this.submitted = submitted;
+            this.delay = delay;
+            this.period = period;
+        }
+    }
+
+    private static final long NOT_STARTED = Long.MIN_VALUE;
+
+    private final SimulationClock clock;
+    private final DiscreteEventScheduler events;
+    private final ConcurrentLinkedQueue<Request> inbox = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition wakeUp = lock.newCondition();
+    private final Thread driver;
+    private volatile long startTime = NOT_STARTED;
+    private boolean woken; // Guarded by lock
+    private volatile boolean shutdown;
+    private volatile int pending;
+
+    /**
+     * Creates a scheduler paced by a new clock that starts at the current wall-clock time.
+     */
+    public PacedScheduler() {
+        this(new SimulationClock());
+    }
+
+    /**
+     * Creates a scheduler paced by the given clock. Call {@link #start()} to begin running tasks.
+     *
+     * @param clock the clock that decides when tasks are due
+     */
+    public PacedScheduler(SimulationClock clock) {
+        this.clock = clock;
+        this.events = new DiscreteEventScheduler(clock.currentTimeMillis());
+        clock.addListener(this::wake);
+        driver = new Thread(this::drive, "simulation-driver");
+        driver.setDaemon(true);
+    }
+
+    /**
+     * Starts the driver thread, which runs scheduled tasks as the clock reaches them.
+     * Calling this more than once has no further effect.
+     */
+    public synchronized void start() {
+        if (startTime != NOT_STARTED) return;
+        // Nothing has run yet, so this only moves the queue's clock up to the start
+        long now = clock.currentTimeMillis();
+        events.runUntil(now);
+        startTime = now;
+        driver.start();
+    }
+
+    /** @return the clock pacing this scheduler */
+    public SimulationClock getClock() {
+        return clock;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return Thread.currentThread() == driver ? events.currentTimeMillis() : clock.currentTimeMillis();
+    }
+
+    @Override
+    public void schedule(Runnable task, long delay, TimeUnit unit) {
+        if (Thread.currentThread() == driver) {
+            events.schedule(task, delay, unit);
+        } else {
+            submit(new Request(task, submitTime(), Math.max(0, unit.toMillis(delay)), 0));
+        }
+    }
+
+    @Override
+    public void scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit) {
+        if (Thread.currentThread() == driver) {
+            events.scheduleAtFixedRate(task, initialDelay, period, unit);
+            return;
+        }
+        long periodMs = unit.toMillis(period);
+        if (periodMs <= 0) {
+            throw new IllegalArgumentException("Period must be at least one millisecond");
+        }
+        submit(new Request(task, submitTime(), Math.max(0, unit.toMillis(initialDelay)), periodMs));
+    }
+
+    /**
+     * @return the time a request from outside the driver thread counts its delay from,
+     *         or {@link #NOT_STARTED} to count from the start
+     */
+    private long submitTime() {
+        return startTime == NOT_STARTED ? NOT_STARTED : clock.currentTimeMillis();
+    }
+
+    private void submit(Request r) {
+        if (shutdown) return;
+        inbox.add(r);
+        wake();
+    }
+
+    @Override
+    public int pendingTasks() {
+        return pending + inbox.size();
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+        wake();
+    }
+
+    /**
+     * Wakes the driver thread so that it re-reads the clock and the inbox.
+     */
+    private void wake() {
+        lock.lock();
+        try {
+            woken = true;
+            wakeUp.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The driver loop: moves requests from other threads into the queue, runs every task
+     * the clock has reached, then sleeps until the next one is due or something changes.
+     */
+    private void drive() {
+        while (!shutdown) {
+            for (Request r; (r = inbox.poll()) != null; ) {
+                // The queue's clock never runs ahead of the pacing clock, so the delay is non-negative
+                long from = r.submitted == NOT_STARTED ? startTime : r.submitted;
+                long delay = from + r.delay - events.currentTimeMillis();
+                if (r.period > 0) {
+                    events.scheduleAtFixedRate(r.task, delay, r.period, TimeUnit.MILLISECONDS);
+                } else {
+                    events.schedule(r.task, delay, TimeUnit.MILLISECONDS);
+                }
+            }
+            long now = clock.currentTimeMillis();
+            while (!shutdown && events.nextEventTime() <= now) {
+                try {
+                    events.step();
+                } catch (RuntimeException e) {
+                    // As with an executor, a failing task is dropped without stopping the others
+                    Thread.UncaughtExceptionHandler h = driver.getUncaughtExceptionHandler();
+                    h.uncaughtException(driver, e);
+                }
+            }
+            pending = events.pendingEvents();
+
+            long waitNanos = clock.wallNanosUntil(events.nextEventTime());
+            lock.lock();
+            try {
+                while (!woken && !shutdown && waitNanos > 0) {
+                    waitNanos = waitNanos == Long.MAX_VALUE ? awaitSignal() : wakeUp.awaitNanos(waitNanos);
+                }
+                woken = false;
+            } catch (InterruptedException e) {
+                break;
+            } finally {
+                lock.unlock();
+            }
+        }
+        events.shutdown();
+        inbox.clear();
+        pending = 0;
+    }
+
+    /**
+     * Waits for a signal with no time limit, as when the clock is paused.
+     *
+     * @return {@link Long#MAX_VALUE}, so the caller keeps waiting after a spurious wake-up
+     * @throws InterruptedException if the driver thread is interrupted
+     */
+    private long awaitSignal() throws InterruptedException {
+        wakeUp.await();
+        return Long.MAX_VALUE;
+    }
+}
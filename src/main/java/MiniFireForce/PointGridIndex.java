@@ -0,0 +1,173 @@
+package MiniFireForce;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A uniform grid over a set of points, rebuilt in bulk, for rectangle queries and counts.
+ * <p>
+ * {@link #build} counting-sorts the point indexes by cell into one array, so a query only
+ * visits the points of the cells it overlaps. A summed-area table of the cell counts answers
+ * "how many points lie in this block of cells" in constant time, which is what the map uses
+ * both to decide whether to draw individual icons and to aggregate points into heat cells.
+ * Points outside the bounds are filed under the nearest edge cell. Not thread-safe.
+ */
+final class PointGridIndex {
+    private final float minX;
+    private final float minY;
+    private final float cellWidth;
+    private final float cellHeight;
+    private final int side;
+    private final int[] cellStart;
+    private final int[] sat;
+    private int[] items = new int[0];
+    private int[] cellOf = new int[0];
+    private int size;
+
+    /**
+     * Creates an empty index.
+     *
+     * @param minX the lower x bound
+     * @param minY the lower y bound
+     * @param maxX the upper x bound
+     * @param maxY the upper y bound
+     * @param side the number of cells along each axis
+     */
+    PointGridIndex(float minX, float minY, float maxX, float maxY, int side) {
+        this.minX = minX;
+        this.minY = minY;
+        this.side = side;
+        this.cellWidth = (maxX - minX) / side;
+        this.cellHeight = (maxY - minY) / side;
+        this.cellStart = new int[side * side + 1];
+        this.sat = new int[(side + 1) * (side + 1)];
+    }
+
+    /** @return the number of cells along each axis */
+    int side() { return side; }
+
+    /** @return the lower x bound */
+    float minX() { return minX; }
+
+    /** @return the lower y bound */
+    float minY() { return minY; }
+
+    /** @return the width of a cell */
+    float cellWidth() { return cellWidth; }
+
+    /** @return the height of a cell */
+    float cellHeight() { return cellHeight; }
+
+    /** @return the number of indexed points */
+    int size() { return size; }
+
+    /**
+     * @param x an x-coordinate
+     * @return the column holding it, clamped to the grid
+     */
+    int cellX(float x) {
+        return Math.min(side - 1, Math.max(0, (int) Math.floor((x - minX) / cellWidth)));
+    }
+
+    /**
+     * @param y a y-coordinate
+     * @return the row holding it, clamped to the grid
+     */
+    int cellY(float y) {
+        return Math.min(side - 1, Math.max(0, (int) Math.floor((y - minY) / cellHeight)));
+    }
+
+    /**
+     * Replaces the indexed points.
+     *
+     * @param xs the x-coordinates
+     * @param ys the y-coordinates
+     * @param n  the number of points, taken from the start of the arrays
+     */
+    void build(float[] xs, float[] ys, int n) {
+        if (items.length < n) {
+            items = new int[Math.max(n, items.length * 2)];
+            cellOf = new int[items.length];
+        }
+        size = n;
+        int cells = side * side;
+        Arrays.fill(cellStart, 0);
+        for (int i = 0; i < n; i++) {
+            int c = cellY(ys[i]) * side + cellX(xs[i]);
+            cellOf[i] = c;
+            cellStart[c + 1]++;
+        }
+
+        // Summed-area table of the counts, before they become offsets
+        int w = side + 1;
+        for (int cy = 0; cy < side; cy++) {
+            int rowSum = 0;
+            for (int cx = 0; cx < side; cx++) {
+                rowSum += cellStart[cy * side + cx + 1];
+                sat[(cy + 1) * w + cx + 1] = sat[cy * w + cx + 1] + rowSum;
+            }
+        }
+
+        for (int c = 0; c < cells; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        int[] fill = Arrays.copyOf(cellStart, cells);
+        for (int i = 0; i < n; i++) {
+            items[fill[cellOf[i]]++] = i;
+        }
+    }
+
+    /**
+     * Counts the points in a block of cells.
+     *
+     * @param cx0 the first column
+     * @param cy0 the first row
+     * @param cx1 the last column, inclusive
+     * @param cy1 the last row, inclusive
+     * @return the number of points in those cells
+     */
+    int countCells(int cx0, int cy0, int cx1, int cy1) {
+        cx0 = Math.max(0, cx0);
+        cy0 = Math.max(0, cy0);
+        cx1 = Math.min(side - 1, cx1);
+        cy1 = Math.min(side - 1, cy1);
+        if (cx0 > cx1 || cy0 > cy1) return 0;
+        int w = side + 1;
+        return sat[(cy1 + 1) * w + cx1 + 1] - sat[cy0 * w + cx1 + 1] - sat[(cy1 + 1) * w + cx0] + sat[cy0 * w + cx0];
+    }
+
+    /**
+     * Counts the points in the cells overlapping a rectangle. Points in partly covered
+     * cells are included, so this can overestimate by the contents of the border cells.
+     *
+     * @param x0 the lower x bound
+     * @param y0 the lower y bound
+     * @param x1 the upper x bound
+     * @param y1 the upper y bound
+     * @return the number of points in the overlapped cells
+     */
+    int countIn(float x0, float y0, float x1, float y1) {
+        return countCells(cellX(x0), cellY(y0), cellX(x1), cellY(y1));
+    }
+
+    /**
+     * Visits the points in the cells overlapping a rectangle, which may include some
+     * points just outside it.
+     *
+     * @param x0     the lower x bound
+     * @param y0     the lower y bound
+     * @param x1     the upper x bound
+     * @param y1     the upper y bound
+     * @param action receives the index of each point, as passed to {@link #build}
+     */
+    void forEachIn(float x0, float y0, float x1, float y1, IntConsumer action) {
+        int cx0 = cellX(x0), cx1 = cellX(x1);
+        for (int cy = cellY(y0), cy1 = cellY(y1); cy <= cy1; cy++) {
+            int from = cellStart[cy * side + cx0];
+            int to = cellStart[cy * side + cx1 + 1];
+            for (int k = from; k < to; k++) {
+                action.accept(items[k]);
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package MiniFireForce;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link SimulationScheduler} that runs tasks on the wall clock
+ * using a {@link ScheduledExecutorService}.
+ */
+public class RealTimeScheduler implements SimulationScheduler {
+    private final ScheduledExecutorService executor;
+
+    /**
+     * Creates a real-time scheduler backed by a pool of four threads.
+     */
+    public RealTimeScheduler() {
+        this(Executors.newScheduledThreadPool(4));
+    }
+
+    /**
+     * Creates a real-time scheduler backed by the given executor.
+     *
+     * @param executor the executor that runs scheduled tasks
+     */
+    public RealTimeScheduler(ScheduledExecutorService executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    @Override
+    public void schedule(Runnable task, long delay, TimeUnit unit) {
+        executor.schedule(task, delay, unit);
+    }
+
+    @Override
+    public void scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit) {
+        executor.scheduleAtFixedRate(task, initialDelay, period, unit);
+    }
+
+    @Override
+    public int pendingTasks() {
+        return executor instanceof ThreadPoolExecutor ? ((ThreadPoolExecutor) executor).getQueue().size() : -1;
+    }
+
+    @Override
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,262 @@
+package MiniFireForce;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * An immutable road graph that trucks drive on instead of straight lines.
+ * <p>
+ * Nodes are junctions in map coordinates; roads join two nodes in both directions. A road
+ * has a speed factor, so a truck covers it at {@code truckSpeed * speedFactor}; its cost is
+ * stored as {@code length / speedFactor}, i.e. the distance a truck would cover off-road in
+ * the same time. The graph is kept in compressed sparse row form: the arcs leaving node
+ * {@code v} are {@code firstArc[v]} up to {@code firstArc[v + 1]}.
+ * <p>
+ * Networks are read from a text file, one entry per line, with {@code #} starting a comment:
+ * <pre>
+ * node &lt;id&gt; &lt;x&gt; &lt;y&gt;
+ * road &lt;idA&gt; &lt;idB&gt; [speedFactor]
+ * </pre>
+ * Node IDs are any integers, as long as each is declared before roads use it.
+ */
+public final class RoadNetwork {
+    private final float[] nodeX;
+    private final float[] nodeY;
+    private final int[] firstArc;
+    private final int[] arcHead;
+    private final float[] arcCost;
+    private final float maxSpeedFactor;
+    private final PointGridIndex nodeIndex;
+    private final float snapStep;
+
+    private RoadNetwork(float[] nodeX, float[] nodeY, int[] firstArc, int[] arcHead, float[] arcCost,
+                        float maxSpeedFactor) {
+        this.nodeX = nodeX;
+        this.nodeY = nodeY;
+        this.firstArc = firstArc;
+        this.arcHead = arcHead;
+        this.arcCost = arcCost;
+        this.maxSpeedFactor = maxSpeedFactor;
+
+        float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE, maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+        for (int i = 0; i < nodeX.length; i++) {
+            minX = Math.min(minX, nodeX[i]);
+            minY = Math.min(minY, nodeY[i]);
+            maxX = Math.max(maxX, nodeX[i]);
+            maxY = Math.max(maxY, nodeY[i]);
+        }
+        // About two nodes per cell
+        int side = Math.max(1, (int) Math.sqrt(nodeX.length / 2.0));
+        float extent = Math.max(Math.max(maxX - minX, maxY - minY), 1f);
+        nodeIndex = new PointGridIndex(minX, minY, Math.max(maxX, minX + 1f), Math.max(maxY, minY + 1f), side);
+        nodeIndex.build(nodeX, nodeY, nodeX.length);
+        snapStep = extent / side;
+    }
+
+    // ===== Loading =====
+
+    /**
+     * Reads a network from a text file in the format described above.
+     *
+     * @param file the file to read
+     * @return the network
+     * @throws IOException if the file cannot be read or is malformed
+     */
+    public static RoadNetwork load(Path file) throws IOException {
+        Builder builder = new Builder();
+        IntIntMap index = new IntIntMap(1024);
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNo = 0;
+            while ((line = in.readLine()) != null) {
+                lineNo++;
+                int hash = line.indexOf('#');
+                if (hash >= 0) line = line.substring(0, hash);
+                line = line.trim();
+                if (line.isEmpty()) continue;
+                String[] parts = line.split("\\s+");
+                try {
+                    switch (parts[0]) {
+                        case "node": {
+                            if (parts.length != 4) throw new IllegalArgumentException("expected: node <id> <x> <y>");
+                            int id = Integer.parseInt(parts[1]);
+                            if (index.get(id) != IntIntMap.MISSING) {
+                                throw new IllegalArgumentException("duplicate node " + id);
+                            }
+                            index.put(id, builder.addNode(Float.parseFloat(parts[2]), Float.parseFloat(parts[3])));
+                            break;
+                        }
+                        case "road": {
+                            if (parts.length != 3 && parts.length != 4) {
+                                throw new IllegalArgumentException("expected: road <idA> <idB> [speedFactor]");
+                            }
+                            int a = node(index, parts[1]);
+                            int b = node(index, parts[2]);
+                            float factor = parts.length == 4 ? Float.parseFloat(parts[3]) : 1f;
+                            builder.addRoad(a, b, factor);
+                            break;
+                        }
+                        default:
+                            throw new IllegalArgumentException("unknown entry '" + parts[0] + "'");
+                    }
+                } catch (IllegalArgumentException e) {
+                    throw new IOException(file + " line " + lineNo + ": " + e.getMessage(), e);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    private static int node(IntIntMap index, String id) {
+        int n = index.get(Integer.parseInt(id));
+        if (n == IntIntMap.MISSING) throw new IllegalArgumentException("undeclared node " + id);
+        return n;
+    }
+
+    /**
+     * Assembles a network in code, as the loader and the benchmarks do.
+     */
+    public static final class Builder {
+        private float[] xs = new float[64];
+        private float[] ys = new float[64];
+        private int nodes;
+        private int[] roadA = new int[64];
+        private int[] roadB = new int[64];
+        private float[] roadFactor = new float[64];
+        private int roads;
+
+        /**
+         * Adds a junction.
+         *
+         * @param x its x-coordinate
+         * @param y its y-coordinate
+         * @return its node index, counting from 0 in the order added
+         */
+        public int addNode(float x, float y) {
+            if (nodes == xs.length) {
+                xs = Arrays.copyOf(xs, nodes * 2);
+                ys = Arrays.copyOf(ys, nodes * 2);
+            }
+            xs[nodes] = x;
+            ys[nodes] = y;
+            return nodes++;
+        }
+
+        /**
+         * Adds a two-way road between two junctions.
+         *
+         * @param a           one node index
+         * @param b           the other node index
+         * @param speedFactor how much faster than a truck's base speed it can be driven
+         * @return this builder
+         * @throws IllegalArgumentException if a node does not exist or the factor is not positive
+         */
+        public Builder addRoad(int a, int b, float speedFactor) {
+            if (a < 0 || a >= nodes || b < 0 || b >= nodes) {
+                throw new IllegalArgumentException("road " + a + "-" + b + " refers to a missing node");
+            }
+            if (!(speedFactor > 0) || Float.isInfinite(speedFactor)) {
+                throw new IllegalArgumentException("speed factor must be positive: " + speedFactor);
+            }
+            if (roads == roadA.length) {
+                roadA = Arrays.copyOf(roadA, roads * 2);
+                roadB = Arrays.copyOf(roadB, roads * 2);
+                roadFactor = Arrays.copyOf(roadFactor, roads * 2);
+            }
+            roadA[roads] = a;
+            roadB[roads] = b;
+            roadFactor[roads] = speedFactor;
+            roads++;
+            return this;
+        }
+
+        /**
+         * @return the network
+         * @throws IllegalStateException if no node was added
+         */
+        public RoadNetwork build() {
+            if (nodes == 0) throw new IllegalStateException("a road network needs at least one node");
+            int[] first = new int[nodes + 1];
+            for (int r = 0; r < roads; r++) {
+                first[roadA[r] + 1]++;
+                first[roadB[r] + 1]++;
+            }
+            for (int v = 0; v < nodes; v++) first[v + 1] += first[v];
+            int[] fill = Arrays.copyOf(first, nodes);
+            int[] head = new int[roads * 2];
+            float[] cost = new float[roads * 2];
+            float maxFactor = 1f;
+            for (int r = 0; r < roads; r++) {
+                int a = roadA[r], b = roadB[r];
+                float c = (float) Math.hypot(xs[a] - xs[b], ys[a] - ys[b]) / roadFactor[r];
+                head[fill[a]] = b;
+                cost[fill[a]++] = c;
+                head[fill[b]] = a;
+                cost[fill[b]++] = c;
+                maxFactor = Math.max(maxFactor, roadFactor[r]);
+            }
+            return new RoadNetwork(Arrays.copyOf(xs, nodes), Arrays.copyOf(ys, nodes), first, head, cost, maxFactor);
+        }
+    }
+
+    // ===== Graph access =====
+
+    /** @return the number of junctions */
+    public int nodeCount() { return nodeX.length; }
+
+    /** @return the number of directed arcs, two per road */
+    public int arcCount() { return arcHead.length; }
+
+    /** @return the x-coordinate of a node */
+    public float nodeX(int node) { return nodeX[node]; }
+
+    /** @return the y-coordinate of a node */
+    public float nodeY(int node) { return nodeY[node]; }
+
+    /** @return the index of the first arc leaving {@code node} */
+    int firstArc(int node) { return firstArc[node]; }
+
+    /** @return one past the index of the last arc leaving {@code node} */
+    int endArc(int node) { return firstArc[node + 1]; }
+
+    /** @return the node an arc leads to */
+    int arcHead(int arc) { return arcHead[arc]; }
+
+    /** @return an arc's cost, as an equivalent off-road distance */
+    float arcCost(int arc) { return arcCost[arc]; }
+
+    /**
+     * @return the highest road speed factor, at least 1; straight-line distance divided by
+     *         this never overestimates a cost, which makes it an admissible A* heuristic
+     */
+    public float maxSpeedFactor() { return maxSpeedFactor; }
+
+    /**
+     * Finds the junction closest to a point, searching squares of grid cells of growing size.
+     *
+     * @param x the x-coordinate
+     * @param y the y-coordinate
+     * @return the nearest node index
+     */
+    public int nearestNode(float x, float y) {
+        int[] best = {-1};
+        float[] bestD2 = {Float.MAX_VALUE};
+        for (float r = snapStep; ; r *= 2) {
+            nodeIndex.forEachIn(x - r, y - r, x + r, y + r, i -> {
+                float dx = nodeX[i] - x, dy = nodeY[i] - y;
+                float d2 = dx * dx + dy * dy;
+                if (d2 < bestD2[0] || (d2 == bestD2[0] && i < best[0])) {
+                    bestD2[0] = d2;
+                    best[0] = i;
+                }
+            });
+            // A hit within the square's inscribed circle cannot be beaten by a node outside it
+            if (best[0] >= 0 && bestD2[0] <= r * r) return best[0];
+            if (r > 1e7f) return best[0] >= 0 ? best[0] : 0;
+        }
+    }
+}
@@ -0,0 +1,481 @@
+package MiniFireForce;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Predicate;
+
+/**
+ * Travel times and routes over a {@link RoadNetwork}.
+ * <p>
+ * A truck drives straight from its station to the nearest junction, along the roads to
+ * the junction nearest its destination, and straight on from there. Every station gets a
+ * shortest-path tree over the whole network when it is added, so the travel time from a
+ * station to any point is one array lookup after snapping the point to a junction; that
+ * is what dispatch asks for thousands of times a round. Trees only store distances, and a
+ * route is recovered by walking back along arcs whose cost closes the distance exactly,
+ * so each tree costs four bytes per junction.
+ * <p>
+ * Point-to-point queries, and stations added without a tree, use A* search. The first
+ * few station trees double as landmarks: by the triangle inequality, the cost between two
+ * junctions is at least the difference of their costs from any landmark, which bounds
+ * the remaining cost far more tightly than straight-line distance over fast roads.
+ * Recently used paths are kept in a small LRU cache, since every truck of a crew follows
+ * the same path. Safe to use from several threads.
+ */
+public final class RoadRouter implements TravelModel {
+    private static final int CACHE_SIZE = 4096;
+    private static final int MAX_LANDMARKS = 8;
+
+    private final RoadNetwork network;
+    private final double truckSpeed;
+    private final Map<Integer, Tree> trees = new ConcurrentHashMap<>();       // By station ID
+    private final Map<Integer, float[]> treesByRoot = new ConcurrentHashMap<>(); // By root junction
+    private final Map<Long, int[]> pathCache = new LinkedHashMap<Long, int[]>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, int[]> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+    private volatile float[][] landmarks = new float[0][];
+    // Idle search scratch space, one per search that has run at the same time as another
+    private final ConcurrentLinkedQueue<Search> searches = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Creates a router with no stations.
+     *
+     * @param network    the roads
+     * @param truckSpeed the truck speed in units per second on a road with speed factor 1
+     */
+    public RoadRouter(RoadNetwork network, double truckSpeed) {
+        this.network = network;
+        this.truckSpeed = truckSpeed;
+    }
+
+    /** @return the roads this router drives on */
+    public RoadNetwork getNetwork() {
+        return network;
+    }
+
+    // ===== Station trees =====
+
+    /**
+     * Builds the shortest-path tree of a station, replacing any earlier one.
+     *
+     * @param station the station
+     */
+    public void addStation(FireStation station) {
+        int root = network.nearestNode(station.getX(), station.getY());
+        float[] dist = treesByRoot.get(root);
+        if (dist == null) {
+            Search search = acquireSearch();
+            try {
+                dist = search.tree(root);
+            } finally {
+                searches.offer(search);
+            }
+            treesByRoot.put(root, dist);
+            addLandmark(dist);
+        }
+        trees.put(station.getID(), new Tree(root, dist));
+    }
+
+    private synchronized void addLandmark(float[] dist) {
+        if (landmarks.length < MAX_LANDMARKS) {
+            float[][] grown = Arrays.copyOf(landmarks, landmarks.length + 1);
+            grown[landmarks.length] = dist;
+            landmarks = grown;
+        }
+    }
+
+    /** A station's junction and the cost from it to every junction, infinite if unreachable. */
+    private static final class Tree {
+        final int root;
+        final float[] dist;
+
+        Tree(int root, float[] dist) {
+            this.root = root;
+            this.dist = dist;
+        }
+    }
+
+    /**
+     * @param station a station
+     * @return {@code true} if the station has a shortest-path tree
+     */
+    public boolean hasStation(FireStation station) {
+        return trees.containsKey(station.getID());
+    }
+
+    // ===== Travel times =====
+
+    @Override
+    public double travelSeconds(FireStation station, float x, float y) {
+        return cost(station, x, y) / truckSpeed;
+    }
+
+    /**
+     * Estimates the driving time between two points.
+     *
+     * @param x0 the x-coordinate of the start
+     * @param y0 the y-coordinate of the start
+     * @param x1 the x-coordinate of the destination
+     * @param y1 the y-coordinate of the destination
+     * @return the driving time in seconds
+     */
+    public double travelSeconds(float x0, float y0, float x1, float y1) {
+        int from = network.nearestNode(x0, y0);
+        int to = network.nearestNode(x1, y1);
+        int[] path = path(from, to);
+        if (path == null) return Math.hypot(x1 - x0, y1 - y0) / truckSpeed;
+        return (access(x0, y0, from) + pathCost(path) + access(x1, y1, to)) / truckSpeed;
+    }
+
+    /**
+     * @return the cost of driving from a station to a point, as an equivalent off-road
+     *         distance; the straight-line distance if the roads do not connect them
+     */
+    private double cost(FireStation st, float x, float y) {
+        int to = network.nearestNode(x, y);
+        Tree tree = trees.get(st.getID());
+        int from = tree != null ? tree.root : network.nearestNode(st.getX(), st.getY());
+        double roads;
+        if (tree != null) {
+            roads = tree.dist[to];
+        } else {
+            int[] path = path(from, to);
+            roads = path == null ? Double.POSITIVE_INFINITY : pathCost(path);
+        }
+        if (roads == Double.POSITIVE_INFINITY) return st.calculateDistance(x, y);
+        return access(st.getX(), st.getY(), from) + roads + access(x, y, to);
+    }
+
+    /** @return the straight-line distance between a point and a junction */
+    private double access(float x, float y, int node) {
+        return Math.hypot(network.nodeX(node) - x, network.nodeY(node) - y);
+    }
+
+    @Override
+    public List<FireStation> fastest(StationIndex index, float x, float y, int k, Predicate<FireStation> filter) {
+        if (k <= 0) return new ArrayList<>();
+        // No station farther than d can be reached in less than d / maxSpeedFactor, so
+        // widen the straight-line candidates until the k-th best cost is within that bound
+        for (int m = Math.max(4 * k, 16); ; m *= 4) {
+            List<FireStation> candidates = index.kNearest(x, y, m, filter);
+            int n = candidates.size();
+            double[] costs = new double[n];
+            Integer[] order = new Integer[n];
+            for (int i = 0; i < n; i++) {
+                costs[i] = cost(candidates.get(i), x, y);
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.<Integer>comparingDouble(i -> costs[i])
+                    .thenComparingInt(i -> candidates.get(i).getID()));
+            int take = Math.min(k, n);
+            boolean exhausted = n < m || m >= index.size();
+            double bound = n == 0 ? 0 : candidates.get(n - 1).calculateDistance(x, y) / network.maxSpeedFactor();
+            if (exhausted || take == 0 || costs[order[take - 1]] <= bound) {
+                List<FireStation> result = new ArrayList<>(take);
+                for (int i = 0; i < take; i++) result.add(candidates.get(order[i]));
+                return result;
+            }
+        }
+    }
+
+    // ===== Routes =====
+
+    /**
+     * Finds the route a truck drives from a station to a point.
+     *
+     * @param station the station
+     * @param x       the x-coordinate of the destination
+     * @param y       the y-coordinate of the destination
+     * @return the route, or {@code null} if the truck drives in a straight line
+     */
+    public Route route(FireStation station, float x, float y) {
+        return route(station.getX(), station.getY(), x, y);
+    }
+
+    /**
+     * Finds the route a truck drives between two points.
+     *
+     * @param x0 the x-coordinate of the start
+     * @param y0 the y-coordinate of the start
+     * @param x1 the x-coordinate of the destination
+     * @param y1 the y-coordinate of the destination
+     * @return the route, or {@code null} if the truck drives in a straight line
+     */
+    public Route route(float x0, float y0, float x1, float y1) {
+        int from = network.nearestNode(x0, y0);
+        int to = network.nearestNode(x1, y1);
+        int[] path = path(from, to);
+        if (path == null) return null;
+        int n = path.length + 2;
+        float[] xs = new float[n];
+        float[] ys = new float[n];
+        float[] at = new float[n];
+        xs[0] = x0;
+        ys[0] = y0;
+        double total = access(x0, y0, from);
+        for (int i = 0; i < path.length; i++) {
+            if (i > 0) total += arcCost(path[i - 1], path[i]);
+            xs[i + 1] = network.nodeX(path[i]);
+            ys[i + 1] = network.nodeY(path[i]);
+            at[i + 1] = (float) total;
+        }
+        total += access(x1, y1, to);
+        xs[n - 1] = x1;
+        ys[n - 1] = y1;
+        if (!(total > 0)) return null;
+        for (int i = 1; i < n - 1; i++) at[i] /= (float) total;
+        at[n - 1] = 1f;
+        return new Route(xs, ys, at);
+    }
+
+    /**
+     * Finds the junctions on a shortest path, from a station tree rooted at {@code from}
+     * if there is one, otherwise by A*.
+     *
+     * @return the path, or {@code null} if the junctions are not connected
+     */
+    private int[] path(int from, int to) {
+        Long key = ((long) from << 32) | (to & 0xffffffffL);
+        synchronized (pathCache) {
+            int[] cached = pathCache.get(key);
+            if (cached != null) return cached.length == 0 ? null : cached;
+        }
+        float[] tree = treesByRoot.get(from);
+        int[] path = tree != null ? walkBack(tree, from, to) : null;
+        if (path == null && (tree == null || tree[to] != Float.POSITIVE_INFINITY)) {
+            Search search = acquireSearch();
+            try {
+                path = search.aStar(from, to, landmarks);
+            } finally {
+                searches.offer(search);
+            }
+        }
+        synchronized (pathCache) {
+            pathCache.put(key, path == null ? new int[0] : path);
+        }
+        return path;
+    }
+
+    /**
+     * Recovers a path from a distance tree by following, from the far end, arcs whose cost
+     * exactly closes the distance. The tree computed each distance as the same float sum,
+     * so the comparison is exact.
+     *
+     * @return the path, or {@code null} if {@code to} is unreachable or, with roads of zero
+     *         length, the walk does not reach the root
+     */
+    private int[] walkBack(float[] tree, int root, int to) {
+        if (tree[to] == Float.POSITIVE_INFINITY) return null;
+        int[] path = new int[16];
+        int n = 0;
+        int v = to;
+        path[n++] = v;
+        while (v != root) {
+            int prev = -1;
+            for (int a = network.firstArc(v); a < network.endArc(v); a++) {
+                int u = network.arcHead(a);
+                if (tree[u] < tree[v] && tree[u] + network.arcCost(a) == tree[v]) {
+                    prev = u;
+                    break;
+                }
+            }
+            if (prev < 0) return null;
+            if (n == path.length) path = Arrays.copyOf(path, n * 2);
+            path[n++] = prev;
+            v = prev;
+        }
+        int[] result = new int[n];
+        for (int i = 0; i < n; i++) result[i] = path[n - 1 - i];
+        return result;
+    }
+
+    /** @return the cost of the cheapest arc from {@code u} to {@code v} */
+    private double arcCost(int u, int v) {
+        float best = Float.POSITIVE_INFINITY;
+        for (int a = network.firstArc(u); a < network.endArc(u); a++) {
+            if (network.arcHead(a) == v) best = Math.min(best, network.arcCost(a));
+        }
+        return best;
+    }
+
+    /** @return the total cost of the arcs along a path */
+    private double pathCost(int[] path) {
+        double total = 0;
+        for (int i = 1; i < path.length; i++) total += arcCost(path[i - 1], path[i]);
+        return total;
+    }
+
+    // ===== Searches =====
+
+    /**
+     * @return idle search scratch space, or new space if every one is in use; hand it back
+     *         to {@link #searches} when done
+     */
+    private Search acquireSearch() {
+        Search search = searches.poll();
+        return search != null ? search : new Search(network);
+    }
+
+    /**
+     * Scratch space for one search at a time, pooled by the router rather than kept per
+     * thread, so that it goes away with the router. Entries are valid only where
+     * {@code stamp} matches the current search, so nothing is cleared between searches.
+     */
+    private static final class Search {
+        private final RoadNetwork network;
+        private final float[] g;
+        private final float[] h;
+        private final int[] parent;
+        private final int[] stamp;
+        private int current;
+        private int[] heapNode = new int[64];
+        private float[] heapKey = new float[64];
+        private int heapSize;
+
+        Search(RoadNetwork network) {
+            this.network = network;
+            int nodes = network.nodeCount();
+            g = new float[nodes];
+            h = new float[nodes];
+            parent = new int[nodes];
+            stamp = new int[nodes];
+        }
+
+        /** @return the cost from {@code root} to every junction, infinite if unreachable */
+        float[] tree(int root) {
+            float[] dist = new float[g.length];
+            Arrays.fill(dist, Float.POSITIVE_INFINITY);
+            dist[root] = 0f;
+            heapSize = 0;
+            push(root, 0f);
+            while (heapSize > 0) {
+                float d = heapKey[0];
+                int v = pop();
+                if (d > dist[v]) continue; // A stale entry
+                for (int a = network.firstArc(v); a < network.endArc(v); a++) {
+                    int u = network.arcHead(a);
+                    float nd = dist[v] + network.arcCost(a);
+                    if (nd < dist[u]) {
+                        dist[u] = nd;
+                        push(u, nd);
+                    }
+                }
+            }
+            return dist;
+        }
+
+        /**
+         * @param marks landmark trees that bound the remaining cost
+         * @return the junctions on a shortest path, or {@code null} if there is none
+         */
+        int[] aStar(int from, int to, float[][] marks) {
+            if (++current == 0) {
+                Arrays.fill(stamp, 0);
+                current = 1;
+            }
+            for (float[] mark : marks) {
+                // Roads are two-way, so a junction the landmark reaches and the target
+                // does not are in different components
+                if ((mark[from] == Float.POSITIVE_INFINITY) != (mark[to] == Float.POSITIVE_INFINITY)) return null;
+            }
+            float tx = network.nodeX(to), ty = network.nodeY(to);
+            float inv = 1f / network.maxSpeedFactor();
+            heapSize = 0;
+            visit(from, 0f, -1, heuristic(from, to, tx, ty, inv, marks));
+            push(from, h[from]);
+            while (heapSize > 0) {
+                float f = heapKey[0];
+                int v = pop();
+                if (v == to) return trace(to);
+                if (f > g[v] + h[v]) continue; // A stale entry
+                for (int a = network.firstArc(v); a < network.endArc(v); a++) {
+                    int u = network.arcHead(a);
+                    float ng = g[v] + network.arcCost(a);
+                    if (stamp[u] != current) {
+                        visit(u, ng, v, heuristic(u, to, tx, ty, inv, marks));
+                        push(u, ng + h[u]);
+                    } else if (ng < g[u]) {
+                        g[u] = ng;
+                        parent[u] = v;
+                        push(u, ng + h[u]);
+                    }
+                }
+            }
+            return null;
+        }
+
+        /** @return a lower bound on the cost from {@code v} to {@code to} */
+        private float heuristic(int v, int to, float tx, float ty, float inv, float[][] marks) {
+            float best = (float) Math.hypot(network.nodeX(v) - tx, network.nodeY(v) - ty) * inv;
+            for (float[] mark : marks) {
+                float dv = mark[v], dt = mark[to];
+                if (dv != Float.POSITIVE_INFINITY && dt != Float.POSITIVE_INFINITY) {
+                    best = Math.max(best, Math.abs(dt - dv));
+                }
+            }
+            return best;
+        }
+
+        private void visit(int v, float cost, int from, float estimate) {
+            stamp[v] = current;
+            g[v] = cost;
+            h[v] = estimate;
+            parent[v] = from;
+        }
+
+        private int[] trace(int to) {
+            int n = 0;
+            for (int v = to; v >= 0; v = parent[v]) n++;
+            int[] path = new int[n];
+            for (int v = to; v >= 0; v = parent[v]) path[--n] = v;
+            return path;
+        }
+
+        // Binary min-heap of (node, key) pairs; a node may appear more than once
+
+        private void push(int node, float key) {
+            if (heapSize == heapNode.length) {
+                heapNode = Arrays.copyOf(heapNode, heapSize * 2);
+                heapKey = Arrays.copyOf(heapKey, heapSize * 2);
+            }
+            int i = heapSize++;
+            while (i > 0) {
+                int p = (i - 1) >>> 1;
+                if (heapKey[p] <= key) break;
+                heapNode[i] = heapNode[p];
+                heapKey[i] = heapKey[p];
+                i = p;
+            }
+            heapNode[i] = node;
+            heapKey[i] = key;
+        }
+
+        private int pop() {
+            int top = heapNode[0];
+            int node = heapNode[--heapSize];
+            float key = heapKey[heapSize];
+            int i = 0;
+            while (true) {
+                int c = 2 * i + 1;
+                if (c >= heapSize) break;
+                if (c + 1 < heapSize && heapKey[c + 1] < heapKey[c]) c++;
+                if (heapKey[c] >= key) break;
+                heapNode[i] = heapNode[c];
+                heapKey[i] = heapKey[c];
+                i = c;
+            }
+            heapNode[i] = node;
+            heapKey[i] = key;
+            return top;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package MiniFireForce;
+
+import java.util.Arrays;
+
+/**
+ * An immutable polyline a truck follows from its station to a fire, with the fraction of
+ * the travel time at which it reaches each point. Segments on faster roads take a smaller
+ * share of the time than their length suggests, so positions are interpolated by time.
+ * A truck driving back follows the same route in reverse.
+ */
+public final class Route {
+    private final float[] xs;
+    private final float[] ys;
+    private final float[] at; // Fraction of the travel time at each point, from 0 to 1
+
+    /**
+     * Creates a route. The arrays are used as they are and must not be changed afterwards.
+     *
+     * @param xs the x-coordinates of the points, at least two
+     * @param ys the y-coordinates of the points
+     * @param at the fraction of the travel time at which each point is reached, ascending
+     *           from 0 to 1
+     */
+    Route(float[] xs, float[] ys, float[] at) {
+        this.xs = xs;
+        this.ys = ys;
+        this.at = at;
+    }
+
+    /** @return the number of points */
+    public int points() { return xs.length; }
+
+    /** @return the x-coordinate of point {@code i} */
+    public float x(int i) { return xs[i]; }
+
+    /** @return the y-coordinate of point {@code i} */
+    public float y(int i) { return ys[i]; }
+
+    /**
+     * Finds the segment being driven at a point in time.
+     *
+     * @param fraction the fraction of the travel time, from 0 to 1
+     * @return the index of the segment's first point
+     */
+    private int segment(double fraction) {
+        int i = Arrays.binarySearch(at, (float) fraction);
+        if (i < 0) i = -i - 2;
+        return Math.max(0, Math.min(xs.length - 2, i));
+    }
+
+    /**
+     * @param fraction the fraction of the travel time, from 0 to 1
+     * @param s        the segment being driven
+     * @return how far along the segment the truck is, from 0 to 1
+     */
+    private float along(double fraction, int s) {
+        float span = at[s + 1] - at[s];
+        return span <= 0 ? 1f : (float) Math.min(1, Math.max(0, (fraction - at[s]) / span));
+    }
+
+    /**
+     * @param fraction the fraction of the travel time, from 0 to 1
+     * @return the x-coordinate of a truck that far along the route
+     */
+    public float xAt(double fraction) {
+        int s = segment(fraction);
+        return xs[s] + (xs[s + 1] - xs[s]) * along(fraction, s);
+    }
+
+    /**
+     * @param fraction the fraction of the travel time, from 0 to 1
+     * @return the y-coordinate of a truck that far along the route
+     */
+    public float yAt(double fraction) {
+        int s = segment(fraction);
+        return ys[s] + (ys[s + 1] - ys[s]) * along(fraction, s);
+    }
+
+    /**
+     * Cuts the route short, as when a truck turns back part of the way.
+     *
+     * @param fraction the fraction of the travel time driven, from 0 to 1
+     * @return the route from the start to where a truck that far along would be
+     */
+    public Route truncate(double fraction) {
+        if (fraction <= 0) fraction = 1e-6;
+        if (fraction >= 1) return this;
+        int s = segment(fraction);
+        int n = s + 2;
+        float[] x = Arrays.copyOf(xs, n);
+        float[] y = Arrays.copyOf(ys, n);
+        float[] t = new float[n];
+        x[n - 1] = xAt(fraction);
+        y[n - 1] = yAt(fraction);
+        for (int i = 0; i < n - 1; i++) {
+            t[i] = (float) (at[i] / fraction);
+        }
+        t[n - 1] = 1f;
+        return new Route(x, y, t);
+    }
+}
@@ -0,0 +1,133 @@
+package MiniFireForce;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A simulation clock that follows the wall clock at an adjustable speed and can be paused.
+ * <p>
+ * Simulation time advances at {@link #getSpeed()} simulated milliseconds per wall millisecond
+ * and stands still while paused. Pausing and changing speed re-anchor the clock at the current
+ * simulation time, so its reading never jumps or runs backwards. Wall time is measured with
+ * {@link System#nanoTime()}, so adjustments to the system clock do not affect it. Thread-safe.
+ */
+public class SimulationClock {
+    /** The slowest supported speed. */
+    public static final double MIN_SPEED = 0.1;
+    /** The fastest supported speed. */
+    public static final double MAX_SPEED = 10_000;
+
+    private final CopyOnWriteArrayList<Runnable> listeners = new CopyOnWriteArrayList<>();
+    // Simulation time at the anchor, and the wall time in nanoseconds it was taken at
+    private long anchorMillis;
+    private long anchorNanos;
+    private double speed = 1;
+    private boolean paused;
+
+    /**
+     * Creates a running clock at normal speed that starts at the current wall-clock time.
+     */
+    public SimulationClock() {
+        this(System.currentTimeMillis());
+    }
+
+    /**
+     * Creates a running clock at normal speed.
+     *
+     * @param startTimeMillis the initial simulation time in epoch milliseconds
+     */
+    public SimulationClock(long startTimeMillis) {
+        this.anchorMillis = startTimeMillis;
+        this.anchorNanos = System.nanoTime();
+    }
+
+    /** @return the current simulation time in epoch milliseconds */
+    public synchronized long currentTimeMillis() {
+        return timeAt(System.nanoTime());
+    }
+
+    private long timeAt(long nanos) {
+        if (paused) return anchorMillis;
+        return anchorMillis + (long) ((nanos - anchorNanos) / 1e6 * speed);
+    }
+
+    /**
+     * Re-anchors the clock at the current time before its rate changes.
+     */
+    private void reanchor() {
+        long nanos = System.nanoTime();
+        anchorMillis = timeAt(nanos);
+        anchorNanos = nanos;
+    }
+
+    /**
+     * Pauses or resumes the clock.
+     *
+     * @param p {@code true} to stop simulation time, {@code false} to let it run again
+     */
+    public void setPaused(boolean p) {
+        synchronized (this) {
+            if (paused == p) return;
+            reanchor();
+            paused = p;
+        }
+        fireChanged();
+    }
+
+    /** @return {@code true} if the clock is paused */
+    public synchronized boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * Sets how fast simulation time runs relative to the wall clock.
+     *
+     * @param newSpeed simulated milliseconds per wall millisecond, from {@link #MIN_SPEED}
+     *                 to {@link #MAX_SPEED}
+     * @throws IllegalArgumentException if the speed is out of range
+     */
+    public void setSpeed(double newSpeed) {
+        if (!(newSpeed >= MIN_SPEED && newSpeed <= MAX_SPEED)) {
+            throw new IllegalArgumentException("Speed must be between " + MIN_SPEED + " and " + MAX_SPEED);
+        }
+        synchronized (this) {
+            reanchor();
+            speed = newSpeed;
+        }
+        fireChanged();
+    }
+
+    /** @return simulated milliseconds per wall millisecond */
+    public synchronized double getSpeed() {
+        return speed;
+    }
+
+    /**
+     * Returns how long to wait on the wall clock until the simulation reaches a given time.
+     *
+     * @param timeMillis a simulation time in epoch milliseconds
+     * @return the wall time until then in nanoseconds, rounded up; zero if it has passed, or
+     *         {@link Long#MAX_VALUE} if the clock is paused before reaching it
+     */
+    public synchronized long wallNanosUntil(long timeMillis) {
+        long remaining = timeMillis - timeAt(System.nanoTime());
+        if (remaining <= 0) return 0;
+        if (paused) return Long.MAX_VALUE;
+        return (long) Math.min(Long.MAX_VALUE, Math.ceil(remaining * 1e6 / speed));
+    }
+
+    /**
+     * Registers a callback run after every pause, resume or speed change, on the thread
+     * that made the change.
+     *
+     * @param listener the callback
+     */
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    private void fireChanged() {
+        for (Runnable l : listeners) {
+            l.run();
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package MiniFireForce;
+
+import java.util.Locale;
+
+/**
+ * The tunable parameters of a simulation run. A new configuration holds the values the
+ * interactive simulation has always used; {@link GenSituationClass} copies it when the
+ * simulation is created, so changing a configuration afterwards has no effect on it.
+ * Parameters can also be set by name with {@link #set(String, String)}, which is how the
+ * {@link BatchRunner} reads them from the command line and sweep files.
+ */
+public class SimulationConfig {
+    private int stationSpawnSeconds = 30;
+    private int fireSpawnSeconds = 10;
+    private int scatterSpreadSeconds = 20;
+    private int dispatchSeconds = 15;
+    private int queueAgingSeconds = 30;
+    private int densityHalfLifeMinutes = 60;
+    private double coverageSeconds = 10;
+    private int crewTargetSeconds = 15;
+    private double truckSpeed = 50.0;
+    private double spreadProbability = 0.3;
+    private float minX = -1000;
+    private float minY = -1000;
+    private float maxX = 1000;
+    private float maxY = 1000;
+    private float gridCellSize = 1;
+    private int minStationTrucks = 1;
+    private int maxStationTrucks = 5;
+    private GenSituationClass.CrewPolicy crewPolicy = GenSituationClass.CrewPolicy.BY_SEVERITY;
+    private GenSituationClass.SpreadModel spreadModel = GenSituationClass.SpreadModel.GRID;
+    private GenSituationClass.StationPlacement stationPlacement = GenSituationClass.StationPlacement.RANDOM;
+
+    /**
+     * Creates a configuration with the default parameters.
+     */
+    public SimulationConfig() {
+    }
+
+    /**
+     * @return an independent copy of this configuration
+     */
+    public SimulationConfig copy() {
+        SimulationConfig c = new SimulationConfig();
+        c.stationSpawnSeconds = stationSpawnSeconds;
+        c.fireSpawnSeconds = fireSpawnSeconds;
+        c.scatterSpreadSeconds = scatterSpreadSeconds;
+        c.dispatchSeconds = dispatchSeconds;
+        c.queueAgingSeconds = queueAgingSeconds;
+        c.densityHalfLifeMinutes = densityHalfLifeMinutes;
+        c.coverageSeconds = coverageSeconds;
+        c.crewTargetSeconds = crewTargetSeconds;
+        c.truckSpeed = truckSpeed;
+        c.spreadProbability = spreadProbability;
+        c.minX = minX;
+        c.minY = minY;
+        c.maxX = maxX;
+        c.maxY = maxY;
+        c.gridCellSize = gridCellSize;
+        c.minStationTrucks = minStationTrucks;
+        c.maxStationTrucks = maxStationTrucks;
+        c.crewPolicy = crewPolicy;
+        c.spreadModel = spreadModel;
+        c.stationPlacement = stationPlacement;
+        return c;
+    }
+
+    /**
+     * Sets a parameter by name. Names are the property names used by the getters, such as
+     * {@code truckSpeed} or {@code fireSpawnSeconds}; {@code bounds} takes four
+     * comma-separated values (minX,minY,maxX,maxY) and {@code stationTrucks} a range
+     * such as {@code 1-5}.
+     *
+     * @param key   the parameter name
+     * @param value the new value
+     * @throws IllegalArgumentException if the name is unknown or the value is invalid
+     */
+    public void set(String key, String value) {
+        try {
+            switch (key) {
+                case "stationSpawnSeconds": stationSpawnSeconds = positive(key, Integer.parseInt(value)); break;
+                case "fireSpawnSeconds": fireSpawnSeconds = positive(key, Integer.parseInt(value)); break;
+                case "scatterSpreadSeconds": scatterSpreadSeconds = positive(key, Integer.parseInt(value)); break;
+                case "dispatchSeconds": dispatchSeconds = positive(key, Integer.parseInt(value)); break;
+                case "queueAgingSeconds": queueAgingSeconds = positive(key, Integer.parseInt(value)); break;
+                case "densityHalfLifeMinutes": densityHalfLifeMinutes = positive(key, Integer.parseInt(value)); break;
+                case "coverageSeconds": coverageSeconds = positive(key, Double.parseDouble(value)); break;
+                case "crewTargetSeconds": crewTargetSeconds = positive(key, Integer.parseInt(value)); break;
+                case "truckSpeed": truckSpeed = positive(key, Double.parseDouble(value)); break;
+                case "spreadProbability": spreadProbability = probability(key, Double.parseDouble(value)); break;
+                case "gridCellSize": gridCellSize = (float) positive(key, Double.parseDouble(value)); break;
+                case "crewPolicy": crewPolicy = GenSituationClass.CrewPolicy.valueOf(value.toUpperCase(Locale.ROOT)); break;
+                case "spreadModel": spreadModel = GenSituationClass.SpreadModel.valueOf(value.toUpperCase(Locale.ROOT)); break;
+                case "stationPlacement":
+                    stationPlacement = GenSituationClass.StationPlacement.valueOf(value.toUpperCase(Locale.ROOT));
+                    break;
+                case "bounds": {
+                    String[] v = value.split(",");
+                    if (v.length != 4) throw new IllegalArgumentException("bounds needs minX,minY,maxX,maxY");
+                    setBounds(Float.parseFloat(v[0]), Float.parseFloat(v[1]), Float.parseFloat(v[2]), Float.parseFloat(v[3]));
+                    break;
+                }
+                case "stationTrucks": {
+                    String[] v = value.split("-");
+                    int min = Integer.parseInt(v[0]);
+                    setStationTrucks(min, v.length > 1 ? Integer.parseInt(v[1]) : min);
+                    break;
+                }
+                default:
+                    throw new IllegalArgumentException("Unknown parameter: " + key);
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value for " + key + ": " + value, e);
+        }
+    }
+
+    private static int positive(String key, int v) {
+        if (v <= 0) throw new IllegalArgumentException(key + " must be positive");
+        return v;
+    }
+
+    private static double positive(String key, double v) {
+        if (v <= 0) throw new IllegalArgumentException(key + " must be positive");
+        return v;
+    }
+
+    private static double probability(String key, double v) {
+        if (!(v >= 0 && v <= 1)) throw new IllegalArgumentException(key + " must be between 0 and 1");
+        return v;
+    }
+
+    // ===== Timing =====
+
+    /** @return seconds between new fire stations */
+    public int getStationSpawnSeconds() { return stationSpawnSeconds; }
+
+    /** @param s seconds between new fire stations */
+    public void setStationSpawnSeconds(int s) { stationSpawnSeconds = positive("stationSpawnSeconds", s); }
+
+    /** @return seconds between new random fires */
+    public int getFireSpawnSeconds() { return fireSpawnSeconds; }
+
+    /** @param s seconds between new random fires */
+    public void setFireSpawnSeconds(int s) { fireSpawnSeconds = positive("fireSpawnSeconds", s); }
+
+    /** @return seconds between spread ticks under the scatter model */
+    public int getScatterSpreadSeconds() { return scatterSpreadSeconds; }
+
+    /** @param s seconds between spread ticks under the scatter model */
+    public void setScatterSpreadSeconds(int s) { scatterSpreadSeconds = positive("scatterSpreadSeconds", s); }
+
+    /** @return seconds between dispatch rounds */
+    public int getDispatchSeconds() { return dispatchSeconds; }
+
+    /** @param s seconds between dispatch rounds */
+    public void setDispatchSeconds(int s) { dispatchSeconds = positive("dispatchSeconds", s); }
+
+    /** @return seconds a fire waits in the dispatch queue to gain one severity level of priority */
+    public int getQueueAgingSeconds() { return queueAgingSeconds; }
+
+    /** @param s seconds a queued fire waits to gain one severity level of priority */
+    public void setQueueAgingSeconds(int s) { queueAgingSeconds = positive("queueAgingSeconds", s); }
+
+    // ===== Stations =====
+
+    /** @return how new fire stations are placed */
+    public GenSituationClass.StationPlacement getStationPlacement() { return stationPlacement; }
+
+    /** @param placement how new fire stations are placed */
+    public void setStationPlacement(GenSituationClass.StationPlacement placement) { stationPlacement = placement; }
+
+    /** @return minutes after which a fire counts half as much in the fire-density heatmap */
+    public int getDensityHalfLifeMinutes() { return densityHalfLifeMinutes; }
+
+    /** @param m minutes after which a fire counts half as much in the fire-density heatmap */
+    public void setDensityHalfLifeMinutes(int m) { densityHalfLifeMinutes = positive("densityHalfLifeMinutes", m); }
+
+    /** @return the travel time in seconds within which a station counts as covering a place */
+    public double getCoverageSeconds() { return coverageSeconds; }
+
+    /** @param s the travel time in seconds within which a station counts as covering a place */
+    public void setCoverageSeconds(double s) { coverageSeconds = positive("coverageSeconds", s); }
+
+    // ===== Fires and trucks =====
+
+    /** @return the speed of fire trucks in units per second */
+    public double getTruckSpeed() { return truckSpeed; }
+
+    /** @param speed the speed of fire trucks in units per second */
+    public void setTruckSpeed(double speed) { truckSpeed = positive("truckSpeed", speed); }
+
+    /**
+     * @return the chance per tick that a fire spreads: to a nearby new fire under the
+     *         scatter model, or to a full-fuel neighbour cell at full intensity under the grid model
+     */
+    public double getSpreadProbability() { return spreadProbability; }
+
+    /** @param p the spread probability, between 0 and 1 */
+    public void setSpreadProbability(double p) { spreadProbability = probability("spreadProbability", p); }
+
+    /** @return the fewest trucks a new station starts with */
+    public int getMinStationTrucks() { return minStationTrucks; }
+
+    /** @return the most trucks a new station starts with */
+    public int getMaxStationTrucks() { return maxStationTrucks; }
+
+    /**
+     * Sets the range of trucks a new station starts with.
+     *
+     * @param min the fewest trucks, at least 0
+     * @param max the most trucks, at least {@code min}
+     */
+    public void setStationTrucks(int min, int max) {
+        if (min < 0 || max < min) throw new IllegalArgumentException("Invalid station truck range");
+        minStationTrucks = min;
+        maxStationTrucks = max;
+    }
+
+    /** @return the crew policy the simulation starts with */
+    public GenSituationClass.CrewPolicy getCrewPolicy() { return crewPolicy; }
+
+    /** @param policy the crew policy the simulation starts with */
+    public void setCrewPolicy(GenSituationClass.CrewPolicy policy) { crewPolicy = policy; }
+
+    /** @return the time in seconds a crew sized by severity aims to put a fire out in */
+    public int getCrewTargetSeconds() { return crewTargetSeconds; }
+
+    /** @param s the time in seconds a crew sized by severity aims to put a fire out in */
+    public void setCrewTargetSeconds(int s) { crewTargetSeconds = positive("crewTargetSeconds", s); }
+
+    /** @return the spread model the simulation starts with */
+    public GenSituationClass.SpreadModel getSpreadModel() { return spreadModel; }
+
+    /** @param model the spread model the simulation starts with */
+    public void setSpreadModel(GenSituationClass.SpreadModel model) { spreadModel = model; }
+
+    // ===== World =====
+
+    /** @return the lower x bound of the world */
+    public float getMinX() { return minX; }
+
+    /** @return the lower y bound of the world */
+    public float getMinY() { return minY; }
+
+    /** @return the upper x bound of the world */
+    public float getMaxX() { return maxX; }
+
+    /** @return the upper y bound of the world */
+    public float getMaxY() { return maxY; }
+
+    /**
+     * Sets the world bounds in which stations and fires appear.
+     *
+     * @param minX the lower x bound
+     * @param minY the lower y bound
+     * @param maxX the upper x bound
+     * @param maxY the upper y bound
+     */
+    public void setBounds(float minX, float minY, float maxX, float maxY) {
+        if (maxX - minX < 1 || maxY - minY < 1) throw new IllegalArgumentException("Invalid world bounds");
+        this.minX = minX;
+        this.minY = minY;
+        this.maxX = maxX;
+        this.maxY = maxY;
+    }
+
+    /** @return the side length of a fire-grid cell */
+    public float getGridCellSize() { return gridCellSize; }
+
+    /** @param size the side length of a fire-grid cell */
+    public void setGridCellSize(float size) { gridCellSize = (float) positive("gridCellSize", size); }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+                "stationSpawnSeconds=%d fireSpawnSeconds=%d scatterSpreadSeconds=%d dispatchSeconds=%d queueAgingSeconds=%d "
+                        + "truckSpeed=%s spreadProbability=%s bounds=%s,%s,%s,%s gridCellSize=%s "
+                        + "stationTrucks=%d-%d crewPolicy=%s crewTargetSeconds=%d spreadModel=%s stationPlacement=%s "
+                        + "densityHalfLifeMinutes=%d coverageSeconds=%s",
+                stationSpawnSeconds, fireSpawnSeconds, scatterSpreadSeconds, dispatchSeconds, queueAgingSeconds,
+                truckSpeed, spreadProbability, minX, minY, maxX, maxY, gridCellSize,
+                minStationTrucks, maxStationTrucks, crewPolicy, crewTargetSeconds, spreadModel, stationPlacement,
+                densityHalfLifeMinutes, coverageSeconds);
+    }
+}
@@ -0,0 +1,385 @@
+package MiniFireForce;
+
+/**
+ * A structured simulation event carrying only primitive fields, so that recording it
+ * allocates nothing. Instances are mutable and meant to be reused: the simulation fills
+ * one scratch event per thread and passes it to {@link EventLogger#event(SimulationEvent)},
+ * and loggers that keep events past that call copy them with {@link #copyFrom(SimulationEvent)}.
+ * Text is only produced when a sink asks for it through {@link #format()} or
+ * {@link #appendTo(StringBuilder)}.
+ */
+public final class SimulationEvent {
+
+    /**
+     * The kinds of events the simulation reports.
+     */
+    public enum Type {
+        /** A free-form text message. */
+        MESSAGE,
+        /** A new fire started, either at random or by spreading from another fire. */
+        FIRE_SPAWNED,
+        /** A fire spread and its severity changed. */
+        FIRE_SPREAD,
+        /** A station sent one truck to a fire. */
+        TRUCK_DISPATCHED,
+        /** A truck reached its fire and started extinguishing. */
+        TRUCK_ARRIVED,
+        /** A fire was put out. */
+        FIRE_EXTINGUISHED,
+        /** A truck got back to its station. */
+        TRUCK_RETURNED,
+        /** A new fire station opened. */
+        STATION_SPAWNED,
+        /** A fire grew into another fire and became part of it. */
+        FIRE_MERGED,
+        /** The trucks assigned to one fire were handed over to another. */
+        TRUCKS_RETARGETED,
+        /** A truck on its way to a fire turned back towards its station. */
+        TRUCK_RECALLED
+    }
+
+    private Type type = Type.MESSAGE;
+    private long timeMillis;
+    private int fireId;
+    private int sourceFireId;
+    private int stationId;
+    private int severity;
+    private int trucks;
+    private float x;
+    private float y;
+    private long durationMillis;
+    private String message;
+
+    /**
+     * Creates an empty message event.
+     */
+    public SimulationEvent() {
+    }
+
+    // ===== Filling =====
+
+    /**
+     * Turns this event into a free-form message.
+     *
+     * @param timeMillis the simulation time, in epoch milliseconds
+     * @param message    the text
+     * @return this event
+     */
+    public SimulationEvent message(long timeMillis, String message) {
+        reset(Type.MESSAGE, timeMillis);
+        this.message = message;
+        return this;
+    }
+
+    /**
+     * Turns this event into a {@link Type#FIRE_SPAWNED} event.
+     *
+     * @param timeMillis   the simulation time, in epoch milliseconds
+     * @param fireId       the new fire
+     * @param sourceFireId the fire it spread from, or 0 for a random fire
+     * @param x            the x-coordinate of the new fire
+     * @param y            the y-coordinate of the new fire
+     * @param severity     the severity of the new fire
+     * @return this event
+     */
+    public SimulationEvent fireSpawned(long timeMillis, int fireId, int sourceFireId, float x, float y, int severity) {
+        reset(Type.FIRE_SPAWNED, timeMillis);
+        this.fireId = fireId;
+        this.sourceFireId = sourceFireId;
+        this.x = x;
+        this.y = y;
+        this.severity = severity;
+        return this;
+    }
+
+    /**
+     * Turns this event into a {@link Type#FIRE_MERGED} event.
+     *
+     * @param timeMillis the simulation time, in epoch milliseconds
+     * @param fireId     the fire that was absorbed
+     * @param survivorId the fire it became part of
+     * @return this event
+     */
+    public SimulationEvent fireMerged(long timeMillis, int fireId, int survivorId) {
+        reset(Type.FIRE_MERGED, timeMillis);
+        this.fireId = fireId;
+        this.sourceFireId = survivorId;
+        return this;
+    }
+
+    /**
+     * Turns this event into a {@link Type#FIRE_SPREAD} event.
+     *
+     * @param timeMillis the simulation time, in epoch milliseconds
+     * @param fireId     the spreading fire
+     * @param severity   its severity after spreading
+     * @return this event
+     */
+    public SimulationEvent fireSpread(long timeMillis, int fireId, int severity) {
+        reset(Type.FIRE_SPREAD, timeMillis);
+        this.fireId = fireId;
+        this.severity = severity;
+        return this;
+    }
+
+    /**
+     * Turns this event into a {@link Type#TRUCK_DISPATCHED} event.
+     *
+     * @param timeMillis   the simulation time, in epoch milliseconds
+     * @param stationId    the sending station
+     * @param fireId       the target fire
+     * @param travelMillis the truck's travel time to the fire
+     * @return this event
+     */
+    public SimulationEvent truckDispatched(long timeMillis, int stationId, int fireId, long travelMillis) {
+        reset(Type.TRUCK_DISPATCHED, timeMillis);
+        this.stationId = stationId;
+        this.fireId = fireId;
+        this.durationMillis = travelMillis;
+        return this;
+    }
+
+    /**
+     * Turns this event into a {@link Type#TRUCK_ARRIVED} event.
+     *
+     * @param timeMillis the simulation time, in epoch milliseconds
+     * @param stationId  the truck's station
+     * @param fireId     the fire it reached
+     * @return this event
+     */
+    public SimulationEvent truckArrived(long timeMillis, int stationId, int fireId) {
+        reset(Type.TRUCK_ARRIVED, timeMillis);
+        this.stationId = stationId;
+        this.fireId = fireId;
+        return this;
+    }
+
+    /**
+     * Turns this event into a {@link Type#FIRE_EXTINGUISHED} event.
+     *
+     * @param timeMillis the simulation time, in epoch milliseconds
+     * @param fireId     the fire that was put out
+     * @param stationId  the station of the truck that finished the job, or 0 if it burned out
+     * @return this event
+     */
+    public SimulationEvent fireExtinguished(long timeMillis, int fireId, int stationId) {
+        reset(Type.FIRE_EXTINGUISHED, timeMillis);
+        this.fireId = fireId;
+        this.stationId = stationId;
+        return this;
+    }
+
+    /**
+     * Turns this event into a {@link Type#TRUCK_RETURNED} event.
+     *
+     * @param timeMillis the simulation time, in epoch milliseconds
+     * @param stationId  the station the truck returned to
+     * @param fireId     the fire the truck was sent to
+     * @param trucks     the station's available trucks afterwards
+     * @return this event
+     */
+    public SimulationEvent truckReturned(long timeMillis, int stationId, int fireId, int trucks) {
+        reset(Type.TRUCK_RETURNED, timeMillis);
+        this.stationId = stationId;
+        this.fireId = fireId;
+        this.trucks = trucks;
+        return this;
+    }
+
+    /**
+     * Turns this event into a {@link Type#TRUCKS_RETARGETED} event.
+     *
+     * @param timeMillis   the simulation time, in epoch milliseconds
+     * @param fireId       the fire the trucks were assigned to
+     * @param targetFireId the fire they now work on
+     * @return this event
+     */
+    public SimulationEvent trucksRetargeted(long timeMillis, int fireId, int targetFireId) {
+        reset(Type.TRUCKS_RETARGETED, timeMillis);
+        this.fireId = fireId;
+        this.sourceFireId = targetFireId;
+        return this;
+    }
+
+    /**
+     * Turns this event into a {@link Type#TRUCK_RECALLED} event.
+     *
+     * @param timeMillis   the simulation time, in epoch milliseconds
+     * @param stationId    the truck's station
+     * @param fireId       the fire it was heading to
+     * @param x            the x-coordinate where it turned back
+     * @param y            the y-coordinate where it turned back
+     * @param returnMillis its travel time back to the station
+     * @return this event
+     */
+    public SimulationEvent truckRecalled(long timeMillis, int stationId, int fireId, float x, float y,
+                                         long returnMillis) {
+        reset(Type.TRUCK_RECALLED, timeMillis);
+        this.stationId = stationId;
+        this.fireId = fireId;
+        this.x = x;
+        this.y = y;
+        this.durationMillis = returnMillis;
+        return this;
+    }
+
+    /**
+     * Turns this event into a {@link Type#STATION_SPAWNED} event.
+     *
+     * @param timeMillis the simulation time, in epoch milliseconds
+     * @param stationId  the new station
+     * @param x          its x-coordinate
+     * @param y          its y-coordinate
+     * @param trucks     its initial number of trucks
+     * @return this event
+     */
+    public SimulationEvent stationSpawned(long timeMillis, int stationId, float x, float y, int trucks) {
+        reset(Type.STATION_SPAWNED, timeMillis);
+        this.stationId = stationId;
+        this.x = x;
+        this.y = y;
+        this.trucks = trucks;
+        return this;
+    }
+
+    /**
+     * Copies every field of another event into this one.
+     *
+     * @param other the event to copy
+     * @return this event
+     */
+    public SimulationEvent copyFrom(SimulationEvent other) {
+        type = other.type;
+        timeMillis = other.timeMillis;
+        fireId = other.fireId;
+        sourceFireId = other.sourceFireId;
+        stationId = other.stationId;
+        severity = other.severity;
+        trucks = other.trucks;
+        x = other.x;
+        y = other.y;
+        durationMillis = other.durationMillis;
+        message = other.message;
+        return this;
+    }
+
+    private void reset(Type type, long timeMillis) {
+        this.type = type;
+        this.timeMillis = timeMillis;
+        fireId = 0;
+        sourceFireId = 0;
+        stationId = 0;
+        severity = 0;
+        trucks = 0;
+        x = 0;
+        y = 0;
+        durationMillis = 0;
+        message = null;
+    }
+
+    // ===== Accessors =====
+
+    /** @return the kind of event */
+    public Type getType() { return type; }
+
+    /** @return the simulation time of the event, in epoch milliseconds */
+    public long getTimeMillis() { return timeMillis; }
+
+    /** @return the fire involved, or 0 */
+    public int getFireId() { return fireId; }
+
+    /** @return the fire a spawned fire spread from, the survivor of a merge, the fire trucks were handed to, or 0 */
+    public int getSourceFireId() { return sourceFireId; }
+
+    /** @return the station involved, or 0 */
+    public int getStationId() { return stationId; }
+
+    /** @return the fire severity, or 0 */
+    public int getSeverity() { return severity; }
+
+    /** @return the number of trucks at the station, or 0 */
+    public int getTrucks() { return trucks; }
+
+    /** @return the x-coordinate of a new fire or station, or of where a truck turned back */
+    public float getX() { return x; }
+
+    /** @return the y-coordinate of a new fire or station, or of where a truck turned back */
+    public float getY() { return y; }
+
+    /** @return the travel time of a dispatched truck or of a recalled one's way back, in milliseconds, or 0 */
+    public long getDurationMillis() { return durationMillis; }
+
+    /** @return the text of a {@link Type#MESSAGE} event, otherwise {@code null} */
+    public String getMessage() { return message; }
+
+    // ===== Formatting =====
+
+    /**
+     * Appends the human-readable form of this event.
+     *
+     * @param sb the builder to append to
+     * @return the same builder
+     */
+    public StringBuilder appendTo(StringBuilder sb) {
+        switch (type) {
+            case FIRE_SPAWNED:
+                if (sourceFireId != 0) {
+                    return appendPosition(sb.append("Fire spread -> new Fire ID ").append(fireId).append(" at "));
+                }
+                return appendPosition(sb.append("New Fire: ID ").append(fireId).append(" at "))
+                        .append(", severity=").append(severity);
+            case FIRE_SPREAD:
+                return sb.append("Fire ID ").append(fireId).append(" is spreading, severity=").append(severity);
+            case TRUCK_DISPATCHED:
+                return sb.append("Station ").append(stationId).append(" sends 1 truck to Fire ").append(fireId);
+            case TRUCK_ARRIVED:
+                return sb.append("Truck arrived at Fire ").append(fireId).append(" -> extinguishing...");
+            case FIRE_EXTINGUISHED:
+                if (stationId == 0) {
+                    return sb.append("Fire ").append(fireId).append(" burned out");
+                }
+                return sb.append("Fire ").append(fireId).append(" extinguished -> truck returning to station ")
+                        .append(stationId);
+            case TRUCK_RETURNED:
+                return sb.append("Truck returned to Station ").append(stationId)
+                        .append(" -> station now has ").append(trucks).append(" trucks");
+            case FIRE_MERGED:
+                return sb.append("Fire ").append(fireId).append(" merged into Fire ").append(sourceFireId);
+            case TRUCKS_RETARGETED:
+                return sb.append("Trucks for Fire ").append(fireId).append(" handed over to Fire ").append(sourceFireId);
+            case TRUCK_RECALLED:
+                return appendPosition(sb.append("Truck of Station ").append(stationId).append(" turned back from Fire ")
+                        .append(fireId).append(" at "));
+            case STATION_SPAWNED:
+                return appendPosition(sb.append("New station: ID ").append(stationId).append(" at "))
+                        .append(", trucks=").append(trucks);
+            default:
+                return sb.append(message);
+        }
+    }
+
+    /**
+     * Appends "(x, y)", printing whole-number coordinates without a fraction.
+     */
+    private StringBuilder appendPosition(StringBuilder sb) {
+        sb.append('(');
+        appendCoordinate(sb, x).append(", ");
+        return appendCoordinate(sb, y).append(')');
+    }
+
+    private static StringBuilder appendCoordinate(StringBuilder sb, float v) {
+        return v == (int) v ? sb.append((int) v) : sb.append(v);
+    }
+
+    /**
+     * @return the human-readable form of this event
+     */
+    public String format() {
+        return appendTo(new StringBuilder(64)).toString();
+    }
+
+    @Override
+    public String toString() {
+        return format();
+    }
+}
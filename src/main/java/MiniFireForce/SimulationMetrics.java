@@ -0,0 +1,324 @@
+package MiniFireForce;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanNotificationInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.MBeanParameterInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * A registry of named counters, gauges and latency histograms describing a running simulation,
+ * plus the idle ratio of every fire station.
+ * <p>
+ * Metrics are registered once, and the simulation keeps direct references to the ones it
+ * updates, so recording never looks anything up: a counter is a {@link LongAdder} and a
+ * histogram a {@link LatencyHistogram}. Gauges are computed only when read. The whole
+ * registry can be read as one ordered name-to-value map, which is what the GUI's metrics
+ * tab shows, and published to the platform MBean server for JMX clients.
+ */
+public class SimulationMetrics {
+    /**
+     * A monotonically increasing count.
+     */
+    public static final class Counter {
+        private final LongAdder adder = new LongAdder();
+
+        /** Adds one. */
+        public void increment() { adder.increment(); }
+
+        /** @param n the amount to add */
+        public void add(long n) { adder.add(n); }
+
+        /** @return the current count */
+        public long get() { return adder.sum(); }
+    }
+
+    /**
+     * How busy the trucks of one station have been since it opened.
+     */
+    private static final class StationUsage {
+        private final long openedAt;
+        private final int fleet;
+        private int busy;
+        private long busyMillis;
+        private long lastChange;
+
+        StationUsage(long openedAt, int fleet) {
+            this.openedAt = openedAt;
+            this.fleet = fleet;
+            this.lastChange = openedAt;
+        }
+
+        synchronized void change(int delta, long now) {
+            busyMillis += (long) busy * Math.max(0, now - lastChange);
+            lastChange = Math.max(lastChange, now);
+            busy = Math.max(0, busy + delta);
+        }
+
+        synchronized double idleRatio(long now) {
+            long elapsed = now - openedAt;
+            if (fleet == 0 || elapsed <= 0) return 1;
+            long busyTotal = busyMillis + (long) busy * Math.max(0, now - lastChange);
+            return Math.max(0, 1 - (double) busyTotal / ((double) fleet * elapsed));
+        }
+    }
+
+    private final CopyOnWriteArrayList<String> order = new CopyOnWriteArrayList<>();
+    private final Map<String, Object> metrics = new ConcurrentHashMap<>();
+    private final Map<String, String> descriptions = new ConcurrentHashMap<>();
+    private final Map<Integer, StationUsage> stations = new ConcurrentHashMap<>();
+    private final LongSupplier clock;
+
+    /**
+     * Creates an empty registry.
+     *
+     * @param clock the simulation clock, in epoch milliseconds, used for station idle ratios
+     */
+    public SimulationMetrics(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    private <T> T register(String name, String description, T metric) {
+        Object existing = metrics.putIfAbsent(name, metric);
+        if (existing != null) throw new IllegalArgumentException("Metric already registered: " + name);
+        descriptions.put(name, description);
+        order.add(name);
+        return metric;
+    }
+
+    /**
+     * Registers a counter.
+     *
+     * @param name        the metric name
+     * @param description what the counter counts
+     * @return the new counter
+     * @throws IllegalArgumentException if the name is taken
+     */
+    public Counter counter(String name, String description) {
+        return register(name, description, new Counter());
+    }
+
+    /**
+     * Registers a gauge whose value is computed each time it is read.
+     *
+     * @param name        the metric name
+     * @param description what the gauge measures
+     * @param value       computes the current value; must be safe to call from any thread
+     * @throws IllegalArgumentException if the name is taken
+     */
+    public void gauge(String name, String description, DoubleSupplier value) {
+        register(name, description, value);
+    }
+
+    /**
+     * Registers a latency histogram in milliseconds.
+     *
+     * @param name             the metric name
+     * @param description      what the histogram times
+     * @param highestTrackable the largest value bucketed precisely, in milliseconds
+     * @return the new histogram
+     * @throws IllegalArgumentException if the name is taken
+     */
+    public LatencyHistogram histogram(String name, String description, long highestTrackable) {
+        return register(name, description, new LatencyHistogram(highestTrackable));
+    }
+
+    // ===== Station utilization =====
+
+    /**
+     * Starts tracking a station's trucks.
+     *
+     * @param stationId the station
+     * @param trucks    the number of trucks it owns
+     */
+    public void stationOpened(int stationId, int trucks) {
+        stations.putIfAbsent(stationId, new StationUsage(clock.getAsLong(), trucks));
+    }
+
+    /**
+     * Records trucks leaving or returning to a station.
+     *
+     * @param stationId the station
+     * @param delta     the change in the number of trucks away, positive when trucks leave
+     */
+    public void stationTrucksAway(int stationId, int delta) {
+        StationUsage usage = stations.get(stationId);
+        if (usage != null) usage.change(delta, clock.getAsLong());
+    }
+
+    /**
+     * Returns the fraction of a station's truck time spent waiting at the station since it opened.
+     *
+     * @param stationId the station
+     * @return the idle ratio from 0 to 1, or {@code NaN} for an unknown station
+     */
+    public double stationIdleRatio(int stationId) {
+        StationUsage usage = stations.get(stationId);
+        return usage == null ? Double.NaN : usage.idleRatio(clock.getAsLong());
+    }
+
+    /**
+     * @return the idle ratio of every tracked station, keyed by station ID
+     */
+    public Map<Integer, Double> stationIdleRatios() {
+        long now = clock.getAsLong();
+        Map<Integer, Double> result = new LinkedHashMap<>();
+        for (Map.Entry<Integer, StationUsage> e : stations.entrySet()) {
+            result.put(e.getKey(), e.getValue().idleRatio(now));
+        }
+        return result;
+    }
+
+    /**
+     * @return the mean idle ratio over all stations with trucks, or {@code NaN} if there are none
+     */
+    public double meanStationIdleRatio() {
+        long now = clock.getAsLong();
+        double total = 0;
+        int n = 0;
+        for (StationUsage usage : stations.values()) {
+            if (usage.fleet == 0) continue;
+            total += usage.idleRatio(now);
+            n++;
+        }
+        return n == 0 ? Double.NaN : total / n;
+    }
+
+    // ===== Reading =====
+
+    /**
+     * Reads every metric, in registration order. A histogram appears as several entries
+     * suffixed {@code .count}, {@code .mean}, {@code .p50}, {@code .p90}, {@code .p99} and
+     * {@code .max}.
+     *
+     * @return the current values by name; counters and histogram percentiles are {@code Long},
+     *         gauges and means {@code Double}
+     */
+    public Map<String, Number> values() {
+        Map<String, Number> result = new LinkedHashMap<>();
+        for (String name : order) {
+            Object m = metrics.get(name);
+            if (m instanceof Counter) {
+                result.put(name, ((Counter) m).get());
+            } else if (m instanceof DoubleSupplier) {
+                result.put(name, ((DoubleSupplier) m).getAsDouble());
+            } else {
+                LatencyHistogram h = (LatencyHistogram) m;
+                result.put(name + ".count", h.getCount());
+                result.put(name + ".mean", h.getMean());
+                result.put(name + ".p50", h.getValueAtPercentile(50));
+                result.put(name + ".p90", h.getValueAtPercentile(90));
+                result.put(name + ".p99", h.getValueAtPercentile(99));
+                result.put(name + ".max", h.getMax());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param name a registered metric name, without any histogram suffix
+     * @return its description, or {@code null} if there is no such metric
+     */
+    public String getDescription(String name) {
+        return descriptions.get(name);
+    }
+
+    // ===== JMX =====
+
+    /**
+     * Publishes this registry on the platform MBean server, replacing anything already
+     * registered under the same name.
+     *
+     * @param objectName the JMX name, such as {@code MiniFireForce:type=SimulationMetrics}
+     * @throws JMException if the name is malformed or registration fails
+     */
+    public void registerMBean(String objectName) throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(objectName);
+        try {
+            server.unregisterMBean(name);
+        } catch (InstanceNotFoundException e) {
+            // Nothing to replace
+        }
+        server.registerMBean(new MetricsMBean(), name);
+    }
+
+    /**
+     * Exposes every metric as a read-only attribute, and station idle ratios through an operation.
+     */
+    private final class MetricsMBean implements DynamicMBean {
+        @Override
+        public Object getAttribute(String attribute) throws AttributeNotFoundException {
+            Number value = values().get(attribute);
+            if (value == null) throw new AttributeNotFoundException(attribute);
+            return value;
+        }
+
+        @Override
+        public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+            throw new AttributeNotFoundException("Metrics are read-only: " + attribute.getName());
+        }
+
+        @Override
+        public AttributeList getAttributes(String[] attributes) {
+            Map<String, Number> all = values();
+            AttributeList list = new AttributeList();
+            for (String a : attributes) {
+                Number value = all.get(a);
+                if (value != null) list.add(new Attribute(a, value));
+            }
+            return list;
+        }
+
+        @Override
+        public AttributeList setAttributes(AttributeList attributes) {
+            return new AttributeList();
+        }
+
+        @Override
+        public Object invoke(String actionName, Object[] params, String[] signature) {
+            if ("stationIdleRatio".equals(actionName) && params != null && params.length == 1) {
+                return stationIdleRatio(((Number) params[0]).intValue());
+            }
+            throw new UnsupportedOperationException(actionName);
+        }
+
+        @Override
+        public MBeanInfo getMBeanInfo() {
+            List<MBeanAttributeInfo> attributes = new ArrayList<>();
+            for (Map.Entry<String, Number> e : values().entrySet()) {
+                String name = e.getKey();
+                int dot = name.lastIndexOf('.');
+                String description = getDescription(name);
+                if (description == null && dot > 0) description = getDescription(name.substring(0, dot));
+                attributes.add(new MBeanAttributeInfo(name, e.getValue().getClass().getName(),
+                        description, true, false, false));
+            }
+            MBeanOperationInfo idle = new MBeanOperationInfo("stationIdleRatio",
+                    "Fraction of a station's truck time spent idle since it opened",
+                    new MBeanParameterInfo[]{new MBeanParameterInfo("stationId", "int", "the station ID")},
+                    "double", MBeanOperationInfo.INFO);
+            return new MBeanInfo(SimulationMetrics.class.getName(), "Fire simulation metrics",
+                    attributes.toArray(new MBeanAttributeInfo[0]), null,
+                    new MBeanOperationInfo[]{idle}, new MBeanNotificationInfo[0]);
+        }
+    }
+}
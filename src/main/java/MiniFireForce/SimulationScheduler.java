@@ -0,0 +1,43 @@
+package MiniFireForce;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Source of time and task scheduling for the simulation.
+ * Implementations either follow the wall clock or advance a virtual clock
+ * as fast as events can be processed.
+ */
+public interface SimulationScheduler {
+    /** @return the current simulation time in epoch milliseconds */
+    long currentTimeMillis();
+
+    /**
+     * Runs a task once after a delay.
+     *
+     * @param task  the task to run
+     * @param delay the delay before running
+     * @param unit  the unit of {@code delay}
+     */
+    void schedule(Runnable task, long delay, TimeUnit unit);
+
+    /**
+     * Runs a task repeatedly at a fixed rate.
+     *
+     * @param task         the task to run
+     * @param initialDelay the delay before the first run
+     * @param period       the time between the start of consecutive runs
+     * @param unit         the unit of {@code initialDelay} and {@code period}
+     */
+    void scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit);
+
+    /**
+     * @return the number of tasks waiting to run, including future runs of periodic tasks,
+     *         or -1 if the implementation cannot tell
+     */
+    int pendingTasks();
+
+    /**
+     * Stops running scheduled tasks.
+     */
+    void shutdown();
+}
@@ -0,0 +1,149 @@
+package MiniFireForce;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.Arrays;
+
+/**
+ * A read-only table model over one kind of entity in a {@link WorldSnapshot}, such as the
+ * fires or the stations.
+ * <p>
+ * Rows keep their position from one snapshot to the next: {@link #update} diffs the new
+ * snapshot against the rows already shown by entity ID and reports deleted, changed and
+ * added rows as row-level events, so the table keeps its selection and scroll position
+ * and only repaints what changed. Cells are read from the snapshot's arrays when the table
+ * asks for them, so only visible rows are ever boxed or formatted. Must be used on the
+ * event dispatch thread.
+ */
+abstract class SnapshotTableModel extends AbstractTableModel {
+    private final String[] columns;
+    private WorldSnapshot snapshot = WorldSnapshot.EMPTY;
+    // For each row, the entity ID and its index in the current snapshot
+    private int[] rowIds = new int[0];
+    private int[] rowIndex = new int[0];
+    private int rowCount;
+    private final IntIntMap indexById = new IntIntMap(64);
+
+    /**
+     * @param columns the column names
+     */
+    SnapshotTableModel(String... columns) {
+        this.columns = columns;
+    }
+
+    /**
+     * @param snap a snapshot
+     * @return the number of entities of this model's kind in it
+     */
+    abstract int count(WorldSnapshot snap);
+
+    /**
+     * @param snap a snapshot
+     * @param i    an entity index in it
+     * @return the entity's ID
+     */
+    abstract int id(WorldSnapshot snap, int i);
+
+    /**
+     * Compares what the table shows for the same entity in two snapshots.
+     *
+     * @param before the snapshot currently shown
+     * @param i      the entity's index in {@code before}
+     * @param after  the new snapshot
+     * @param j      the entity's index in {@code after}
+     * @return {@code true} if any column differs
+     */
+    abstract boolean changed(WorldSnapshot before, int i, WorldSnapshot after, int j);
+
+    /**
+     * @param snap   a snapshot
+     * @param i      an entity index in it
+     * @param column a column index
+     * @return the cell value
+     */
+    abstract Object value(WorldSnapshot snap, int i, int column);
+
+    /**
+     * Shows a new snapshot, reporting the differences from the previous one as row events.
+     * Rows of entities that are gone are deleted, rows whose values changed are updated,
+     * and new entities are appended in snapshot order.
+     *
+     * @param next the snapshot to show
+     */
+    void update(WorldSnapshot next) {
+        if (next == snapshot) return;
+        WorldSnapshot prev = snapshot;
+        int n = count(next);
+        indexById.clear(n);
+        for (int j = 0; j < n; j++) {
+            indexById.put(id(next, j), j);
+        }
+
+        // Delete rows whose entity is gone, bottom-up so that row numbers stay valid
+        int end = rowCount;
+        while (end > 0) {
+            int last = end - 1;
+            while (last >= 0 && indexById.get(rowIds[last]) != IntIntMap.MISSING) last--;
+            if (last < 0) break;
+            int first = last;
+            while (first > 0 && indexById.get(rowIds[first - 1]) == IntIntMap.MISSING) first--;
+            System.arraycopy(rowIds, last + 1, rowIds, first, rowCount - last - 1);
+            System.arraycopy(rowIndex, last + 1, rowIndex, first, rowCount - last - 1);
+            rowCount -= last - first + 1;
+            fireTableRowsDeleted(first, last);
+            end = first;
+        }
+
+        // Point the remaining rows at the new snapshot and report runs of changed rows
+        snapshot = next;
+        boolean[] shown = new boolean[n];
+        int runStart = -1;
+        for (int r = 0; r < rowCount; r++) {
+            int j = indexById.get(rowIds[r]);
+            shown[j] = true;
+            boolean differs = changed(prev, rowIndex[r], next, j);
+            rowIndex[r] = j;
+            if (differs && runStart < 0) {
+                runStart = r;
+            } else if (!differs && runStart >= 0) {
+                fireTableRowsUpdated(runStart, r - 1);
+                runStart = -1;
+            }
+        }
+        if (runStart >= 0) fireTableRowsUpdated(runStart, rowCount - 1);
+
+        // Append the new entities
+        int before = rowCount;
+        if (rowIds.length < n) {
+            rowIds = Arrays.copyOf(rowIds, Math.max(n, rowIds.length * 2));
+            rowIndex = Arrays.copyOf(rowIndex, rowIds.length);
+        }
+        for (int j = 0; j < n; j++) {
+            if (!shown[j]) {
+                rowIds[rowCount] = id(next, j);
+                rowIndex[rowCount] = j;
+                rowCount++;
+            }
+        }
+        if (rowCount > before) fireTableRowsInserted(before, rowCount - 1);
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columns[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        return value(snapshot, rowIndex[row], column);
+    }
+}
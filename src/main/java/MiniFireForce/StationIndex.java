@@ -0,0 +1,57 @@
+package MiniFireForce;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * A spatial index over fire stations used to answer nearest-station queries.
+ * Implementations are maintained incrementally as stations are inserted.
+ */
+public interface StationIndex {
+    /**
+     * Adds a fire station to the index.
+     *
+     * @param station the station to insert
+     */
+    void insert(FireStation station);
+
+    /** @return the number of stations in the index */
+    int size();
+
+    /**
+     * Finds up to {@code k} stations closest to a point that satisfy a filter,
+     * ordered from nearest to farthest.
+     *
+     * @param x      the x-coordinate of the query point
+     * @param y      the y-coordinate of the query point
+     * @param k      the maximum number of stations to return
+     * @param filter only stations accepted by this filter are returned
+     * @return the nearest matching stations, nearest first; empty if {@code k} is not positive
+     */
+    List<FireStation> kNearest(float x, float y, int k, Predicate<FireStation> filter);
+
+    /**
+     * Finds up to {@code k} stations closest to a point that still have a truck available.
+     *
+     * @param x the x-coordinate of the query point
+     * @param y the y-coordinate of the query point
+     * @param k the maximum number of stations to return
+     * @return the nearest deployable stations, nearest first
+     */
+    default List<FireStation> kNearestAvailable(float x, float y, int k) {
+        return kNearest(x, y, k, FireStation::canDeploy);
+    }
+
+    /**
+     * Finds the closest station to a point that satisfies a filter.
+     *
+     * @param x      the x-coordinate of the query point
+     * @param y      the y-coordinate of the query point
+     * @param filter only stations accepted by this filter are considered
+     * @return the nearest matching station, or {@code null} if none match
+     */
+    default FireStation nearest(float x, float y, Predicate<FireStation> filter) {
+        List<FireStation> result = kNearest(x, y, 1, filter);
+        return result.isEmpty() ? null : result.get(0);
+    }
+}
@@ -0,0 +1,181 @@
+package MiniFireForce;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Chooses where to open fire stations from the {@link FireDensity} heatmap, and measures
+ * how well the open stations cover it.
+ * <p>
+ * Placement is the greedy step of k-median over the heatmap cells: the existing stations
+ * stay put, and the new one goes where it most reduces the density-weighted distance from
+ * fires to their nearest station. Every occupied cell centre is tried as a candidate, and
+ * the best one is then refined with Weiszfeld iterations towards the weighted geometric
+ * median of the cells it would take over. Distances are straight-line, which keeps a
+ * placement to one pass over pairs of occupied cells; coverage is measured with the
+ * simulation's {@link TravelModel}, so it reflects roads when there are any.
+ * All methods are synchronized.
+ */
+final class StationPlacer {
+    private static final Predicate<FireStation> ANY = s -> true;
+    private static final int REFINE_STEPS = 10;
+
+    private final FireDensity density;
+    private final StationIndex index;
+    private final float far; // Stands in for the distance to a station when there are none
+    private final double[] weights;
+    private float[] xs;
+    private float[] ys;
+    private float[] ws;
+    private float[] nearest;
+    private int n;
+
+    /**
+     * How well the stations cover the fire density.
+     */
+    static final class Coverage {
+        /** The density-weighted mean travel time from the nearest station, in seconds. */
+        final double expectedTravelSeconds;
+        /** The fraction of the density that the nearest station reaches within the target. */
+        final double withinTarget;
+
+        Coverage(double expectedTravelSeconds, double withinTarget) {
+            this.expectedTravelSeconds = expectedTravelSeconds;
+            this.withinTarget = withinTarget;
+        }
+    }
+
+    /**
+     * Creates a placer.
+     *
+     * @param density the heatmap of past fires
+     * @param index   the open stations
+     * @param far     a distance longer than any in the world
+     */
+    StationPlacer(FireDensity density, StationIndex index, float far) {
+        this.density = density;
+        this.index = index;
+        this.far = far;
+        this.weights = new double[density.cells()];
+        this.xs = new float[64];
+        this.ys = new float[64];
+        this.ws = new float[64];
+        this.nearest = new float[64];
+    }
+
+    // ===== Placement =====
+
+    /**
+     * Finds the best place for one more station.
+     *
+     * @param timeMillis the current time
+     * @return the location as {x, y}, or {@code null} if no fire has been recorded or no
+     *         location would bring a station closer to any fire
+     */
+    synchronized float[] place(long timeMillis) {
+        if (!loadCells(timeMillis)) return null;
+        for (int j = 0; j < n; j++) {
+            FireStation st = index.nearest(xs[j], ys[j], ANY);
+            nearest[j] = st == null ? far : (float) st.calculateDistance(xs[j], ys[j]);
+        }
+
+        int best = -1;
+        double bestGain = 0;
+        for (int k = 0; k < n; k++) {
+            double gain = gain(xs[k], ys[k]);
+            if (gain > bestGain) {
+                bestGain = gain;
+                best = k;
+            }
+        }
+        if (best < 0) return null;
+
+        float px = xs[best], py = ys[best];
+        for (int step = 0; step < REFINE_STEPS; step++) {
+            double sx = 0, sy = 0, sw = 0;
+            for (int j = 0; j < n; j++) {
+                float dx = xs[j] - px, dy = ys[j] - py;
+                float d = (float) Math.sqrt(dx * dx + dy * dy);
+                if (d >= nearest[j]) continue;
+                double w = ws[j] / Math.max(d, 1e-3f);
+                sx += w * xs[j];
+                sy += w * ys[j];
+                sw += w;
+            }
+            if (sw == 0) break;
+            float nx = (float) (sx / sw), ny = (float) (sy / sw);
+            double gain = gain(nx, ny);
+            if (gain <= bestGain) break;
+            bestGain = gain;
+            px = nx;
+            py = ny;
+        }
+        return new float[]{px, py};
+    }
+
+    /**
+     * @return the density-weighted distance a station at a point would save
+     */
+    private double gain(float px, float py) {
+        double gain = 0;
+        for (int j = 0; j < n; j++) {
+            float dx = xs[j] - px, dy = ys[j] - py;
+            float saved = nearest[j] - (float) Math.sqrt(dx * dx + dy * dy);
+            if (saved > 0) gain += ws[j] * saved;
+        }
+        return gain;
+    }
+
+    // ===== Coverage =====
+
+    /**
+     * Measures how quickly the open stations reach the fire density. Each cell is served
+     * by the station whose truck gets there soonest, ignoring whether it has trucks in.
+     *
+     * @param timeMillis    the current time
+     * @param model         how travel times are estimated
+     * @param targetSeconds the travel time within which a cell counts as covered
+     * @return the coverage, or {@code null} if no fire has been recorded or no station is open
+     */
+    synchronized Coverage evaluate(long timeMillis, TravelModel model, double targetSeconds) {
+        if (index.size() == 0 || !loadCells(timeMillis)) return null;
+        double total = 0, travel = 0, covered = 0;
+        for (int j = 0; j < n; j++) {
+            List<FireStation> fastest = model.fastest(index, xs[j], ys[j], 1, ANY);
+            if (fastest.isEmpty()) continue;
+            double t = model.travelSeconds(fastest.get(0), xs[j], ys[j]);
+            total += ws[j];
+            travel += ws[j] * t;
+            if (t <= targetSeconds) covered += ws[j];
+        }
+        return total == 0 ? null : new Coverage(travel / total, covered / total);
+    }
+
+    /**
+     * Loads the centres and weights of the occupied cells.
+     *
+     * @return {@code false} if every cell is empty
+     */
+    private boolean loadCells(long timeMillis) {
+        double total = density.weights(timeMillis, weights);
+        if (!(total > 0)) return false;
+        // Normalised, so float sums stay accurate however many fires were recorded
+        double floor = total * 1e-9;
+        n = 0;
+        for (int c = 0; c < weights.length; c++) {
+            if (weights[c] <= floor) continue;
+            if (n == xs.length) {
+                xs = Arrays.copyOf(xs, n * 2);
+                ys = Arrays.copyOf(ys, n * 2);
+                ws = Arrays.copyOf(ws, n * 2);
+                nearest = Arrays.copyOf(nearest, n * 2);
+            }
+            xs[n] = density.cellX(c);
+            ys[n] = density.cellY(c);
+            ws[n] = (float) (weights[c] / total);
+            n++;
+        }
+        return n > 0;
+    }
+}
@@ -0,0 +1,39 @@
+package MiniFireForce;
+
+/**
+ * Table model for the Fire Stations table: ID, location and trucks at the station.
+ */
+class StationTableModel extends SnapshotTableModel {
+    /**
+     * Creates an empty station table model.
+     */
+    StationTableModel() {
+        super("ID", "X", "Y", "Trucks");
+    }
+
+    @Override
+    int count(WorldSnapshot snap) {
+        return snap.stationCount();
+    }
+
+    @Override
+    int id(WorldSnapshot snap, int i) {
+        return snap.stationId(i);
+    }
+
+    @Override
+    boolean changed(WorldSnapshot before, int i, WorldSnapshot after, int j) {
+        // Stations never move, so only the truck count can change
+        return before.stationTrucks(i) != after.stationTrucks(j);
+    }
+
+    @Override
+    Object value(WorldSnapshot snap, int i, int column) {
+        switch (column) {
+            case 0: return snap.stationId(i);
+            case 1: return snap.stationX(i);
+            case 2: return snap.stationY(i);
+            default: return snap.stationTrucks(i);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package MiniFireForce;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * How long a truck takes to drive from a station to a point, and which stations reach a
+ * point soonest. Dispatch asks this rather than measuring distances itself, so that trucks
+ * can drive in straight lines or on a {@link RoadNetwork} with the same dispatch code.
+ */
+public interface TravelModel {
+    /**
+     * Estimates a truck's driving time.
+     *
+     * @param station the station the truck leaves from
+     * @param x       the x-coordinate of the destination
+     * @param y       the y-coordinate of the destination
+     * @return the driving time in seconds
+     */
+    double travelSeconds(FireStation station, float x, float y);
+
+    /**
+     * Finds up to {@code k} stations whose trucks reach a point soonest. The default ranks
+     * by straight-line distance, which is exact when travel time grows with distance.
+     *
+     * @param index  a spatial index over the stations
+     * @param x      the x-coordinate of the destination
+     * @param y      the y-coordinate of the destination
+     * @param k      the maximum number of stations to return
+     * @param filter only stations accepted by this filter are returned
+     * @return the matching stations, soonest first
+     */
+    default List<FireStation> fastest(StationIndex index, float x, float y, int k, Predicate<FireStation> filter) {
+        return index.kNearest(x, y, k, filter);
+    }
+
+    /**
+     * @param speed the truck speed in units per second
+     * @return a model in which trucks drive straight to their destination
+     */
+    static TravelModel straightLine(double speed) {
+        return (station, x, y) -> station.calculateDistance(x, y) / speed;
+    }
+}
@@ -0,0 +1,764 @@
+package MiniFireForce;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves every dispatched truck through its lifecycle,
+ * {@code TO_FIRE -> EXTINGUISHING -> RETURNING}, from a single ticking task.
+ * <p>
+ * Trucks are pooled records stored as parallel primitive arrays and recycled through a
+ * free list. Each truck sits in a hashed timing wheel under the tick of its next state
+ * change, so a tick only touches the trucks that are due. The ticking task sleeps until
+ * the next non-empty wheel slot and stops entirely when no trucks are on the road, which
+ * keeps discrete-event runs from stepping through idle ticks.
+ * <p>
+ * Each fire's trucks are also chained into a list of their own, and trucks on their way to a
+ * fire are filed in a spatial hash by destination, so changing a crew or looking for trucks
+ * heading into an area only touches those trucks rather than every record.
+ * <p>
+ * Dispatch can change its mind about a truck on the road: {@link #retime} moves the time
+ * a fire's crew finishes, {@link #retarget} hands a crew over to another fire, and
+ * {@link #recall} and {@link #recallTruck} turn trucks around on their way to a fire.
+ */
+public class TruckLifecycleManager {
+    /**
+     * Receives truck state changes. Callbacks run on the scheduler thread, outside the
+     * manager's lock, in the order the trucks became due.
+     */
+    public interface Listener {
+        /**
+         * A truck reached its fire and started extinguishing.
+         *
+         * @param stationId    the station the truck belongs to
+         * @param fireId       the fire the truck is working on
+         * @param dispatchedAt when the truck left its station, in the scheduler's epoch milliseconds
+         */
+        void truckArrived(int stationId, int fireId, long dispatchedAt);
+
+        /**
+         * A truck finished its work at a fire and started driving back.
+         *
+         * @param stationId the station the truck belongs to
+         * @param fireId    the fire the truck worked on
+         */
+        void truckFinished(int stationId, int fireId);
+
+        /**
+         * A truck arrived back at its station and left the road.
+         *
+         * @param stationId the station the truck belongs to
+         * @param fireId    the fire the truck worked on
+         */
+        void truckReturned(int stationId, int fireId);
+
+        /**
+         * A truck on its way to a fire turned back towards its station.
+         *
+         * @param stationId    the station the truck belongs to
+         * @param fireId       the fire the truck was heading to
+         * @param x            the x-coordinate where it turned back
+         * @param y            the y-coordinate where it turned back
+         * @param returnMillis how long it takes to get back to the station
+         */
+        void truckRecalled(int stationId, int fireId, float x, float y, long returnMillis);
+    }
+
+    /**
+     * A truck turned back under the lock, reported to the listener once it is released.
+     */
+    private static final class Recall {
+        final int stationId, fireId;
+        final float x, y;
+        final long returnMillis;
+
+        Recall(int stationId, int fireId, float x, float y, long returnMillis) {
+            this.stationId = stationId;
+            this.fireId = fireId;
+            this.x = x;
+            this.y = y;
+            this.returnMillis = returnMillis;
+        }
+    }
+
+    private static final byte TO_FIRE = (byte) MovingTruck.State.TO_FIRE.ordinal();
+    private static final byte EXTINGUISHING = (byte) MovingTruck.State.EXTINGUISHING.ordinal();
+    private static final byte RETURNING = (byte) MovingTruck.State.RETURNING.ordinal();
+    private static final byte FREE = -1;
+    private static final int NONE = -1;
+    private static final float DEST_CELL = 250f;
+    private static final int DEST_BUCKETS = 1024;
+
+    private final SimulationScheduler scheduler;
+    private final Listener listener;
+    private final long tickMs;
+    private final int wheelMask;
+    private final int[] slotHead;
+    private final int[] slotTail;
+
+    // Truck records, one index per truck
+    private int capacity;
+    private int[] stationIds;
+    private int[] fireIds;
+    private byte[] state;
+    private float[] stationX, stationY, fireX, fireY;
+    private Route[] routes; // null for a truck driving in a straight line
+    private long[] legStart;
+    private long[] travelMs;
+    private long[] workEnd;
+    private long[] dueTick;
+    private int[] next;
+    private int[] crewNext, crewPrev;
+    private int[] destNext, destPrev;
+    private int freeHead = NONE;
+    private int highWater;
+    private int active;
+
+    // Each fire's trucks, in truck-number order, from the fire to its first truck
+    private final IntIntMap crewHead = new IntIntMap(64);
+    // Trucks on their way to a fire, hashed by the grid cell of their destination
+    private final int[] destHead = new int[DEST_BUCKETS];
+    private long latestArrival = Long.MIN_VALUE; // no truck on its way arrives later than this
+
+    private long currentTick;
+    private long wakeTick = Long.MAX_VALUE;
+    private boolean wakePending; // wakeTick moved earlier under the lock, not yet scheduled
+
+    // Transitions collected under the lock and delivered after it is released
+    private int[] pendingEvents = new int[48];
+    private long[] pendingLegStarts = new long[16];
+    private int pendingCount;
+
+    /**
+     * Creates a lifecycle manager with a 100 ms tick and a 512-slot wheel.
+     *
+     * @param scheduler the scheduler that runs the ticking task and supplies the time
+     * @param listener  the receiver of truck state changes
+     */
+    public TruckLifecycleManager(SimulationScheduler scheduler, Listener listener) {
+        this(scheduler, listener, 100, 512);
+    }
+
+    /**
+     * Creates a lifecycle manager.
+     *
+     * @param scheduler  the scheduler that runs the ticking task and supplies the time
+     * @param listener   the receiver of truck state changes
+     * @param tickMs     the wheel resolution in milliseconds
+     * @param wheelSlots the number of wheel slots, rounded up to a power of two
+     */
+    public TruckLifecycleManager(SimulationScheduler scheduler, Listener listener, long tickMs, int wheelSlots) {
+        this.scheduler = scheduler;
+        this.listener = listener;
+        this.tickMs = tickMs;
+        int slots = Integer.highestOneBit(Math.max(2, wheelSlots - 1)) << 1;
+        this.wheelMask = slots - 1;
+        this.slotHead = new int[slots];
+        this.slotTail = new int[slots];
+        Arrays.fill(slotHead, NONE);
+        Arrays.fill(slotTail, NONE);
+        Arrays.fill(destHead, NONE);
+        this.currentTick = scheduler.currentTimeMillis() / tickMs;
+        grow(64);
+    }
+
+    /**
+     * Puts a truck on the road towards a fire.
+     *
+     * @param stationId    the station sending the truck
+     * @param fireId       the fire the truck responds to
+     * @param sx           the x-coordinate of the station
+     * @param sy           the y-coordinate of the station
+     * @param fx           the x-coordinate of the fire
+     * @param fy           the y-coordinate of the fire
+     * @param travel       the one-way travel time in milliseconds
+     * @param extinguishMs how long the truck works at the fire after arriving
+     */
+    public void dispatch(int stationId, int fireId, float sx, float sy, float fx, float fy,
+                         long travel, long extinguishMs) {
+        dispatch(stationId, fireId, sx, sy, fx, fy, null, travel, extinguishMs);
+    }
+
+    /**
+     * Puts a truck on the road towards a fire along a route.
+     *
+     * @param stationId    the station sending the truck
+     * @param fireId       the fire the truck responds to
+     * @param sx           the x-coordinate of the station
+     * @param sy           the y-coordinate of the station
+     * @param fx           the x-coordinate of the fire
+     * @param fy           the y-coordinate of the fire
+     * @param route        the roads the truck follows, or {@code null} to drive in a straight line
+     * @param travel       the one-way travel time in milliseconds
+     * @param extinguishMs how long the truck works at the fire after arriving
+     */
+    public void dispatch(int stationId, int fireId, float sx, float sy, float fx, float fy, Route route,
+                         long travel, long extinguishMs) {
+        boolean wake;
+        synchronized (this) {
+            long now = scheduler.currentTimeMillis();
+            if (active == 0) {
+                // Nothing was due while the road was empty, so skip the idle ticks
+                currentTick = Math.max(currentTick, now / tickMs);
+            }
+            int t = allocate();
+            stationIds[t] = stationId;
+            fireIds[t] = fireId;
+            stationX[t] = sx;
+            stationY[t] = sy;
+            fireX[t] = fx;
+            fireY[t] = fy;
+            routes[t] = route;
+            state[t] = TO_FIRE;
+            legStart[t] = now;
+            travelMs[t] = travel;
+            workEnd[t] = now + travel + extinguishMs;
+            latestArrival = Math.max(latestArrival, now + travel);
+            crewLink(t);
+            destLink(t);
+            enqueue(t, now + travel);
+            active++;
+            wake = dueTick[t] < wakeTick;
+            if (wake) wakeTick = dueTick[t];
+        }
+        if (wake) scheduleWake();
+    }
+
+    /** @return the number of trucks currently on the road or at a fire */
+    public synchronized int activeCount() {
+        return active;
+    }
+
+    /**
+     * @return a time no truck now on its way to a fire arrives after, in epoch milliseconds,
+     *         or {@link Long#MIN_VALUE} if no truck has been dispatched
+     */
+    public synchronized long latestArrival() {
+        return latestArrival;
+    }
+
+    /**
+     * Copies every truck on its way to a destination within a radius of a point into the given
+     * arrays, in no particular order, stopping when they are full. Truck numbers are only valid
+     * until the truck's next state change, and are checked by {@link #recallTruck}.
+     *
+     * @param x          the x-coordinate of the point
+     * @param y          the y-coordinate of the point
+     * @param radius     the largest distance from the point to a truck's destination
+     * @param outTruck   receives each truck's number
+     * @param outStation receives the station each truck belongs to
+     * @param outFire    receives the fire each truck is heading to
+     * @param outX       receives the x-coordinate of each truck's destination
+     * @param outY       receives the y-coordinate of each truck's destination
+     * @param outArrival receives when each truck arrives, in epoch milliseconds
+     * @return the number of trucks copied
+     */
+    synchronized int copyEnRouteNear(float x, float y, double radius, int[] outTruck, int[] outStation,
+                                     int[] outFire, float[] outX, float[] outY, long[] outArrival) {
+        if (!(radius >= 0)) return 0;
+        long cx0 = destCell(x - radius), cx1 = destCell(x + radius);
+        long cy0 = destCell(y - radius), cy1 = destCell(y + radius);
+        int n = 0;
+        if ((cx1 - cx0 + 1) * (cy1 - cy0 + 1) >= DEST_BUCKETS) {
+            // The area covers at least as many cells as there are buckets, so visit each bucket once
+            for (int b = 0; b < DEST_BUCKETS; b++) {
+                n = copyNear(destHead[b], Long.MIN_VALUE, 0, x, y, radius, n,
+                        outTruck, outStation, outFire, outX, outY, outArrival);
+            }
+            return n;
+        }
+        for (long cx = cx0; cx <= cx1; cx++) {
+            for (long cy = cy0; cy <= cy1; cy++) {
+                n = copyNear(destHead[destBucket(cx, cy)], cx, cy, x, y, radius, n,
+                        outTruck, outStation, outFire, outX, outY, outArrival);
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Copies the trucks of one hash bucket that lie within the radius. When {@code cx} is not
+     * {@link Long#MIN_VALUE}, only trucks in that cell are taken, since other cells sharing the
+     * bucket are visited in their own right.
+     *
+     * @return the number of trucks copied so far
+     */
+    private int copyNear(int head, long cx, long cy, float x, float y, double radius, int n,
+                         int[] outTruck, int[] outStation, int[] outFire, float[] outX, float[] outY,
+                         long[] outArrival) {
+        for (int t = head; t != NONE && n < outTruck.length; t = destNext[t]) {
+            if (cx != Long.MIN_VALUE && (destCell(fireX[t]) != cx || destCell(fireY[t]) != cy)) continue;
+            if (Math.hypot(fireX[t] - x, fireY[t] - y) > radius) continue;
+            outTruck[n] = t;
+            outStation[n] = stationIds[t];
+            outFire[n] = fireIds[t];
+            outX[n] = fireX[t];
+            outY[n] = fireY[t];
+            outArrival[n] = legStart[t] + travelMs[t];
+            n++;
+        }
+        return n;
+    }
+
+    /**
+     * Moves the time every truck at or on its way to a fire finishes working there. Trucks
+     * already at the fire whose new finish time has passed leave on the next tick.
+     *
+     * @param fireId  the fire
+     * @param endMillis when the crew puts the fire out, in epoch milliseconds
+     */
+    public void retime(int fireId, long endMillis) {
+        synchronized (this) {
+            for (int t = crewHead.get(fireId); t >= 0; t = crewNext[t]) {
+                if (state[t] != TO_FIRE && state[t] != EXTINGUISHING) continue;
+                workEnd[t] = endMillis;
+                if (state[t] == EXTINGUISHING) {
+                    unlink(t);
+                    enqueue(t, endMillis);
+                    noteDue(t);
+                }
+            }
+        }
+        wakeIfEarlier();
+    }
+
+    /**
+     * Hands every truck of one fire over to another, as when two fires merge. The trucks keep
+     * their destinations and timing.
+     *
+     * @param fromFireId the fire that no longer exists
+     * @param toFireId   the fire that takes over its trucks
+     * @return the number of trucks handed over
+     */
+    public synchronized int retarget(int fromFireId, int toFireId) {
+        if (fromFireId == toFireId) return 0;
+        int n = 0;
+        for (int t = crewHead.get(fromFireId), following; t >= 0; t = following) {
+            following = crewNext[t];
+            // Trucks already driving back stay with the fire they worked on
+            if (state[t] == RETURNING) continue;
+            crewUnlink(t);
+            fireIds[t] = toFireId;
+            crewLink(t);
+            n++;
+        }
+        return n;
+    }
+
+    /**
+     * Sends home every truck of a fire that has gone out. Trucks on the way turn around where
+     * they are, without arriving or finishing, and are reported to the listener before this
+     * returns; trucks at the fire finish on the next tick.
+     *
+     * @param fireId the fire
+     * @return the number of trucks turned around on the way
+     */
+    public int recall(int fireId) {
+        List<Recall> turned = new ArrayList<>();
+        synchronized (this) {
+            for (int t = crewHead.get(fireId); t >= 0; t = crewNext[t]) {
+                if (state[t] == TO_FIRE) {
+                    turned.add(turnAround(t));
+                } else if (state[t] == EXTINGUISHING) {
+                    long now = scheduler.currentTimeMillis();
+                    workEnd[t] = now;
+                    unlink(t);
+                    enqueue(t, now);
+                    noteDue(t);
+                }
+            }
+        }
+        wakeIfEarlier();
+        for (Recall rc : turned) {
+            listener.truckRecalled(rc.stationId, rc.fireId, rc.x, rc.y, rc.returnMillis);
+        }
+        return turned.size();
+    }
+
+    /**
+     * Turns one truck around on its way to a fire, as when a closer truck takes its place.
+     *
+     * @param truck     the truck's number from {@link #copyEnRouteNear}
+     * @param stationId the station it belongs to
+     * @param fireId    the fire it is heading to
+     * @return {@code false} if that truck is no longer on its way to that fire
+     */
+    public boolean recallTruck(int truck, int stationId, int fireId) {
+        Recall rc;
+        synchronized (this) {
+            if (truck < 0 || truck >= highWater || state[truck] != TO_FIRE
+                    || stationIds[truck] != stationId || fireIds[truck] != fireId) {
+                return false;
+            }
+            rc = turnAround(truck);
+        }
+        wakeIfEarlier();
+        listener.truckRecalled(rc.stationId, rc.fireId, rc.x, rc.y, rc.returnMillis);
+        return true;
+    }
+
+    /**
+     * Sends a truck on its way to a fire back to its station from where it is now. The return
+     * leg starts at the truck's current position, retraces its route and takes as long as it
+     * has driven so far.
+     *
+     * @return the turn, for the listener
+     */
+    private Recall turnAround(int t) {
+        long now = scheduler.currentTimeMillis();
+        long driven = Math.max(0, Math.min(travelMs[t], now - legStart[t]));
+        float p = travelMs[t] == 0 ? 1f : (float) driven / travelMs[t];
+        destUnlink(t);
+        Route route = routes[t];
+        if (route != null) {
+            fireX[t] = route.xAt(p);
+            fireY[t] = route.yAt(p);
+            routes[t] = route.truncate(p);
+        } else {
+            fireX[t] = stationX[t] + (fireX[t] - stationX[t]) * p;
+            fireY[t] = stationY[t] + (fireY[t] - stationY[t]) * p;
+        }
+        state[t] = RETURNING;
+        legStart[t] = now;
+        travelMs[t] = driven;
+        unlink(t);
+        enqueue(t, now + driven);
+        noteDue(t);
+        return new Recall(stationIds[t], fireIds[t], fireX[t], fireY[t], driven);
+    }
+
+    /**
+     * Takes a truck out of its wheel slot.
+     */
+    private void unlink(int t) {
+        int slot = (int) (dueTick[t] & wheelMask);
+        int prev = NONE;
+        for (int u = slotHead[slot]; u != NONE; prev = u, u = next[u]) {
+            if (u != t) continue;
+            if (prev == NONE) slotHead[slot] = next[t]; else next[prev] = next[t];
+            if (slotTail[slot] == t) slotTail[slot] = prev;
+            next[t] = NONE;
+            return;
+        }
+    }
+
+    /**
+     * Adds a truck to its fire's list, keeping the list in truck-number order.
+     */
+    private void crewLink(int t) {
+        int head = crewHead.get(fireIds[t]);
+        int prev = NONE;
+        int u = head == IntIntMap.MISSING ? NONE : head;
+        while (u != NONE && u < t) {
+            prev = u;
+            u = crewNext[u];
+        }
+        crewPrev[t] = prev;
+        crewNext[t] = u;
+        if (u != NONE) crewPrev[u] = t;
+        if (prev == NONE) crewHead.put(fireIds[t], t); else crewNext[prev] = t;
+    }
+
+    /**
+     * Takes a truck out of its fire's list.
+     */
+    private void crewUnlink(int t) {
+        int prev = crewPrev[t], following = crewNext[t];
+        if (following != NONE) crewPrev[following] = prev;
+        if (prev != NONE) {
+            crewNext[prev] = following;
+        } else if (following != NONE) {
+            crewHead.put(fireIds[t], following);
+        } else {
+            crewHead.remove(fireIds[t]);
+        }
+        crewPrev[t] = crewNext[t] = NONE;
+    }
+
+    /**
+     * Files a truck on its way to a fire under the bucket of its destination.
+     */
+    private void destLink(int t) {
+        int b = destBucket(destCell(fireX[t]), destCell(fireY[t]));
+        destPrev[t] = NONE;
+        destNext[t] = destHead[b];
+        if (destHead[b] != NONE) destPrev[destHead[b]] = t;
+        destHead[b] = t;
+    }
+
+    /**
+     * Takes a truck out of its destination bucket. Must run before its destination changes.
+     */
+    private void destUnlink(int t) {
+        int prev = destPrev[t], following = destNext[t];
+        if (following != NONE) destPrev[following] = prev;
+        if (prev != NONE) {
+            destNext[prev] = following;
+        } else {
+            destHead[destBucket(destCell(fireX[t]), destCell(fireY[t]))] = following;
+        }
+        destPrev[t] = destNext[t] = NONE;
+    }
+
+    private static long destCell(double v) {
+        return (long) Math.floor(v / DEST_CELL);
+    }
+
+    private static int destBucket(long cx, long cy) {
+        return (int) ((cx * 73856093L ^ cy * 19349663L) & (DEST_BUCKETS - 1));
+    }
+
+    /**
+     * Brings the next wake-up forward if a truck has become due before it. Must hold the lock.
+     */
+    private void noteDue(int t) {
+        if (dueTick[t] < wakeTick) {
+            wakeTick = dueTick[t];
+            wakePending = true;
+        }
+    }
+
+    /**
+     * Schedules a wake-up brought forward by {@link #noteDue}. Must not hold the lock.
+     */
+    private void wakeIfEarlier() {
+        boolean wake;
+        synchronized (this) {
+            wake = wakePending;
+            wakePending = false;
+        }
+        if (wake) scheduleWake();
+    }
+
+    /**
+     * Copies every active truck into the given arrays, which must hold at least
+     * {@link #activeCount()} entries. Trucks are described as for {@link WorldSnapshot}.
+     *
+     * @param outRoute receives each truck's route from its station to the fire, {@code null}
+     *                 for a straight line; may itself be {@code null}
+     * @return the number of trucks copied
+     */
+    synchronized int copyTo(int[] outStation, int[] outFire, float[] outStartX, float[] outStartY,
+                            float[] outDestX, float[] outDestY, long[] outStart, long[] outDuration,
+                            byte[] outState, Route[] outRoute) {
+        int n = 0;
+        for (int t = 0; t < highWater && n < outStation.length; t++) {
+            if (state[t] == FREE) continue;
+            outStation[n] = stationIds[t];
+            outFire[n] = fireIds[t];
+            boolean returning = state[t] == RETURNING;
+            outStartX[n] = returning ? fireX[t] : stationX[t];
+            outStartY[n] = returning ? fireY[t] : stationY[t];
+            outDestX[n] = returning ? stationX[t] : fireX[t];
+            outDestY[n] = returning ? stationY[t] : fireY[t];
+            outStart[n] = legStart[t];
+            outDuration[n] = travelMs[t];
+            outState[n] = state[t];
+            if (outRoute != null) outRoute[n] = routes[t];
+            n++;
+        }
+        return n;
+    }
+
+    /**
+     * Advances every truck whose next state change is due at or before the current time.
+     */
+    public void advance() {
+        int[] events;
+        long[] legStarts;
+        int count;
+        synchronized (this) {
+            long nowTick = scheduler.currentTimeMillis() / tickMs;
+            while (currentTick < nowTick) {
+                currentTick++;
+                processSlot((int) (currentTick & wheelMask));
+            }
+            count = pendingCount;
+            if (count == 0) return;
+            events = Arrays.copyOf(pendingEvents, count);
+            legStarts = Arrays.copyOf(pendingLegStarts, count / 3);
+            pendingCount = 0;
+        }
+        for (int i = 0; i < count; i += 3) {
+            int kind = events[i];
+            if (kind == EXTINGUISHING) {
+                listener.truckArrived(events[i + 1], events[i + 2], legStarts[i / 3]);
+            } else if (kind == RETURNING) {
+                listener.truckFinished(events[i + 1], events[i + 2]);
+            } else {
+                listener.truckReturned(events[i + 1], events[i + 2]);
+            }
+        }
+    }
+
+    /**
+     * Moves every due truck in one wheel slot to its next state. Trucks that belong to a
+     * later revolution of the wheel stay in place. The slot is rebuilt from those trucks
+     * before any due truck moves on, since its next state change may fall in this same
+     * slot a whole number of revolutions later.
+     */
+    private void processSlot(int slot) {
+        int t = slotHead[slot];
+        slotHead[slot] = NONE;
+        slotTail[slot] = NONE;
+        int dueHead = NONE, dueTail = NONE;
+        while (t != NONE) {
+            int following = next[t];
+            next[t] = NONE;
+            if (dueTick[t] > currentTick) {
+                // Not due yet: keep it in this slot
+                if (slotTail[slot] == NONE) slotHead[slot] = t; else next[slotTail[slot]] = t;
+                slotTail[slot] = t;
+            } else {
+                if (dueTail == NONE) dueHead = t; else next[dueTail] = t;
+                dueTail = t;
+            }
+            t = following;
+        }
+        for (t = dueHead; t != NONE; ) {
+            int following = next[t];
+            next[t] = NONE;
+            transition(t);
+            t = following;
+        }
+    }
+
+    /**
+     * Moves one truck to its next lifecycle state.
+     */
+    private void transition(int t) {
+        long dueMs = dueTick[t] * tickMs;
+        if (state[t] == TO_FIRE) {
+            state[t] = EXTINGUISHING;
+            destUnlink(t);
+            recordEvent(EXTINGUISHING, t);
+            legStart[t] = dueMs;
+            enqueue(t, workEnd[t]);
+        } else if (state[t] == EXTINGUISHING) {
+            state[t] = RETURNING;
+            recordEvent(RETURNING, t);
+            legStart[t] = dueMs;
+            enqueue(t, dueMs + travelMs[t]);
+        } else {
+            recordEvent(FREE, t);
+            release(t);
+        }
+    }
+
+    /**
+     * Queues a state change for delivery, along with the start of the leg that just ended.
+     */
+    private void recordEvent(byte kind, int t) {
+        if (pendingCount + 3 > pendingEvents.length) {
+            pendingEvents = Arrays.copyOf(pendingEvents, pendingEvents.length * 2);
+            pendingLegStarts = Arrays.copyOf(pendingLegStarts, pendingEvents.length / 3);
+        }
+        pendingLegStarts[pendingCount / 3] = legStart[t];
+        pendingEvents[pendingCount++] = kind;
+        pendingEvents[pendingCount++] = stationIds[t];
+        pendingEvents[pendingCount++] = fireIds[t];
+    }
+
+    /**
+     * Files a truck under the wheel slot of the tick in which it becomes due.
+     * A due time that has already passed is handled on the next tick.
+     */
+    private void enqueue(int t, long dueMs) {
+        long tick = Math.max(currentTick + 1, (dueMs + tickMs - 1) / tickMs);
+        dueTick[t] = tick;
+        int slot = (int) (tick & wheelMask);
+        next[t] = NONE;
+        if (slotTail[slot] == NONE) {
+            slotHead[slot] = t;
+        } else {
+            next[slotTail[slot]] = t;
+        }
+        slotTail[slot] = t;
+    }
+
+    /**
+     * Schedules the ticking task for the current {@link #wakeTick}. A wake-up that finds
+     * a different {@code wakeTick} when it runs has been superseded and does nothing.
+     */
+    private void scheduleWake() {
+        long target;
+        synchronized (this) {
+            target = wakeTick;
+        }
+        if (target == Long.MAX_VALUE) return;
+        long delay = Math.max(0, target * tickMs - scheduler.currentTimeMillis());
+        scheduler.schedule(() -> onWake(target), delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void onWake(long target) {
+        synchronized (this) {
+            if (target != wakeTick) return; // superseded by an earlier wake-up
+            wakeTick = Long.MAX_VALUE;
+        }
+        advance();
+        synchronized (this) {
+            long nextTick = nextOccupiedTick();
+            if (nextTick >= wakeTick) return; // a dispatch during the callbacks already woke us sooner
+            wakeTick = nextTick;
+        }
+        scheduleWake();
+    }
+
+    /**
+     * Finds the earliest tick whose wheel slot holds a truck, or {@link Long#MAX_VALUE}
+     * if the road is empty. The result may belong to a later revolution, in which case
+     * the wake-up simply finds nothing due and looks again.
+     */
+    private long nextOccupiedTick() {
+        if (active == 0) return Long.MAX_VALUE;
+        for (long tick = currentTick + 1; tick <= currentTick + wheelMask + 1; tick++) {
+            if (slotHead[(int) (tick & wheelMask)] != NONE) return tick;
+        }
+        return Long.MAX_VALUE;
+    }
+
+    private int allocate() {
+        if (freeHead != NONE) {
+            int t = freeHead;
+            freeHead = next[t];
+            return t;
+        }
+        if (highWater == capacity) grow(capacity * 2);
+        return highWater++;
+    }
+
+    private void release(int t) {
+        crewUnlink(t);
+        state[t] = FREE;
+        routes[t] = null;
+        next[t] = freeHead;
+        freeHead = t;
+        active--;
+    }
+
+    private void grow(int newCapacity) {
+        stationIds = stationIds == null ? new int[newCapacity] : Arrays.copyOf(stationIds, newCapacity);
+        fireIds = fireIds == null ? new int[newCapacity] : Arrays.copyOf(fireIds, newCapacity);
+        stationX = stationX == null ? new float[newCapacity] : Arrays.copyOf(stationX, newCapacity);
+        stationY = stationY == null ? new float[newCapacity] : Arrays.copyOf(stationY, newCapacity);
+        fireX = fireX == null ? new float[newCapacity] : Arrays.copyOf(fireX, newCapacity);
+        fireY = fireY == null ? new float[newCapacity] : Arrays.copyOf(fireY, newCapacity);
+        routes = routes == null ? new Route[newCapacity] : Arrays.copyOf(routes, newCapacity);
+        legStart = legStart == null ? new long[newCapacity] : Arrays.copyOf(legStart, newCapacity);
+        travelMs = travelMs == null ? new long[newCapacity] : Arrays.copyOf(travelMs, newCapacity);
+        workEnd = workEnd == null ? new long[newCapacity] : Arrays.copyOf(workEnd, newCapacity);
+        dueTick = dueTick == null ? new long[newCapacity] : Arrays.copyOf(dueTick, newCapacity);
+        next = next == null ? new int[newCapacity] : Arrays.copyOf(next, newCapacity);
+        crewNext = crewNext == null ? new int[newCapacity] : Arrays.copyOf(crewNext, newCapacity);
+        crewPrev = crewPrev == null ? new int[newCapacity] : Arrays.copyOf(crewPrev, newCapacity);
+        destNext = destNext == null ? new int[newCapacity] : Arrays.copyOf(destNext, newCapacity);
+        destPrev = destPrev == null ? new int[newCapacity] : Arrays.copyOf(destPrev, newCapacity);
+        byte[] grownState = new byte[newCapacity];
+        Arrays.fill(grownState, FREE);
+        if (state != null) System.arraycopy(state, 0, grownState, 0, capacity);
+        state = grownState;
+        capacity = newCapacity;
+    }
+}
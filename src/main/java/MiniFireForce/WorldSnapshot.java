@@ -0,0 +1,214 @@
+package MiniFireForce;
+
+/**
+ * An immutable, versioned frame of the simulation world stored as primitive arrays.
+ * The simulation builds one frame per change and publishes it through a volatile
+ * reference, so any number of readers (GUI, exporters, metrics) can consume it
+ * without locks. Entity {@code i} of each kind is described by index {@code i}
+ * of the corresponding arrays; the arrays must not be modified by readers.
+ */
+public final class WorldSnapshot {
+    /** A snapshot with no entities, used before the first frame is published. */
+    public static final WorldSnapshot EMPTY = new WorldSnapshot(0, 0,
+            new int[0], new float[0], new float[0], new byte[0], new long[0],
+            new int[0], new float[0], new float[0], new int[0],
+            new int[0], new int[0], new float[0], new float[0], new float[0], new float[0],
+            new long[0], new long[0], new byte[0]);
+
+    private static final MovingTruck.State[] STATES = MovingTruck.State.values();
+
+    private final long version;
+    private final long timeMillis;
+
+    final int[] fireIds;
+    final float[] fireX;
+    final float[] fireY;
+    final byte[] fireSeverity;
+    final long[] fireTime;
+
+    final int[] stationIds;
+    final float[] stationX;
+    final float[] stationY;
+    final int[] stationTrucks;
+
+    final int[] truckStationIds;
+    final int[] truckFireIds;
+    final float[] truckStartX;
+    final float[] truckStartY;
+    final float[] truckDestX;
+    final float[] truckDestY;
+    final long[] truckStartTime;
+    final long[] truckDuration;
+    final byte[] truckState;
+    final Route[] truckRoutes; // null when every truck drives in a straight line
+
+    WorldSnapshot(long version, long timeMillis,
+                  int[] fireIds, float[] fireX, float[] fireY, byte[] fireSeverity, long[] fireTime,
+                  int[] stationIds, float[] stationX, float[] stationY, int[] stationTrucks,
+                  int[] truckStationIds, int[] truckFireIds,
+                  float[] truckStartX, float[] truckStartY, float[] truckDestX, float[] truckDestY,
+                  long[] truckStartTime, long[] truckDuration, byte[] truckState) {
+        this(version, timeMillis, fireIds, fireX, fireY, fireSeverity, fireTime,
+                stationIds, stationX, stationY, stationTrucks, truckStationIds, truckFireIds,
+                truckStartX, truckStartY, truckDestX, truckDestY, truckStartTime, truckDuration, truckState, null);
+    }
+
+    WorldSnapshot(long version, long timeMillis,
+                  int[] fireIds, float[] fireX, float[] fireY, byte[] fireSeverity, long[] fireTime,
+                  int[] stationIds, float[] stationX, float[] stationY, int[] stationTrucks,
+                  int[] truckStationIds, int[] truckFireIds,
+                  float[] truckStartX, float[] truckStartY, float[] truckDestX, float[] truckDestY,
+                  long[] truckStartTime, long[] truckDuration, byte[] truckState, Route[] truckRoutes) {
+        this.version = version;
+        this.timeMillis = timeMillis;
+        this.fireIds = fireIds;
+        this.fireX = fireX;
+        this.fireY = fireY;
+        this.fireSeverity = fireSeverity;
+        this.fireTime = fireTime;
+        this.stationIds = stationIds;
+        this.stationX = stationX;
+        this.stationY = stationY;
+        this.stationTrucks = stationTrucks;
+        this.truckStationIds = truckStationIds;
+        this.truckFireIds = truckFireIds;
+        this.truckStartX = truckStartX;
+        this.truckStartY = truckStartY;
+        this.truckDestX = truckDestX;
+        this.truckDestY = truckDestY;
+        this.truckStartTime = truckStartTime;
+        this.truckDuration = truckDuration;
+        this.truckState = truckState;
+        this.truckRoutes = truckRoutes;
+    }
+
+    /** @return the world version this frame was built from; higher is newer */
+    public long getVersion() { return version; }
+
+    /** @return the simulation time at which this frame was built, in epoch milliseconds */
+    public long getTimeMillis() { return timeMillis; }
+
+    /** @return the number of active fires */
+    public int fireCount() { return fireIds.length; }
+
+    /** @return the ID of fire {@code i} */
+    public int fireId(int i) { return fireIds[i]; }
+
+    /** @return the x-coordinate of fire {@code i} */
+    public float fireX(int i) { return fireX[i]; }
+
+    /** @return the y-coordinate of fire {@code i} */
+    public float fireY(int i) { return fireY[i]; }
+
+    /** @return the severity of fire {@code i} */
+    public int fireSeverity(int i) { return fireSeverity[i]; }
+
+    /** @return the start time of fire {@code i}, in epoch milliseconds */
+    public long fireTime(int i) { return fireTime[i]; }
+
+    /** @return the number of fire stations */
+    public int stationCount() { return stationIds.length; }
+
+    /** @return the ID of station {@code i} */
+    public int stationId(int i) { return stationIds[i]; }
+
+    /** @return the x-coordinate of station {@code i} */
+    public float stationX(int i) { return stationX[i]; }
+
+    /** @return the y-coordinate of station {@code i} */
+    public float stationY(int i) { return stationY[i]; }
+
+    /** @return the number of trucks available at station {@code i} */
+    public int stationTrucks(int i) { return stationTrucks[i]; }
+
+    /** @return the number of trucks on the road or extinguishing */
+    public int truckCount() { return truckStationIds.length; }
+
+    /** @return the ID of the station truck {@code i} belongs to */
+    public int truckStationId(int i) { return truckStationIds[i]; }
+
+    /** @return the ID of the fire truck {@code i} is responding to */
+    public int truckFireId(int i) { return truckFireIds[i]; }
+
+    /** @return the state of truck {@code i} */
+    public MovingTruck.State truckState(int i) { return STATES[truckState[i]]; }
+
+    /**
+     * @return the roads truck {@code i} follows from its station to the fire, or {@code null}
+     *         if it drives in a straight line
+     */
+    public Route truckRoute(int i) { return truckRoutes == null ? null : truckRoutes[i]; }
+
+    /**
+     * Computes the x-coordinate of truck {@code i} at a given time, along its route or by
+     * linear interpolation.
+     *
+     * @param i          the truck index
+     * @param timeMillis the time to evaluate, in the simulation clock's epoch milliseconds
+     * @return the truck's x-coordinate
+     */
+    public double truckX(int i, long timeMillis) {
+        Route route = truckRoute(i);
+        if (route != null) return route.xAt(routeFraction(i, progress(i, timeMillis)));
+        return truckStartX[i] + (truckDestX[i] - truckStartX[i]) * progress(i, timeMillis);
+    }
+
+    /**
+     * Computes the y-coordinate of truck {@code i} at a given time, along its route or by
+     * linear interpolation.
+     *
+     * @param i          the truck index
+     * @param timeMillis the time to evaluate, in the simulation clock's epoch milliseconds
+     * @return the truck's y-coordinate
+     */
+    public double truckY(int i, long timeMillis) {
+        Route route = truckRoute(i);
+        if (route != null) return route.yAt(routeFraction(i, progress(i, timeMillis)));
+        return truckStartY[i] + (truckDestY[i] - truckStartY[i]) * progress(i, timeMillis);
+    }
+
+    /**
+     * Computes the position of every truck at one time, writing the coordinates of truck
+     * {@code i} to {@code outX[i]} and {@code outY[i]}. Each frame should call this once
+     * with one timestamp and reuse its buffers; the loop is a straight pass over the truck
+     * arrays that the JIT can vectorize, after which trucks on roads are placed on their
+     * routes.
+     *
+     * @param timeMillis the time to evaluate, in the simulation clock's epoch milliseconds
+     * @param outX       receives the x-coordinates; at least {@link #truckCount()} long
+     * @param outY       receives the y-coordinates; at least {@link #truckCount()} long
+     * @return the number of trucks written
+     */
+    public int truckPositions(long timeMillis, float[] outX, float[] outY) {
+        int n = truckStationIds.length;
+        byte extinguishing = (byte) MovingTruck.State.EXTINGUISHING.ordinal();
+        for (int i = 0; i < n; i++) {
+            float t = (float) (timeMillis - truckStartTime[i]) / Math.max(1L, truckDuration[i]);
+            t = Math.min(1f, Math.max(0f, t));
+            t = truckState[i] == extinguishing ? 1f : t;
+            outX[i] = truckStartX[i] + (truckDestX[i] - truckStartX[i]) * t;
+            outY[i] = truckStartY[i] + (truckDestY[i] - truckStartY[i]) * t;
+        }
+        if (truckRoutes != null) {
+            for (int i = 0; i < n; i++) {
+                Route route = truckRoutes[i];
+                if (route == null) continue;
+                double f = routeFraction(i, progress(i, timeMillis));
+                outX[i] = route.xAt(f);
+                outY[i] = route.yAt(f);
+            }
+        }
+        return n;
+    }
+
+    private double progress(int i, long timeMillis) {
+        if (truckState[i] == MovingTruck.State.EXTINGUISHING.ordinal()) return 1;
+        double t = (timeMillis - truckStartTime[i]) / (double) Math.max(1, truckDuration[i]);
+        return Math.min(1, Math.max(0, t));
+    }
+
+    /** @return how far along its route truck {@code i} is, given how far along its leg it is */
+    private double routeFraction(int i, double legProgress) {
+        return truckState[i] == MovingTruck.State.RETURNING.ordinal() ? 1 - legProgress : legProgress;
+    }
+}
@@ -1,6 +1,7 @@
 module hello {
     requires javafx.fxml;
     requires java.desktop;
+    requires java.management;
     requires org.junit.jupiter.api;
     requires javafx.controls;    // For Swing / AWT
     // ...other requires if needed...
@@ -0,0 +1,36 @@
+package MiniFireForce;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for {@link EventJournal}.
+ */
+class EventJournalTest {
+
+    /**
+     * A journal opened in a directory with a gap in its file numbers carries on after the
+     * highest number instead of reusing one that is taken.
+     */
+    @Test
+    void newFilesFollowTheHighestExistingNumber() throws IOException {
+        Path dir = Files.createTempDirectory("journal");
+        EventJournal first = new EventJournal(dir, 64 * 1024, 1024);
+        first.close();
+        Files.move(dir.resolve("journal-00000.bin"), dir.resolve("journal-00002.bin"));
+        Files.createFile(dir.resolve("journal-old.bin"));
+
+        EventJournal second = new EventJournal(dir, 64 * 1024, 1024);
+        second.close();
+
+        List<Path> files = JournalReplay.journalFiles(dir);
+        assertEquals(List.of(dir.resolve("journal-00002.bin"), dir.resolve("journal-00003.bin")), files);
+        assertEquals(2, second.getRun());
+    }
+}
@@ -0,0 +1,68 @@
+package MiniFireForce;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for {@link FireStore}.
+ */
+class FireStoreTest {
+
+    /**
+     * A fire removed while the action is reading it ends only that fire's visit.
+     */
+    @Test
+    void forEachMovesOnWhenAFireIsRemovedUnderIt() {
+        FireStore store = new FireStore(1);
+        store.add(1, 0, 0, 3, 0);
+        store.add(2, 0, 0, 4, 0);
+        store.add(3, 0, 0, 5, 0);
+        List<Integer> seen = new ArrayList<>();
+        store.forEach(f -> {
+            // Stands in for another thread putting the fire out mid-visit
+            if (f.getID() == 2) store.remove(2);
+            seen.add(f.getSeverity());
+        });
+        assertEquals(List.of(3, 5), seen);
+    }
+
+    /**
+     * The action's own failures still reach the caller.
+     */
+    @Test
+    void forEachRethrowsFailuresOfFiresStillStored() {
+        FireStore store = new FireStore(1);
+        store.add(1, 0, 0, 3, 0);
+        assertThrows(IllegalStateException.class, () -> store.forEach(f -> {
+            throw new IllegalStateException("boom");
+        }));
+    }
+
+    /**
+     * Removing through the iterator removes the fire it returned, even once its slot holds
+     * another fire.
+     */
+    @Test
+    void iteratorRemovesTheFireItReturned() {
+        FireStore store = new FireStore(4);
+        store.add(1, 0, 0, 3, 0);
+        store.add(2, 0, 0, 4, 0);
+        Iterator<Map.Entry<Integer, Fire>> it = store.asMap().entrySet().iterator();
+        assertEquals(1, it.next().getKey());
+        store.remove(1);
+        store.add(7, 0, 0, 6, 0); // reuses slot 0
+        it.remove();
+        assertEquals(2, store.size());
+        assertFalse(store.contains(1));
+        assertEquals(2, it.next().getKey());
+        assertFalse(it.hasNext());
+    }
+}
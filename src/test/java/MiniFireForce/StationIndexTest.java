@@ -0,0 +1,25 @@
+package MiniFireForce;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the {@link StationIndex} implementations.
+ */
+class StationIndexTest {
+
+    /**
+     * Asking for no stations, or a negative number of them, finds nothing.
+     */
+    @Test
+    void nonPositiveKFindsNothing() {
+        for (StationIndex index : new StationIndex[]{new GridStationIndex(), new LinearStationIndex()}) {
+            index.insert(new FireStation(1, 0, 0, 3));
+            assertTrue(index.kNearest(0, 0, 0, st -> true).isEmpty());
+            assertTrue(index.kNearest(0, 0, -1, st -> true).isEmpty());
+            assertEquals(1, index.kNearest(0, 0, 1, st -> true).size());
+        }
+    }
+}
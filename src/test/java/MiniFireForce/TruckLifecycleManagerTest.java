@@ -0,0 +1,91 @@
+package MiniFireForce;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for {@link TruckLifecycleManager}.
+ */
+class TruckLifecycleManagerTest {
+
+    /**
+     * Records every callback as "kind:station:fire".
+     */
+    private static final class Recorder implements TruckLifecycleManager.Listener {
+        final List<String> events = new ArrayList<>();
+
+        @Override
+        public void truckArrived(int stationId, int fireId, long dispatchedAt) {
+            events.add("arrived:" + stationId + ":" + fireId);
+        }
+
+        @Override
+        public void truckFinished(int stationId, int fireId) {
+            events.add("finished:" + stationId + ":" + fireId);
+        }
+
+        @Override
+        public void truckReturned(int stationId, int fireId) {
+            events.add("returned:" + stationId + ":" + fireId);
+        }
+
+        @Override
+        public void truckRecalled(int stationId, int fireId, float x, float y, long returnMillis) {
+            events.add("recalled:" + stationId + ":" + fireId);
+        }
+    }
+
+    /**
+     * A truck whose next state change lands exactly one wheel revolution later is filed
+     * back into the slot being processed, alongside a truck still waiting there. Both must
+     * stay on the wheel.
+     */
+    @Test
+    void truckRefiledIntoSlotBeingProcessedIsNotLost() {
+        DiscreteEventScheduler scheduler = new DiscreteEventScheduler(0);
+        Recorder recorder = new Recorder();
+        TruckLifecycleManager trucks = new TruckLifecycleManager(scheduler, recorder);
+
+        // A arrives at tick 30 and finishes at tick 542, which is slot 30 again on a
+        // 512-slot wheel; B also sits in slot 30 until tick 542
+        trucks.dispatch(1, 1, 0, 0, 10, 0, 3000, 51200);
+        trucks.dispatch(2, 2, 0, 0, 20, 0, 54200, 1000);
+
+        scheduler.runUntil(200_000);
+
+        assertEquals(0, trucks.activeCount());
+        // B is ahead of A in the rebuilt slot, so it goes first at tick 542
+        assertEquals(List.of("arrived:1:1", "arrived:2:2", "finished:1:1", "finished:2:2",
+                "returned:1:1", "returned:2:2"), recorder.events);
+    }
+
+    /**
+     * Recalls and hand-overs only touch the trucks of the fire named, and the trucks handed
+     * over answer to their new fire afterwards.
+     */
+    @Test
+    void crewChangesOnlyTouchThatFire() {
+        DiscreteEventScheduler scheduler = new DiscreteEventScheduler(0);
+        Recorder recorder = new Recorder();
+        TruckLifecycleManager trucks = new TruckLifecycleManager(scheduler, recorder);
+        trucks.dispatch(1, 1, 0, 0, 100, 0, 20_000, 1000);
+        trucks.dispatch(2, 2, 0, 0, 900, 0, 20_000, 1000);
+        trucks.dispatch(3, 1, 0, 0, 100, 0, 20_000, 1000);
+
+        assertEquals(2, trucks.retarget(1, 3));
+        assertEquals(0, trucks.recall(1));
+        assertEquals(2, trucks.recall(3));
+        assertEquals(List.of("recalled:1:3", "recalled:3:3"), recorder.events);
+
+        int[] truck = new int[3], station = new int[3], fire = new int[3];
+        float[] x = new float[3], y = new float[3];
+        long[] arrival = new long[3];
+        assertEquals(0, trucks.copyEnRouteNear(100, 0, 500, truck, station, fire, x, y, arrival));
+        assertEquals(1, trucks.copyEnRouteNear(1000, 0, 500, truck, station, fire, x, y, arrival));
+        assertEquals(2, station[0]);
+    }
+}